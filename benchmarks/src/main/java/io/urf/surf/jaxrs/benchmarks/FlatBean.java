@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs.benchmarks;
+
+import java.math.BigDecimal;
+
+/**
+ * A flat bean with a handful of scalar properties, representative of a typical row-style DTO.
+ * @author Garret Wilson
+ */
+public class FlatBean {
+
+	private long id;
+
+	/** @return The identifier. */
+	public long getId() {
+		return id;
+	}
+
+	/**
+	 * Sets the identifier.
+	 * @param id The new identifier.
+	 */
+	public void setId(final long id) {
+		this.id = id;
+	}
+
+	private String name;
+
+	/** @return The name. */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Sets the name.
+	 * @param name The new name.
+	 */
+	public void setName(final String name) {
+		this.name = name;
+	}
+
+	private String email;
+
+	/** @return The email address, as a string. */
+	public String getEmail() {
+		return email;
+	}
+
+	/**
+	 * Sets the email address.
+	 * @param email The new email address, as a string.
+	 */
+	public void setEmail(final String email) {
+		this.email = email;
+	}
+
+	private boolean active;
+
+	/** @return Whether the entry is active. */
+	public boolean isActive() {
+		return active;
+	}
+
+	/**
+	 * Sets whether the entry is active.
+	 * @param active The new active state.
+	 */
+	public void setActive(final boolean active) {
+		this.active = active;
+	}
+
+	private BigDecimal balance;
+
+	/** @return The balance. */
+	public BigDecimal getBalance() {
+		return balance;
+	}
+
+	/**
+	 * Sets the balance.
+	 * @param balance The new balance.
+	 */
+	public void setBalance(final BigDecimal balance) {
+		this.balance = balance;
+	}
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs.benchmarks;
+
+import java.util.List;
+
+/**
+ * A bean containing other beans, both directly and in a list.
+ * @author Garret Wilson
+ */
+public class NestedBean {
+
+	private String title;
+
+	/** @return The title. */
+	public String getTitle() {
+		return title;
+	}
+
+	/**
+	 * Sets the title.
+	 * @param title The new title.
+	 */
+	public void setTitle(final String title) {
+		this.title = title;
+	}
+
+	private FlatBean owner;
+
+	/** @return The owner. */
+	public FlatBean getOwner() {
+		return owner;
+	}
+
+	/**
+	 * Sets the owner.
+	 * @param owner The new owner.
+	 */
+	public void setOwner(final FlatBean owner) {
+		this.owner = owner;
+	}
+
+	private List<FlatBean> members;
+
+	/** @return The members. */
+	public List<FlatBean> getMembers() {
+		return members;
+	}
+
+	/**
+	 * Sets the members.
+	 * @param members The new members.
+	 */
+	public void setMembers(final List<FlatBean> members) {
+		this.members = members;
+	}
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.*;
+import java.util.*;
+
+/**
+ * The entities written by the benchmarks. Each payload creates the same, deterministic entity every time.
+ * @author Garret Wilson
+ */
+public enum Payload {
+
+	/** A single flat bean. */
+	FLAT {
+		@Override
+		public Object create() {
+			return createFlatBean(1);
+		}
+	},
+
+	/** A bean with a nested bean and a list of ten nested beans. */
+	NESTED {
+		@Override
+		public Object create() {
+			final NestedBean nestedBean = new NestedBean();
+			nestedBean.setTitle("Team Example");
+			nestedBean.setOwner(createFlatBean(0));
+			final List<FlatBean> members = new ArrayList<>();
+			for(int i = 1; i <= 10; i++) {
+				members.add(createFlatBean(i));
+			}
+			nestedBean.setMembers(members);
+			return nestedBean;
+		}
+	},
+
+	/** A list of {@value #LARGE_SIZE} flat beans. */
+	LARGE_LIST {
+		@Override
+		public Object create() {
+			final List<FlatBean> list = new ArrayList<>(LARGE_SIZE);
+			for(int i = 0; i < LARGE_SIZE; i++) {
+				list.add(createFlatBean(i));
+			}
+			return list;
+		}
+	},
+
+	/** A map of {@value #LARGE_SIZE} flat beans keyed to string identifiers. */
+	LARGE_MAP {
+		@Override
+		public Object create() {
+			final Map<String, FlatBean> map = new HashMap<>(LARGE_SIZE * 2);
+			for(int i = 0; i < LARGE_SIZE; i++) {
+				map.put("id-" + i, createFlatBean(i));
+			}
+			return map;
+		}
+	},
+
+	/** A list of one hundred beans consisting mostly of temporal properties. */
+	TEMPORAL {
+		@Override
+		public Object create() {
+			final List<TemporalBean> list = new ArrayList<>();
+			final ZonedDateTime base = ZonedDateTime.of(2017, 12, 25, 10, 30, 15, 123_000_000, ZoneId.of("America/Sao_Paulo"));
+			for(int i = 0; i < 100; i++) {
+				final ZonedDateTime zonedDateTime = base.plusHours(i);
+				final TemporalBean temporalBean = new TemporalBean();
+				temporalBean.setCreated(zonedDateTime.toInstant());
+				temporalBean.setDate(zonedDateTime.toLocalDate());
+				temporalBean.setDateTime(zonedDateTime.toLocalDateTime());
+				temporalBean.setOffsetDateTime(zonedDateTime.toOffsetDateTime());
+				temporalBean.setZonedDateTime(zonedDateTime);
+				temporalBean.setTime(zonedDateTime.toLocalTime());
+				temporalBean.setYearMonth(YearMonth.from(zonedDateTime));
+				list.add(temporalBean);
+			}
+			return list;
+		}
+	};
+
+	/** The number of elements in the large collection payloads. */
+	public static final int LARGE_SIZE = 1000;
+
+	/** @return A new instance of the payload entity. */
+	public abstract Object create();
+
+	/**
+	 * Creates a flat bean with values derived from the given number.
+	 * @param number The number distinguishing the bean.
+	 * @return A new flat bean.
+	 */
+	static FlatBean createFlatBean(final int number) {
+		final FlatBean flatBean = new FlatBean();
+		flatBean.setId(number);
+		flatBean.setName("Name " + number);
+		flatBean.setEmail("user" + number + "@example.com");
+		flatBean.setActive(number % 2 == 0);
+		flatBean.setBalance(BigDecimal.valueOf(number * 100 + 99, 2));
+		return flatBean;
+	}
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs.benchmarks;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import io.urf.surf.jaxrs.SurfMessageBodyWriter;
+
+/**
+ * Measures the throughput of {@link SurfMessageBodyWriter#writeTo(Object, Class, java.lang.reflect.Type, java.lang.annotation.Annotation[], MediaType,
+ * MultivaluedMap, OutputStream)} for various payloads.
+ * <p>
+ * Run with the GC profiler to also report the bytes allocated per operation:
+ * </p>
+ * 
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar -prof gc
+ * </pre>
+ * 
+ * @author Garret Wilson
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class SurfMessageBodyWriterBenchmark {
+
+	private static final MediaType SURF_MEDIA_TYPE = new MediaType("text", "surf");
+
+	/** The payload to write. */
+	@Param
+	public Payload payload;
+
+	private SurfMessageBodyWriter writer;
+
+	private Object entity;
+
+	private ByteArrayOutputStream entityStream;
+
+	/** Creates the writer, as a container would once for the application, and the entity. */
+	@Setup
+	public void setUp() {
+		writer = new SurfMessageBodyWriter();
+		entity = payload.create();
+		entityStream = new ByteArrayOutputStream(64 * 1024);
+	}
+
+	/**
+	 * Writes the entity as a container would for each response, with new response headers.
+	 * @return The number of bytes written.
+	 * @throws IOException if there was an error writing the entity.
+	 */
+	@Benchmark
+	public int writeTo() throws IOException {
+		entityStream.reset();
+		writer.writeTo(entity, entity.getClass(), entity.getClass(), new java.lang.annotation.Annotation[0], SURF_MEDIA_TYPE, new MultivaluedHashMap<>(),
+				entityStream);
+		return entityStream.size();
+	}
+
+}
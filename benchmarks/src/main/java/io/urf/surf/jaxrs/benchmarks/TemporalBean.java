@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs.benchmarks;
+
+import java.time.*;
+
+/**
+ * A bean consisting mostly of temporal properties, the serialization of which is comparatively expensive.
+ * @author Garret Wilson
+ */
+public class TemporalBean {
+
+	private Instant created;
+
+	/** @return The creation instant. */
+	public Instant getCreated() {
+		return created;
+	}
+
+	/**
+	 * Sets the creation instant.
+	 * @param created The new creation instant.
+	 */
+	public void setCreated(final Instant created) {
+		this.created = created;
+	}
+
+	private LocalDate date;
+
+	/** @return The local date. */
+	public LocalDate getDate() {
+		return date;
+	}
+
+	/**
+	 * Sets the local date.
+	 * @param date The new local date.
+	 */
+	public void setDate(final LocalDate date) {
+		this.date = date;
+	}
+
+	private LocalDateTime dateTime;
+
+	/** @return The local date and time. */
+	public LocalDateTime getDateTime() {
+		return dateTime;
+	}
+
+	/**
+	 * Sets the local date and time.
+	 * @param dateTime The new local date and time.
+	 */
+	public void setDateTime(final LocalDateTime dateTime) {
+		this.dateTime = dateTime;
+	}
+
+	private OffsetDateTime offsetDateTime;
+
+	/** @return The date and time with an offset. */
+	public OffsetDateTime getOffsetDateTime() {
+		return offsetDateTime;
+	}
+
+	/**
+	 * Sets the date and time with an offset.
+	 * @param offsetDateTime The new date and time with an offset.
+	 */
+	public void setOffsetDateTime(final OffsetDateTime offsetDateTime) {
+		this.offsetDateTime = offsetDateTime;
+	}
+
+	private ZonedDateTime zonedDateTime;
+
+	/** @return The date and time in a time zone. */
+	public ZonedDateTime getZonedDateTime() {
+		return zonedDateTime;
+	}
+
+	/**
+	 * Sets the date and time in a time zone.
+	 * @param zonedDateTime The new date and time in a time zone.
+	 */
+	public void setZonedDateTime(final ZonedDateTime zonedDateTime) {
+		this.zonedDateTime = zonedDateTime;
+	}
+
+	private LocalTime time;
+
+	/** @return The local time. */
+	public LocalTime getTime() {
+		return time;
+	}
+
+	/**
+	 * Sets the local time.
+	 * @param time The new local time.
+	 */
+	public void setTime(final LocalTime time) {
+		this.time = time;
+	}
+
+	private YearMonth yearMonth;
+
+	/** @return The year and month. */
+	public YearMonth getYearMonth() {
+		return yearMonth;
+	}
+
+	/**
+	 * Sets the year and month.
+	 * @param yearMonth The new year and month.
+	 */
+	public void setYearMonth(final YearMonth yearMonth) {
+		this.yearMonth = yearMonth;
+	}
+
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static java.lang.invoke.MethodType.*;
+import static java.util.Objects.*;
+
+import java.lang.invoke.*;
+import java.lang.reflect.*;
+import java.util.Optional;
+import java.util.function.*;
+
+import javax.annotation.*;
+
+/**
+ * Utilities for binding generated accessors to bean properties and constructors.
+ * <p>
+ * Accessors are spun using {@link LambdaMetafactory} when the bean class is visible to this library, so that they may be inlined like hand-written code.
+ * Otherwise they fall back to invoking a {@link MethodHandle}.
+ * </p>
+ * <p>
+ * A getter rethrows unchecked exceptions thrown by the getter method, and wraps checked exceptions in an {@link IllegalStateException}, however it is bound.
+ * </p>
+ * @author Garret Wilson
+ */
+final class BeanAccessors {
+
+	private BeanAccessors() {
+	}
+
+	/** The prefix of a getter method. */
+	public static final String GET_PREFIX = "get";
+
+	/** The prefix of a boolean getter method. */
+	public static final String IS_PREFIX = "is";
+
+	/** The prefix of a setter method. */
+	public static final String SET_PREFIX = "set";
+
+	/**
+	 * Returns the name of an accessor method for a property by capitalizing the property name and adding a prefix.
+	 * @param prefix The accessor method name prefix, such as {@value #GET_PREFIX}.
+	 * @param propertyName The name of the property.
+	 * @return The name of the accessor method.
+	 */
+	static String getAccessorMethodName(@Nonnull final String prefix, @Nonnull final String propertyName) {
+		return prefix + Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
+	}
+
+	/**
+	 * Finds the public getter method of a property.
+	 * @param beanClass The class of the bean.
+	 * @param propertyName The name of the property.
+	 * @return The getter method, if one could be found.
+	 */
+	static Optional<Method> findGetterMethod(@Nonnull final Class<?> beanClass, @Nonnull final String propertyName) {
+		for(final String prefix : new String[] {GET_PREFIX, IS_PREFIX}) {
+			try {
+				final Method method = beanClass.getMethod(getAccessorMethodName(prefix, propertyName));
+				if(method.getReturnType() != void.class && !Modifier.isStatic(method.getModifiers())) {
+					return Optional.of(method);
+				}
+			} catch(final NoSuchMethodException noSuchMethodException) {
+				//try the next prefix
+			}
+		}
+		return Optional.empty();
+	}
+
+	/**
+	 * Finds the public setter method of a property. If the setter is overloaded, the one accepting the given preferred type is chosen.
+	 * @param beanClass The class of the bean.
+	 * @param propertyName The name of the property.
+	 * @param preferredValueType The type of value the setter should preferably accept, such as the return type of the property getter, or <code>null</code> if
+	 *          there is no preference.
+	 * @return The setter method, if one could be found.
+	 */
+	static Optional<Method> findSetterMethod(@Nonnull final Class<?> beanClass, @Nonnull final String propertyName, @Nullable final Class<?> preferredValueType) {
+		final String setterMethodName = getAccessorMethodName(SET_PREFIX, propertyName);
+		Method setterMethod = null;
+		for(final Method method : beanClass.getMethods()) {
+			if(method.getName().equals(setterMethodName) && method.getParameterCount() == 1 && !Modifier.isStatic(method.getModifiers())) {
+				if(setterMethod == null || method.getParameterTypes()[0] == preferredValueType) {
+					setterMethod = method;
+				}
+			}
+		}
+		return Optional.ofNullable(setterMethod);
+	}
+
+	/**
+	 * Binds a generated function to the public no-argument constructor of a bean class.
+	 * @param <T> The type of bean.
+	 * @param beanClass The class of the bean.
+	 * @return A supplier of new bean instances, or empty if the class has no accessible no-argument constructor.
+	 */
+	static <T> Optional<Supplier<T>> bindConstructor(@Nonnull final Class<T> beanClass) {
+		if(Modifier.isAbstract(beanClass.getModifiers())) {
+			return Optional.empty();
+		}
+		final MethodHandle constructorHandle;
+		try {
+			constructorHandle = MethodHandles.publicLookup().findConstructor(beanClass, methodType(void.class));
+		} catch(final NoSuchMethodException | IllegalAccessException e) {
+			return Optional.empty();
+		}
+		if(isVisible(beanClass)) {
+			try {
+				@SuppressWarnings("unchecked")
+				final Supplier<T> constructor = (Supplier<T>)LambdaMetafactory.metafactory(MethodHandles.lookup(), "get", methodType(Supplier.class),
+						methodType(Object.class), constructorHandle, methodType(beanClass)).getTarget().invoke();
+				return Optional.of(constructor);
+			} catch(final Throwable throwable) { //fall back to invoking the method handle
+			}
+		}
+		final MethodHandle genericConstructorHandle = constructorHandle.asType(methodType(Object.class));
+		return Optional.of(() -> {
+			try {
+				return beanClass.cast(genericConstructorHandle.invokeExact());
+			} catch(final RuntimeException | Error unchecked) {
+				throw unchecked;
+			} catch(final Throwable throwable) {
+				throw new UndeclaredThrowableException(throwable);
+			}
+		});
+	}
+
+	/**
+	 * Binds a generated function to a public setter method of a bean.
+	 * @param <T> The type of bean.
+	 * @param beanClass The class of the bean.
+	 * @param setterMethod The setter method, accepting a single parameter.
+	 * @return A function setting the property value of a given bean, or empty if the setter method is not accessible.
+	 */
+	static <T> Optional<BiConsumer<T, Object>> bindSetter(@Nonnull final Class<T> beanClass, @Nonnull final Method setterMethod) {
+		final MethodHandle setterHandle;
+		try {
+			setterHandle = MethodHandles.publicLookup().unreflect(setterMethod);
+		} catch(final IllegalAccessException illegalAccessException) { //e.g. the method is declared in a non-public class
+			return Optional.empty();
+		}
+		if(isVisible(beanClass) && isVisible(setterMethod.getDeclaringClass())) {
+			try {
+				@SuppressWarnings("unchecked")
+				final BiConsumer<T, Object> setter = (BiConsumer<T, Object>)LambdaMetafactory.metafactory(MethodHandles.lookup(), "accept",
+						methodType(BiConsumer.class), methodType(void.class, Object.class, Object.class), setterHandle,
+						methodType(void.class, beanClass, setterMethod.getParameterTypes()[0]).wrap().changeReturnType(void.class)).getTarget().invoke();
+				return Optional.of(setter);
+			} catch(final Throwable throwable) { //fall back to invoking the method handle
+			}
+		}
+		final MethodHandle genericSetterHandle = setterHandle.asType(methodType(void.class, Object.class, Object.class));
+		return Optional.of((bean, value) -> {
+			try {
+				genericSetterHandle.invokeExact((Object)bean, value);
+			} catch(final RuntimeException | Error unchecked) {
+				throw unchecked;
+			} catch(final Throwable throwable) {
+				throw new UndeclaredThrowableException(throwable);
+			}
+		});
+	}
+
+	/**
+	 * Binds a generated function to the public getter method of a bean property.
+	 * @param <T> The type of bean.
+	 * @param beanClass The class of the bean.
+	 * @param propertyName The name of the property.
+	 * @return A function returning the value of the property of a given bean, or empty if no accessible getter method could be bound.
+	 * @see #isCheckedExceptionDeclared(Executable)
+	 */
+	static <T> Optional<Function<T, Object>> bindGetter(@Nonnull final Class<T> beanClass, @Nonnull final String propertyName) {
+		return findGetterMethod(beanClass, propertyName).flatMap(getterMethod -> {
+			final MethodHandle getterHandle;
+			try {
+				getterHandle = MethodHandles.publicLookup().unreflect(getterMethod);
+			} catch(final IllegalAccessException illegalAccessException) { //e.g. the method is declared in a non-public class
+				return Optional.empty();
+			}
+			//a spun function would rethrow checked exceptions as-is, so getters declaring them are invoked through the method handle instead
+			if(isVisible(beanClass) && isVisible(getterMethod.getDeclaringClass()) && !isCheckedExceptionDeclared(getterMethod)) {
+				try {
+					@SuppressWarnings("unchecked")
+					final Function<T, Object> getter = (Function<T, Object>)LambdaMetafactory.metafactory(MethodHandles.lookup(), "apply", methodType(Function.class),
+							methodType(Object.class, Object.class), getterHandle, methodType(getterMethod.getReturnType(), beanClass).wrap()).getTarget().invoke();
+					return Optional.of(getter);
+				} catch(final Throwable throwable) { //fall back to invoking the method handle
+				}
+			}
+			final MethodHandle genericGetterHandle = getterHandle.asType(methodType(Object.class, Object.class));
+			return Optional.of(bean -> {
+				try {
+					return genericGetterHandle.invokeExact((Object)bean);
+				} catch(final RuntimeException | Error unchecked) {
+					throw unchecked;
+				} catch(final Throwable throwable) {
+					throw newPropertyReadException(beanClass, propertyName, throwable);
+				}
+			});
+		});
+	}
+
+	/**
+	 * Creates the exception reporting that a checked exception prevented a property from being read.
+	 * @param beanClass The class of the bean.
+	 * @param propertyName The name of the property.
+	 * @param cause The checked exception thrown by the getter method.
+	 * @return The exception to throw.
+	 */
+	static IllegalStateException newPropertyReadException(@Nonnull final Class<?> beanClass, @Nonnull final String propertyName,
+			@Nonnull final Throwable cause) {
+		return new IllegalStateException(String.format("The property %s of %s could not be read.", propertyName, beanClass.getName()), cause);
+	}
+
+	/**
+	 * Determines whether a method or constructor declares that it throws any checked exception.
+	 * @param executable The method or constructor.
+	 * @return <code>true</code> if any of the exception types it declares is neither a {@link RuntimeException} nor an {@link Error}.
+	 */
+	static boolean isCheckedExceptionDeclared(@Nonnull final Executable executable) {
+		for(final Class<?> exceptionType : executable.getExceptionTypes()) {
+			if(!RuntimeException.class.isAssignableFrom(exceptionType) && !Error.class.isAssignableFrom(exceptionType)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Determines whether the given class can be referenced by name from classes generated in this library's class loader.
+	 * @param type The class to check.
+	 * @return <code>true</code> if the class is public and resolves to the same class from this library's class loader.
+	 */
+	private static boolean isVisible(@Nonnull final Class<?> type) {
+		if(!Modifier.isPublic(type.getModifiers())) {
+			return false;
+		}
+		try {
+			return Class.forName(type.getName(), false, BeanAccessors.class.getClassLoader()) == requireNonNull(type);
+		} catch(final ClassNotFoundException | LinkageError error) {
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static java.util.Collections.*;
+import static java.util.Objects.*;
+
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.function.*;
+
+import javax.annotation.*;
+
+import io.ploop.introspection.*;
+
+/**
+ * The information needed to bind a SURF object description to a bean of some class, resolved once through introspection so that it may be reused for every
+ * instance of that class.
+ * @author Garret Wilson
+ *
+ * @param <T> The type of bean this plan binds.
+ */
+final class BindingPlan<T> {
+
+	private final Class<T> beanClass;
+
+	/** @return The class of bean this plan binds. */
+	public Class<T> getBeanClass() {
+		return beanClass;
+	}
+
+	private final Supplier<T> constructor;
+
+	private final Map<String, PropertySetter<T>> propertySetters;
+
+	/** @return The setters of the bean properties that can be bound, keyed to the property names. */
+	public Map<String, PropertySetter<T>> getPropertySetters() {
+		return propertySetters;
+	}
+
+	/**
+	 * Constructor.
+	 * @param beanClass The class of bean this plan binds.
+	 * @param constructor The function for creating new instances of the bean, or <code>null</code> if the bean cannot be instantiated.
+	 * @param propertySetters The setters of the bean properties that can be bound.
+	 */
+	private BindingPlan(@Nonnull final Class<T> beanClass, @Nullable final Supplier<T> constructor, @Nonnull final Collection<PropertySetter<T>> propertySetters) {
+		this.beanClass = requireNonNull(beanClass);
+		this.constructor = constructor;
+		final Map<String, PropertySetter<T>> propertySettersByName = new HashMap<>(propertySetters.size() * 2);
+		for(final PropertySetter<T> propertySetter : propertySetters) {
+			propertySettersByName.put(propertySetter.getName(), propertySetter);
+		}
+		this.propertySetters = unmodifiableMap(propertySettersByName);
+	}
+
+	/**
+	 * Creates a new, empty instance of the bean.
+	 * @return A new bean instance.
+	 * @throws IllegalArgumentException if the bean class has no accessible no-argument constructor.
+	 */
+	public T newInstance() {
+		if(constructor == null) {
+			throw new IllegalArgumentException(String.format("Class %s cannot be instantiated; a public no-argument constructor is required.", beanClass.getName()));
+		}
+		return constructor.get();
+	}
+
+	/**
+	 * Finds the setter of a bean property.
+	 * @param propertyName The name of the property.
+	 * @return The setter of the property, if the property can be bound.
+	 */
+	public Optional<PropertySetter<T>> findPropertySetter(@Nonnull final String propertyName) {
+		return Optional.ofNullable(propertySetters.get(propertyName));
+	}
+
+	/**
+	 * Introspects the given class and compiles a plan for binding its instances. A generated setter is bound to each introspected property having an accessible
+	 * setter method, preferring the one accepting the type the getter returns.
+	 * @param <T> The type of bean to bind.
+	 * @param beanClass The class of bean to bind.
+	 * @return A binding plan for the given bean class.
+	 */
+	public static <T> BindingPlan<T> compile(@Nonnull final Class<T> beanClass) {
+		final Collection<Property<T, ?>> properties = Introspection.of(beanClass).getProperties();
+		final List<PropertySetter<T>> propertySetters = new ArrayList<>(properties.size());
+		for(final Property<T, ?> property : properties) {
+			final String propertyName = property.getName();
+			final Class<?> getterReturnType = BeanAccessors.findGetterMethod(beanClass, propertyName).map(Method::getReturnType).orElse(null);
+			BeanAccessors.findSetterMethod(beanClass, propertyName, getterReturnType).ifPresent(setterMethod -> {
+				BeanAccessors.bindSetter(beanClass, setterMethod).ifPresent(setter -> {
+					propertySetters.add(new PropertySetter<>(propertyName, setterMethod.getGenericParameterTypes()[0], setter));
+				});
+			});
+		}
+		return new BindingPlan<>(beanClass, BeanAccessors.bindConstructor(beanClass).orElse(null), propertySetters);
+	}
+
+	/**
+	 * A bean property name bound to a function for setting the property value.
+	 * @param <T> The type of bean.
+	 */
+	public static final class PropertySetter<T> {
+
+		private final String name;
+
+		/** @return The name of the property. */
+		public String getName() {
+			return name;
+		}
+
+		private final Type valueType;
+
+		/** @return The generic type of value the property setter accepts. */
+		public Type getValueType() {
+			return valueType;
+		}
+
+		private final BiConsumer<? super T, Object> setter;
+
+		/**
+		 * Constructor.
+		 * @param name The name of the property.
+		 * @param valueType The generic type of value the property setter accepts.
+		 * @param setter The function for setting the property value of a bean.
+		 */
+		public PropertySetter(@Nonnull final String name, @Nonnull final Type valueType, @Nonnull final BiConsumer<? super T, Object> setter) {
+			this.name = requireNonNull(name);
+			this.valueType = requireNonNull(valueType);
+			this.setter = requireNonNull(setter);
+		}
+
+		/**
+		 * Sets the value of the property by invoking its setter.
+		 * @param bean The bean the property of which to set.
+		 * @param value The value of the property, which must be an instance of the value type.
+		 */
+		public void setValue(@Nonnull final T bean, @Nullable final Object value) {
+			setter.accept(bean, value);
+		}
+
+	}
+
+}
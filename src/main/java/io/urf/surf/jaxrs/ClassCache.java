@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static com.globalmentor.java.Conditions.*;
+import static java.util.Objects.*;
+
+import java.lang.ref.*;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import javax.annotation.*;
+
+/**
+ * A concurrent, bounded cache of values computed once per class.
+ * <p>
+ * Values are stored using a {@link ClassValue}, so that each value is only reachable from the class it was computed for. A value is therefore never kept
+ * alive after its class has been unloaded, and caching the classes of a redeployed application will not leak its class loader.
+ * </p>
+ * <p>
+ * Once more than the maximum number of values have been computed, the oldest values are evicted in the order they were computed; an evicted value will be
+ * computed again the next time it is requested. Eviction is only approximate under contention, as two threads may compute a value for the same class
+ * concurrently.
+ * </p>
+ * @author Garret Wilson
+ *
+ * @param <V> The type of value cached for each class.
+ */
+final class ClassCache<V> {
+
+	private final int maxSize;
+
+	/** @return The maximum number of values to keep cached. */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	private final Function<? super Class<?>, ? extends V> valueFactory;
+
+	/** The number of values computed and not yet evicted, including values of classes that have since been unloaded. */
+	private final AtomicInteger size = new AtomicInteger(0);
+
+	/** Weak references to the classes for which values were computed, in the order computed. */
+	private final Queue<Reference<Class<?>>> computedClasses = new ConcurrentLinkedQueue<>();
+
+	private final ClassValue<V> values = new ClassValue<V>() {
+		@Override
+		protected V computeValue(final Class<?> type) {
+			final V value = requireNonNull(valueFactory.apply(type), "Cached class values must not be null.");
+			computedClasses.add(new WeakReference<Class<?>>(type));
+			size.incrementAndGet();
+			return value;
+		}
+	};
+
+	/**
+	 * Constructor.
+	 * @param maxSize The maximum number of values to keep cached.
+	 * @param valueFactory The function for computing the value of a class that is not cached; must not return <code>null</code>.
+	 * @throws IllegalArgumentException if the given maximum size is not positive.
+	 */
+	public ClassCache(final int maxSize, @Nonnull final Function<? super Class<?>, ? extends V> valueFactory) {
+		checkArgument(maxSize > 0, "Maximum cache size %d must be positive.", maxSize);
+		this.maxSize = maxSize;
+		this.valueFactory = requireNonNull(valueFactory);
+	}
+
+	/**
+	 * Returns the value for the given class, computing and caching it if needed.
+	 * @param type The class for which a value should be returned.
+	 * @return The value for the given class.
+	 */
+	public V get(@Nonnull final Class<?> type) {
+		final V value = values.get(type);
+		while(size.get() > maxSize) { //evict the oldest values until we are back within bounds
+			final Reference<Class<?>> oldestClassReference = computedClasses.poll();
+			if(oldestClassReference == null) { //another thread beat us to the eviction
+				break;
+			}
+			size.decrementAndGet();
+			final Class<?> oldestClass = oldestClassReference.get();
+			if(oldestClass != null) { //if the class was unloaded, its value is already gone
+				values.remove(oldestClass);
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Returns the number of values currently counted against the maximum size. This may include values of classes that have been unloaded but not yet evicted.
+	 * @return The current approximate number of cached values.
+	 */
+	public int getSize() {
+		return size.get();
+	}
+
+}
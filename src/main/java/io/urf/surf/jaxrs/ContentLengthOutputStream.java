@@ -0,0 +1,117 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static java.util.Objects.*;
+
+import java.io.*;
+
+import javax.annotation.*;
+import javax.ws.rs.core.*;
+
+/**
+ * An output stream that holds back an entity in a buffer so that its length can be reported in a <code>Content-Length</code> header. If the entity does not
+ * fit in the buffer, the buffered content is written and the rest of the entity is streamed, without a content length.
+ * <p>
+ * The entity is not complete until {@link #finish()} is called. Neither {@link #flush()} nor {@link #close()} write out buffered content or close the
+ * decorated stream.
+ * </p>
+ * @author Garret Wilson
+ */
+class ContentLengthOutputStream extends OutputStream {
+
+	private final OutputStream outputStream;
+
+	private final byte[] buffer;
+
+	private final MultivaluedMap<String, Object> httpHeaders;
+
+	private int count = 0;
+
+	private boolean streaming = false;
+
+	/** @return <code>true</code> if the entity did not fit in the buffer and is being streamed without a content length. */
+	public boolean isStreaming() {
+		return streaming;
+	}
+
+	/**
+	 * Constructor.
+	 * @param outputStream The entity stream to which the entity will be written.
+	 * @param buffer The buffer in which to hold back the entity; its length is the largest entity for which a content length will be reported.
+	 * @param httpHeaders The response headers, which must still be mutable.
+	 */
+	public ContentLengthOutputStream(@Nonnull final OutputStream outputStream, @Nonnull final byte[] buffer,
+			@Nonnull final MultivaluedMap<String, Object> httpHeaders) {
+		this.outputStream = requireNonNull(outputStream);
+		this.buffer = requireNonNull(buffer);
+		this.httpHeaders = requireNonNull(httpHeaders);
+	}
+
+	@Override
+	public void write(final int b) throws IOException {
+		if(!streaming && count < buffer.length) {
+			buffer[count++] = (byte)b;
+		} else {
+			stream();
+			outputStream.write(b);
+		}
+	}
+
+	@Override
+	public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+		if(!streaming && length <= buffer.length - count) {
+			System.arraycopy(bytes, offset, buffer, count, length);
+			count += length;
+		} else {
+			stream();
+			outputStream.write(bytes, offset, length);
+		}
+	}
+
+	/**
+	 * Switches to streaming, writing out any buffered content.
+	 * @throws IOException if there was an error writing the buffered content.
+	 */
+	private void stream() throws IOException {
+		if(!streaming) {
+			streaming = true;
+			outputStream.write(buffer, 0, count);
+			count = 0;
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if(streaming) {
+			outputStream.flush();
+		}
+	}
+
+	/**
+	 * Completes the entity. If the entire entity is still buffered, its length is set in the <code>Content-Length</code> header and the entity is written.
+	 * @throws IOException if there was an error writing the entity.
+	 */
+	public void finish() throws IOException {
+		if(!streaming) {
+			httpHeaders.putSingle(HttpHeaders.CONTENT_LENGTH, count);
+			stream();
+		}
+		outputStream.flush();
+	}
+
+}
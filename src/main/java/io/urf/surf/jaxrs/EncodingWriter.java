@@ -0,0 +1,325 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static com.globalmentor.java.Conditions.*;
+import static java.util.Objects.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.charset.*;
+import java.util.concurrent.*;
+
+import javax.annotation.*;
+
+import io.urf.surf.SURF;
+
+/**
+ * A reusable writer that encodes characters in the SURF charset to an output stream using buffers it owns, so that the stream receives a few large writes.
+ * <p>
+ * A writer is attached to an output stream using {@link #attach(OutputStream)}, and after the entity is written is detached using {@link #finish()}; it may
+ * then be attached to another stream. Writers are normally obtained from and returned to a {@link Pool}. This class is not thread safe.
+ * </p>
+ * @author Garret Wilson
+ */
+final class EncodingWriter extends Writer {
+
+	/** The size of the character and byte buffers. */
+	static final int BUFFER_SIZE = 8 * 1024;
+
+	private final char[] chars = new char[BUFFER_SIZE];
+
+	private final CharBuffer charBuffer = CharBuffer.wrap(chars);
+
+	private int charCount = 0;
+
+	private final ByteBuffer byteBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+	private final CharsetEncoder encoder = SURF.CHARSET.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+	private final byte[] contentLengthBuffer;
+
+	/**
+	 * @return A reusable buffer for holding back an entity so that its length can be reported.
+	 * @see ContentLengthOutputStream
+	 */
+	public byte[] getContentLengthBuffer() {
+		return contentLengthBuffer;
+	}
+
+	private OutputStream outputStream = null;
+
+	private long byteCount = 0;
+
+	/** @return The number of bytes written to the output stream since this writer was attached. */
+	public long getByteCount() {
+		return byteCount;
+	}
+
+	private long maxByteCount = Long.MAX_VALUE;
+
+	/**
+	 * Sets the maximum number of bytes that may be written to the output stream before the writer is detached. Writing more bytes fails without writing any
+	 * of the bytes that would exceed the limit. The limit is reset when the writer is attached.
+	 * @param maxByteCount The maximum number of bytes to write.
+	 * @throws IllegalArgumentException if the given maximum is not positive.
+	 */
+	public void setMaxByteCount(final long maxByteCount) {
+		checkArgument(maxByteCount > 0, "Maximum byte count %d must be positive.", maxByteCount);
+		this.maxByteCount = maxByteCount;
+	}
+
+	/**
+	 * Constructor.
+	 * @param contentLengthThreshold The size of the buffer for holding back entities so that their length can be reported.
+	 * @throws IllegalArgumentException if the given threshold is negative.
+	 */
+	public EncodingWriter(final int contentLengthThreshold) {
+		checkArgument(contentLengthThreshold >= 0, "Content length threshold %d must not be negative.", contentLengthThreshold);
+		contentLengthBuffer = new byte[contentLengthThreshold];
+	}
+
+	/**
+	 * Attaches this writer to an output stream, discarding any state from previous use.
+	 * @param outputStream The output stream to which encoded characters will be written.
+	 * @return This writer.
+	 */
+	public EncodingWriter attach(@Nonnull final OutputStream outputStream) {
+		this.outputStream = requireNonNull(outputStream);
+		byteCount = 0;
+		maxByteCount = Long.MAX_VALUE;
+		charCount = 0;
+		((Buffer)byteBuffer).clear();
+		encoder.reset();
+		return this;
+	}
+
+	/**
+	 * Returns the output stream, ensuring that the writer is attached.
+	 * @return The output stream to which this writer is attached.
+	 * @throws IOException if the writer is not attached to an output stream.
+	 */
+	private OutputStream getOutputStream() throws IOException {
+		if(outputStream == null) {
+			throw new IOException("Writer is not attached to an output stream.");
+		}
+		return outputStream;
+	}
+
+	@Override
+	public void write(final int c) throws IOException {
+		if(charCount == chars.length) {
+			encode(false);
+		}
+		chars[charCount++] = (char)c;
+	}
+
+	@Override
+	public void write(final char[] cbuf, int off, int len) throws IOException {
+		while(len > 0) {
+			if(charCount == chars.length) {
+				encode(false);
+			}
+			final int count = Math.min(len, chars.length - charCount);
+			System.arraycopy(cbuf, off, chars, charCount, count);
+			charCount += count;
+			off += count;
+			len -= count;
+		}
+	}
+
+	@Override
+	public void write(final String str, int off, int len) throws IOException {
+		while(len > 0) {
+			if(charCount == chars.length) {
+				encode(false);
+			}
+			final int count = Math.min(len, chars.length - charCount);
+			str.getChars(off, off + count, chars, charCount);
+			charCount += count;
+			off += count;
+			len -= count;
+		}
+	}
+
+	/** {@inheritDoc} This implementation copies the characters directly into the buffer, without creating a string. */
+	@Override
+	public EncodingWriter append(final CharSequence csq) throws IOException {
+		final CharSequence charSequence = csq != null ? csq : "null";
+		return append(charSequence, 0, charSequence.length());
+	}
+
+	/** {@inheritDoc} This implementation copies the characters directly into the buffer, without creating a string. */
+	@Override
+	public EncodingWriter append(final CharSequence csq, int start, final int end) throws IOException {
+		final CharSequence charSequence = csq != null ? csq : "null";
+		while(start < end) {
+			if(charCount == chars.length) {
+				encode(false);
+			}
+			final int count = Math.min(end - start, chars.length - charCount);
+			if(charSequence instanceof String) {
+				((String)charSequence).getChars(start, start + count, chars, charCount);
+			} else if(charSequence instanceof StringBuilder) {
+				((StringBuilder)charSequence).getChars(start, start + count, chars, charCount);
+			} else {
+				for(int i = 0; i < count; i++) {
+					chars[charCount + i] = charSequence.charAt(start + i);
+				}
+			}
+			charCount += count;
+			start += count;
+		}
+		return this;
+	}
+
+	/**
+	 * Encodes the buffered characters into the byte buffer, writing the byte buffer to the output stream whenever it fills. A trailing high surrogate is kept in
+	 * the character buffer unless this is the end of input.
+	 * @param endOfInput Whether no more characters will be written.
+	 * @throws IOException if there was an error writing to the output stream.
+	 */
+	private void encode(final boolean endOfInput) throws IOException {
+		((Buffer)charBuffer).limit(charCount).position(0); //cast for compatibility with Java 8 buffer method signatures
+		while(encoder.encode(charBuffer, byteBuffer, endOfInput).isOverflow()) {
+			writeBytes();
+		}
+		if(endOfInput) {
+			while(encoder.flush(byteBuffer).isOverflow()) {
+				writeBytes();
+			}
+		}
+		final int remainingCount = charBuffer.remaining();
+		System.arraycopy(chars, charBuffer.position(), chars, 0, remainingCount);
+		charCount = remainingCount;
+	}
+
+	/**
+	 * Ensures that writing more bytes would not exceed the maximum byte count.
+	 * @param count The number of bytes to be written.
+	 * @throws SurfLimitExceededException if writing the bytes would exceed the maximum byte count.
+	 */
+	private void checkByteCount(final long count) throws SurfLimitExceededException {
+		if(count > maxByteCount - byteCount) {
+			throw new SurfLimitExceededException(String.format("SURF entity exceeds the maximum of %d bytes.", maxByteCount));
+		}
+	}
+
+	/**
+	 * Writes the contents of the byte buffer to the output stream and clears the byte buffer.
+	 * @throws SurfLimitExceededException if writing the bytes would exceed the maximum byte count.
+	 * @throws IOException if there was an error writing to the output stream.
+	 */
+	private void writeBytes() throws IOException {
+		checkByteCount(byteBuffer.position());
+		getOutputStream().write(byteBuffer.array(), 0, byteBuffer.position());
+		byteCount += byteBuffer.position();
+		((Buffer)byteBuffer).clear();
+	}
+
+	/**
+	 * Writes an already serialized resource directly to the output stream after any buffered characters, without decoding and reencoding it.
+	 * @param rawSurf The serialized resource to write.
+	 * @throws SurfLimitExceededException if writing the resource would exceed the maximum byte count.
+	 * @throws IOException if there was an error reading the resource or writing to the output stream.
+	 */
+	public void writeRaw(@Nonnull final RawSurf rawSurf) throws IOException {
+		encode(false);
+		writeBytes();
+		checkByteCount(rawSurf.getLength());
+		rawSurf.writeTo(getOutputStream());
+		byteCount += rawSurf.getLength();
+	}
+
+	/** {@inheritDoc} This implementation writes all complete buffered characters and flushes the output stream. */
+	@Override
+	public void flush() throws IOException {
+		encode(false);
+		writeBytes();
+		getOutputStream().flush();
+	}
+
+	/**
+	 * Writes all buffered characters, flushes the output stream, and detaches this writer from the output stream, which is not closed.
+	 * @throws IOException if there was an error writing to the output stream.
+	 */
+	public void finish() throws IOException {
+		encode(true);
+		writeBytes();
+		getOutputStream().flush();
+		outputStream = null;
+	}
+
+	/** {@inheritDoc} This implementation is equivalent to {@link #finish()} if the writer is attached; the output stream is not closed. */
+	@Override
+	public void close() throws IOException {
+		if(outputStream != null) {
+			finish();
+		}
+	}
+
+	/**
+	 * A bounded pool of encoding writers. Writers are created on demand when the pool is empty, and a returned writer is discarded when the pool is full, so
+	 * callers never wait; the pool is not tied to threads, and so works equally well with virtual threads.
+	 * @author Garret Wilson
+	 */
+	static final class Pool {
+
+		private final BlockingQueue<EncodingWriter> writers;
+
+		private final int contentLengthThreshold;
+
+		/**
+		 * Constructor.
+		 * @param maxSize The maximum number of idle writers to keep.
+		 * @param contentLengthThreshold The size of each writer's buffer for holding back entities so that their length can be reported.
+		 * @throws IllegalArgumentException if the given maximum size is not positive or the given threshold is negative.
+		 */
+		public Pool(final int maxSize, final int contentLengthThreshold) {
+			checkArgument(maxSize > 0, "Maximum pool size %d must be positive.", maxSize);
+			checkArgument(contentLengthThreshold >= 0, "Content length threshold %d must not be negative.", contentLengthThreshold);
+			this.writers = new ArrayBlockingQueue<>(maxSize);
+			this.contentLengthThreshold = contentLengthThreshold;
+		}
+
+		/** @return The number of idle writers in the pool. */
+		public int getSize() {
+			return writers.size();
+		}
+
+		/**
+		 * Takes a writer from the pool, creating one if none is available.
+		 * @return A writer not attached to any output stream.
+		 */
+		public EncodingWriter acquire() {
+			final EncodingWriter writer = writers.poll();
+			return writer != null ? writer : new EncodingWriter(contentLengthThreshold);
+		}
+
+		/**
+		 * Returns a writer to the pool, detaching it from any output stream without writing its buffered content.
+		 * @param writer The writer to return.
+		 */
+		public void release(@Nonnull final EncodingWriter writer) {
+			writer.outputStream = null;
+			writers.offer(writer);
+		}
+
+	}
+
+}
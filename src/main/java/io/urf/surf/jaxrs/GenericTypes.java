@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import java.lang.reflect.*;
+import java.util.*;
+
+import javax.annotation.*;
+
+/**
+ * Utilities for working with generic {@link Type}s, such as those of JAX-RS entities and bean properties.
+ * @author Garret Wilson
+ */
+final class GenericTypes {
+
+	private GenericTypes() {
+	}
+
+	/**
+	 * Returns the raw class of a generic type. A type variable or wildcard is represented by the raw class of its first upper bound.
+	 * @param type The generic type.
+	 * @return The raw class of the type, or {@link Object} if it could not be determined.
+	 */
+	public static Class<?> getRawType(@Nullable final Type type) {
+		if(type instanceof Class) {
+			return (Class<?>)type;
+		} else if(type instanceof ParameterizedType) {
+			return getRawType(((ParameterizedType)type).getRawType());
+		} else if(type instanceof GenericArrayType) {
+			return Array.newInstance(getRawType(((GenericArrayType)type).getGenericComponentType()), 0).getClass();
+		} else if(type instanceof TypeVariable) {
+			return getRawType(((TypeVariable<?>)type).getBounds()[0]);
+		} else if(type instanceof WildcardType) {
+			return getRawType(((WildcardType)type).getUpperBounds()[0]);
+		}
+		return Object.class;
+	}
+
+	/**
+	 * Determines the actual type argument a generic type provides for a type parameter of one of its supertypes. For example the element type of
+	 * <code>ArrayList&lt;String&gt;</code> as a {@link Collection} is {@link String}.
+	 * @param type The generic type.
+	 * @param supertype The generic supertype the type parameter of which should be resolved.
+	 * @param typeParameterIndex The index of the type parameter of the supertype.
+	 * @return The resolved type argument, which is {@link Object} if it could not be determined.
+	 */
+	public static Type getTypeArgument(@Nonnull final Type type, @Nonnull final Class<?> supertype, final int typeParameterIndex) {
+		final Type typeArgument = findTypeArgument(type, supertype, typeParameterIndex, Collections.emptyMap());
+		return typeArgument != null && !(typeArgument instanceof TypeVariable) ? typeArgument : Object.class;
+	}
+
+	/**
+	 * Searches the type hierarchy for the actual type argument of a type parameter of a supertype.
+	 * @param type The type being searched.
+	 * @param supertype The generic supertype the type parameter of which should be resolved.
+	 * @param typeParameterIndex The index of the type parameter of the supertype.
+	 * @param bindings The types bound to the type variables of the subtype from which the type was reached.
+	 * @return The resolved type argument, or <code>null</code> if the type does not extend the supertype.
+	 */
+	@Nullable
+	private static Type findTypeArgument(@Nonnull final Type type, @Nonnull final Class<?> supertype, final int typeParameterIndex,
+			@Nonnull final Map<TypeVariable<?>, Type> bindings) {
+		final Class<?> rawType = getRawType(type);
+		if(!supertype.isAssignableFrom(rawType)) {
+			return null;
+		}
+		final Map<TypeVariable<?>, Type> typeBindings = new HashMap<>();
+		if(type instanceof ParameterizedType) {
+			final TypeVariable<?>[] typeParameters = rawType.getTypeParameters();
+			final Type[] typeArguments = ((ParameterizedType)type).getActualTypeArguments();
+			for(int i = 0; i < typeParameters.length && i < typeArguments.length; i++) {
+				typeBindings.put(typeParameters[i], bind(typeArguments[i], bindings));
+			}
+		}
+		if(rawType == supertype) {
+			final TypeVariable<?> typeParameter = rawType.getTypeParameters()[typeParameterIndex];
+			return typeBindings.getOrDefault(typeParameter, typeParameter);
+		}
+		final List<Type> genericSupertypes = new ArrayList<>(Arrays.asList(rawType.getGenericInterfaces()));
+		if(rawType.getGenericSuperclass() != null) {
+			genericSupertypes.add(rawType.getGenericSuperclass());
+		}
+		for(final Type genericSupertype : genericSupertypes) {
+			final Type typeArgument = findTypeArgument(genericSupertype, supertype, typeParameterIndex, typeBindings);
+			if(typeArgument != null) {
+				return typeArgument;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Substitutes any bound type variable, and the upper bound of any wildcard.
+	 * @param type The type to bind.
+	 * @param bindings The types bound to type variables.
+	 * @return The bound type.
+	 */
+	private static Type bind(@Nonnull final Type type, @Nonnull final Map<TypeVariable<?>, Type> bindings) {
+		if(type instanceof WildcardType) {
+			return bind(((WildcardType)type).getUpperBounds()[0], bindings);
+		}
+		if(type instanceof TypeVariable) {
+			return bindings.getOrDefault(type, type);
+		}
+		return type;
+	}
+
+}
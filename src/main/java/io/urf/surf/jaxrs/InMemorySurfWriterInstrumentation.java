@@ -0,0 +1,207 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static java.util.Collections.*;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.*;
+
+/**
+ * Instrumentation that accumulates the measurements of {@link SurfMessageBodyWriter} in memory, per type. Measurements of entities are kept under the entity
+ * class, and serialization plan cache measurements under the bean class.
+ * <p>
+ * Types are held weakly, so that the instrumentation does not prevent the classes of an undeployed application from being unloaded; the statistics of a class
+ * are discarded along with it.
+ * </p>
+ * @author Garret Wilson
+ */
+public class InMemorySurfWriterInstrumentation implements SurfWriterInstrumentation {
+
+	/** The statistics of each type for which measurements have been recorded, for enumerating them; the types are weakly referenced. */
+	private final Map<Class<?>, Statistics> statisticsByType = synchronizedMap(new WeakHashMap<>());
+
+	/** The statistics of each type, looked up without locking; the statistics are registered in the map when first created. */
+	private final ClassValue<Statistics> statistics = new ClassValue<Statistics>() {
+		@Override
+		protected Statistics computeValue(final Class<?> type) {
+			return statisticsByType.computeIfAbsent(type, t -> new Statistics()); //threads racing to compute the value share the same statistics
+		}
+	};
+
+	/**
+	 * Returns the statistics accumulated for a type, creating them if needed.
+	 * @param type The type the statistics of which to return.
+	 * @return The statistics of the type.
+	 */
+	private Statistics statistics(@Nonnull final Class<?> type) {
+		return statistics.get(type);
+	}
+
+	/**
+	 * Returns the statistics accumulated for a type.
+	 * @param type The entity or bean class.
+	 * @return The statistics accumulated for the type, if any measurements have been recorded for it.
+	 */
+	public Optional<Statistics> findStatistics(@Nonnull final Class<?> type) {
+		return Optional.ofNullable(statisticsByType.get(type));
+	}
+
+	/** @return A read-only snapshot of the types for which measurements have been recorded, along with their statistics, which continue to be updated. */
+	public Map<Class<?>, Statistics> getStatistics() {
+		synchronized(statisticsByType) {
+			return unmodifiableMap(new HashMap<>(statisticsByType));
+		}
+	}
+
+	/** Discards all accumulated statistics. */
+	public void reset() {
+		synchronized(statisticsByType) {
+			statisticsByType.keySet().forEach(statistics::remove);
+			statisticsByType.clear();
+		}
+	}
+
+	@Override
+	public void recordWrite(final Class<?> entityType, final long discoveryNanos, final long serializationNanos, final long byteCount, final long objectCount,
+			final long propertyCount) {
+		final Statistics statistics = statistics(entityType);
+		statistics.writeCount.increment();
+		statistics.discoveryNanos.add(discoveryNanos);
+		statistics.serializationNanos.add(serializationNanos);
+		statistics.byteCount.add(byteCount);
+		statistics.objectCount.add(objectCount);
+		statistics.propertyCount.add(propertyCount);
+	}
+
+	@Override
+	public void recordFailure(final Class<?> entityType, final Throwable failure) {
+		statistics(entityType).failureCount.increment();
+	}
+
+	@Override
+	public void recordSerializationPlanLookup(final Class<?> beanClass) {
+		statistics(beanClass).serializationPlanLookupCount.increment();
+	}
+
+	@Override
+	public void recordSerializationPlanCompilation(final Class<?> beanClass) {
+		statistics(beanClass).serializationPlanCompilationCount.increment();
+	}
+
+	@Override
+	public void recordWarmup(final Class<?> entityType, final int beanClassCount, final long warmupNanos) {
+		final Statistics statistics = statistics(entityType);
+		statistics.warmupCount.increment();
+		statistics.warmupNanos.add(warmupNanos);
+	}
+
+	/**
+	 * The measurements accumulated for a single type. The values are updated live as measurements are recorded.
+	 * @author Garret Wilson
+	 */
+	public static final class Statistics {
+
+		private final LongAdder writeCount = new LongAdder();
+
+		/** @return The number of entities of the type written successfully. */
+		public long getWriteCount() {
+			return writeCount.sum();
+		}
+
+		private final LongAdder failureCount = new LongAdder();
+
+		/** @return The number of entities of the type that failed to be written. */
+		public long getFailureCount() {
+			return failureCount.sum();
+		}
+
+		private final LongAdder warmupCount = new LongAdder();
+
+		/** @return The number of times the writer was warmed up for resource methods returning entities of the type. */
+		public long getWarmupCount() {
+			return warmupCount.sum();
+		}
+
+		private final LongAdder warmupNanos = new LongAdder();
+
+		/** @return The total time in nanoseconds spent warming up the writer for entities of the type. */
+		public long getWarmupNanos() {
+			return warmupNanos.sum();
+		}
+
+		private final LongAdder discoveryNanos = new LongAdder();
+
+		/** @return The total time in nanoseconds spent discovering shared references in entities of the type. */
+		public long getDiscoveryNanos() {
+			return discoveryNanos.sum();
+		}
+
+		private final LongAdder serializationNanos = new LongAdder();
+
+		/** @return The total time in nanoseconds spent serializing and writing entities of the type. */
+		public long getSerializationNanos() {
+			return serializationNanos.sum();
+		}
+
+		private final LongAdder byteCount = new LongAdder();
+
+		/** @return The total number of bytes written for entities of the type. */
+		public long getByteCount() {
+			return byteCount.sum();
+		}
+
+		private final LongAdder objectCount = new LongAdder();
+
+		/** @return The total number of beans serialized as SURF objects in entities of the type. */
+		public long getObjectCount() {
+			return objectCount.sum();
+		}
+
+		private final LongAdder propertyCount = new LongAdder();
+
+		/** @return The total number of bean properties serialized in entities of the type. */
+		public long getPropertyCount() {
+			return propertyCount.sum();
+		}
+
+		private final LongAdder serializationPlanLookupCount = new LongAdder();
+
+		private final LongAdder serializationPlanCompilationCount = new LongAdder();
+
+		/** @return The number of times the serialization plan of the bean class was found in the plan cache. */
+		public long getSerializationPlanCacheHitCount() {
+			return Math.max(serializationPlanLookupCount.sum() - serializationPlanCompilationCount.sum(), 0);
+		}
+
+		/** @return The number of times the serialization plan of the bean class was not in the plan cache and had to be compiled. */
+		public long getSerializationPlanCacheMissCount() {
+			return serializationPlanCompilationCount.sum();
+		}
+
+		@Override
+		public String toString() {
+			return String.format("writes=%d, failures=%d, discovery=%dns, serialization=%dns, bytes=%d, objects=%d, properties=%d, planHits=%d, planMisses=%d",
+					getWriteCount(), getFailureCount(), getDiscoveryNanos(), getSerializationNanos(), getByteCount(), getObjectCount(), getPropertyCount(),
+					getSerializationPlanCacheHitCount(), getSerializationPlanCacheMissCount());
+		}
+
+	}
+
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static com.globalmentor.java.Conditions.*;
+import static java.util.Objects.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+import javax.annotation.*;
+
+import com.globalmentor.io.ParseIOException;
+
+import io.urf.surf.*;
+
+/**
+ * A single SURF resource that has already been serialized, such as a stored document, which {@link SurfMessageBodyWriter} writes as-is without parsing and
+ * reserializing it. A raw resource may be written as an entire entity, or embedded anywhere a value may appear in an entity, such as a bean property or a list
+ * element.
+ * <p>
+ * The content must be encoded in {@link SURF#CHARSET}. It is not inspected when written, so it should be {@link #validate() validated} if it does not come
+ * from a trusted source. Embedded content is not reformatted to match the surrounding document, and any labels it defines share the namespace of the
+ * document; it should not use the aliases generated by the serializer, such as <code>|bean1|</code>.
+ * </p>
+ * <p>
+ * Raw resources are immutable as long as their sources are not modified, and may be written any number of times, concurrently.
+ * </p>
+ * @author Garret Wilson
+ */
+public abstract class RawSurf {
+
+	/** The size of the buffer for decoding content that is embedded in a document not being written as bytes. */
+	private static final int DECODE_BUFFER_SIZE = 4 * 1024;
+
+	/** The size of the buffer for copying content from a file to an output stream. */
+	private static final int COPY_BUFFER_SIZE = 8 * 1024;
+
+	/** Private constructor; instances are created by the static factory methods. */
+	private RawSurf() {
+	}
+
+	/** @return The length in bytes of the serialized resource. */
+	public abstract long getLength();
+
+	/**
+	 * Writes the serialized resource to an output stream as-is. Content backed by an array is written directly, while other content, such as that of a direct
+	 * buffer or a file, is copied to the output stream through a heap buffer.
+	 * @param outputStream The output stream to which to write the resource.
+	 * @throws IOException if there was an error reading the content or writing to the output stream.
+	 */
+	public abstract void writeTo(@Nonnull OutputStream outputStream) throws IOException;
+
+	/**
+	 * Opens a stream for reading the serialized resource.
+	 * @return A new input stream of the serialized resource.
+	 * @throws IOException if the content could not be opened.
+	 */
+	public abstract InputStream openInputStream() throws IOException;
+
+	/**
+	 * Appends the serialized resource as characters, decoding it from {@link SURF#CHARSET}.
+	 * @param appendable The appendable to which to append the resource.
+	 * @throws IOException if there was an error reading the content or appending to the output.
+	 */
+	public void appendTo(@Nonnull final Appendable appendable) throws IOException {
+		try (final Reader reader = new InputStreamReader(openInputStream(), SURF.CHARSET)) {
+			final char[] buffer = new char[DECODE_BUFFER_SIZE];
+			int count;
+			while((count = reader.read(buffer)) != -1) {
+				for(int i = 0; i < count; i++) {
+					appendable.append(buffer[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks that the content is a well-formed SURF document containing a single resource.
+	 * @return This raw resource.
+	 * @throws ParseIOException if the content is not valid SURF, or contains no resource.
+	 * @throws IOException if there was an error reading the content.
+	 */
+	public RawSurf validate() throws IOException {
+		try (final InputStream inputStream = openInputStream()) {
+			if(!new SurfParser().parse(inputStream).isPresent()) {
+				throw new ParseIOException("Raw SURF content contains no resource.");
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Creates a raw resource backed by a byte array, which is not copied and must not be modified afterwards.
+	 * @param bytes The serialized resource.
+	 * @return A raw resource with the given content.
+	 */
+	public static RawSurf of(@Nonnull final byte[] bytes) {
+		return new ByteArrayRawSurf(requireNonNull(bytes));
+	}
+
+	/**
+	 * Creates a raw resource backed by the remaining content of a buffer, which may be a direct buffer. The content is not copied and must not be modified
+	 * afterwards; the position and limit of the given buffer are not used after this method returns.
+	 * @param byteBuffer The buffer containing the serialized resource between its position and limit.
+	 * @return A raw resource with the given content.
+	 */
+	public static RawSurf of(@Nonnull final ByteBuffer byteBuffer) {
+		return new ByteBufferRawSurf(byteBuffer.slice());
+	}
+
+	/**
+	 * Creates a raw resource backed by an entire file. The length of the file is determined when this method is called.
+	 * @param path The file containing the serialized resource.
+	 * @return A raw resource with the content of the file.
+	 * @throws IOException if the size of the file could not be determined.
+	 */
+	public static RawSurf of(@Nonnull final Path path) throws IOException {
+		return new FileRegionRawSurf(path, 0, Files.size(path));
+	}
+
+	/**
+	 * Creates a raw resource backed by a region of a file.
+	 * @param path The file containing the serialized resource.
+	 * @param position The position in the file at which the region starts.
+	 * @param length The length of the region in bytes.
+	 * @return A raw resource with the content of the file region.
+	 * @throws IllegalArgumentException if the position or length is negative.
+	 */
+	public static RawSurf of(@Nonnull final Path path, final long position, final long length) {
+		return new FileRegionRawSurf(path, position, length);
+	}
+
+	/** A raw resource backed by a byte array. */
+	private static final class ByteArrayRawSurf extends RawSurf {
+
+		private final byte[] bytes;
+
+		/**
+		 * Constructor.
+		 * @param bytes The serialized resource.
+		 */
+		public ByteArrayRawSurf(@Nonnull final byte[] bytes) {
+			this.bytes = bytes;
+		}
+
+		@Override
+		public long getLength() {
+			return bytes.length;
+		}
+
+		@Override
+		public void writeTo(final OutputStream outputStream) throws IOException {
+			outputStream.write(bytes);
+		}
+
+		@Override
+		public InputStream openInputStream() {
+			return new ByteArrayInputStream(bytes);
+		}
+
+	}
+
+	/** A raw resource backed by a byte buffer. */
+	private static final class ByteBufferRawSurf extends RawSurf {
+
+		private final ByteBuffer byteBuffer;
+
+		/**
+		 * Constructor.
+		 * @param byteBuffer The buffer containing only the serialized resource, which will not be modified.
+		 */
+		public ByteBufferRawSurf(@Nonnull final ByteBuffer byteBuffer) {
+			this.byteBuffer = byteBuffer;
+		}
+
+		@Override
+		public long getLength() {
+			return byteBuffer.remaining();
+		}
+
+		@Override
+		public void writeTo(final OutputStream outputStream) throws IOException {
+			if(byteBuffer.hasArray()) {
+				outputStream.write(byteBuffer.array(), byteBuffer.arrayOffset() + byteBuffer.position(), byteBuffer.remaining());
+			} else {
+				final ByteBuffer content = byteBuffer.duplicate(); //each write has its own position
+				final WritableByteChannel channel = Channels.newChannel(outputStream);
+				while(content.hasRemaining()) {
+					channel.write(content);
+				}
+			}
+		}
+
+		@Override
+		public InputStream openInputStream() {
+			final ByteBuffer content = byteBuffer.duplicate();
+			return new InputStream() {
+				@Override
+				public int read() {
+					return content.hasRemaining() ? content.get() & 0xFF : -1;
+				}
+
+				@Override
+				public int read(final byte[] bytes, final int offset, final int length) {
+					if(length == 0) {
+						return 0;
+					}
+					if(!content.hasRemaining()) {
+						return -1;
+					}
+					final int count = Math.min(length, content.remaining());
+					content.get(bytes, offset, count);
+					return count;
+				}
+			};
+		}
+
+	}
+
+	/** A raw resource backed by a region of a file. */
+	private static final class FileRegionRawSurf extends RawSurf {
+
+		private final Path path;
+
+		private final long position;
+
+		private final long length;
+
+		/**
+		 * Constructor.
+		 * @param path The file containing the serialized resource.
+		 * @param position The position in the file at which the region starts.
+		 * @param length The length of the region in bytes.
+		 * @throws IllegalArgumentException if the position or length is negative.
+		 */
+		public FileRegionRawSurf(@Nonnull final Path path, final long position, final long length) {
+			checkArgument(position >= 0, "File position %d must not be negative.", position);
+			checkArgument(length >= 0, "File region length %d must not be negative.", length);
+			this.path = requireNonNull(path);
+			this.position = position;
+			this.length = length;
+		}
+
+		@Override
+		public long getLength() {
+			return length;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * <p>
+		 * This implementation copies the file region to the output stream through a heap buffer. As an output stream is not a channel, the content cannot be
+		 * transferred by the operating system without passing through the Java heap.
+		 * </p>
+		 * @throws EOFException if the file ends before the end of the region.
+		 */
+		@Override
+		public void writeTo(final OutputStream outputStream) throws IOException {
+			try (final FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+				final byte[] bytes = new byte[(int)Math.min(COPY_BUFFER_SIZE, Math.max(length, 1))];
+				final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+				long readPosition = position;
+				long remaining = length;
+				while(remaining > 0) {
+					((Buffer)buffer).clear();
+					((Buffer)buffer).limit((int)Math.min(bytes.length, remaining));
+					final int count = fileChannel.read(buffer, readPosition);
+					if(count < 0) {
+						throw new EOFException(String.format("File %s ended before the end of the raw SURF region.", path));
+					}
+					outputStream.write(bytes, 0, count);
+					readPosition += count;
+					remaining -= count;
+				}
+			}
+		}
+
+		@Override
+		public InputStream openInputStream() throws IOException {
+			final FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ);
+			try {
+				fileChannel.position(position);
+			} catch(final IOException ioException) {
+				fileChannel.close();
+				throw ioException;
+			}
+			final InputStream inputStream = Channels.newInputStream(fileChannel);
+			return new FilterInputStream(inputStream) {
+
+				private long remaining = length;
+
+				@Override
+				public int read() throws IOException {
+					if(remaining == 0) {
+						return -1;
+					}
+					final int b = super.read();
+					if(b != -1) {
+						remaining--;
+					}
+					return b;
+				}
+
+				@Override
+				public int read(final byte[] bytes, final int offset, final int count) throws IOException {
+					if(count == 0) {
+						return 0;
+					}
+					if(remaining == 0) {
+						return -1;
+					}
+					final int readCount = super.read(bytes, offset, (int)Math.min(count, remaining));
+					if(readCount > 0) {
+						remaining -= readCount;
+					}
+					return readCount;
+				}
+			};
+		}
+
+	}
+
+}
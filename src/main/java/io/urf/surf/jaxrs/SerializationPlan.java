@@ -0,0 +1,298 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static java.util.Collections.*;
+import static java.util.Objects.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+import javax.annotation.*;
+
+import io.ploop.introspection.*;
+import io.urf.surf.SurfObject;
+
+/**
+ * The information needed to serialize a bean of some class as a SURF object, resolved once through introspection so that it may be reused for every instance
+ * of that class.
+ * @author Garret Wilson
+ *
+ * @param <T> The type of bean this plan serializes.
+ */
+final class SerializationPlan<T> {
+
+	private final Class<T> beanClass;
+
+	/** @return The class of bean this plan serializes. */
+	public Class<T> getBeanClass() {
+		return beanClass;
+	}
+
+	private final String typeHandle;
+
+	/** @return The handle of the SURF object type to use for the bean. */
+	public String getTypeHandle() {
+		return typeHandle;
+	}
+
+	private final List<PropertyGetter<T>> propertyGetters;
+
+	/** @return The getters of the bean properties to serialize, in introspection order. */
+	public List<PropertyGetter<T>> getPropertyGetters() {
+		return propertyGetters;
+	}
+
+	/** The maximum number of projections of a plan that are cached; further projections are compiled each time they are requested. */
+	static final int MAX_PROJECTED_PLAN_COUNT = 64;
+
+	/** The plans for serializing only a selection of the properties, keyed to their projections. */
+	private final ConcurrentMap<SurfProjection, SerializationPlan<T>> projectedPlans = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns a plan for serializing only the properties of the bean included in the given projection. The projected plan is compiled once and cached with
+	 * this plan, up to {@value #MAX_PROJECTED_PLAN_COUNT} projections, as the variety of projections requested may be unbounded.
+	 * @param projection The selection of properties to serialize.
+	 * @return A plan serializing only the properties selected by the projection, which is this plan if all properties are included.
+	 */
+	public SerializationPlan<T> project(@Nonnull final SurfProjection projection) {
+		if(projection.isAll()) {
+			return this;
+		}
+		final SerializationPlan<T> projectedPlan = projectedPlans.get(projection);
+		if(projectedPlan != null) {
+			return projectedPlan;
+		}
+		final List<PropertyGetter<T>> projectedPropertyGetters = new ArrayList<>();
+		for(final PropertyGetter<T> propertyGetter : propertyGetters) {
+			if(projection.includes(propertyGetter.getName())) {
+				projectedPropertyGetters.add(propertyGetter);
+			}
+		}
+		final SerializationPlan<T> newProjectedPlan = new SerializationPlan<>(beanClass, typeHandle, projectedPropertyGetters);
+		if(projectedPlans.size() < MAX_PROJECTED_PLAN_COUNT) { //the limit may be exceeded slightly under contention
+			final SerializationPlan<T> existingProjectedPlan = projectedPlans.putIfAbsent(projection, newProjectedPlan);
+			if(existingProjectedPlan != null) {
+				return existingProjectedPlan;
+			}
+		}
+		return newProjectedPlan;
+	}
+
+	/**
+	 * The indexes of the properties in the order a {@link SurfObject} description would iterate them, for each possible description table capacity.
+	 * @see #getDescriptionPropertyOrder(int)
+	 */
+	private final int[][] descriptionPropertyOrders;
+
+	/**
+	 * Returns the order in which properties are to be serialized, given the number of properties that actually have values.
+	 * <p>
+	 * A {@link SurfObject} keeps its properties in a hash table sized by the number of properties set, so the order its description is serialized in depends on
+	 * that number. This method returns the same order, which allows a bean to be serialized directly with output identical to that of a {@link SurfObject}
+	 * populated with the same property values. The returned array contains the indexes of all the properties in {@link #getPropertyGetters()}; the caller is
+	 * expected to skip properties with no value.
+	 * </p>
+	 * @param presentPropertyCount The number of properties having a value.
+	 * @return The indexes of the properties in serialization order.
+	 */
+	public int[] getDescriptionPropertyOrder(final int presentPropertyCount) {
+		return descriptionPropertyOrders[Integer.numberOfTrailingZeros(getDescriptionTableCapacity(presentPropertyCount) / MIN_DESCRIPTION_TABLE_CAPACITY)];
+	}
+
+	/**
+	 * Constructor.
+	 * @param beanClass The class of bean this plan serializes.
+	 * @param typeHandle The handle of the SURF object type to use for the bean.
+	 * @param propertyGetters The getters of the bean properties to serialize.
+	 */
+	private SerializationPlan(@Nonnull final Class<T> beanClass, @Nonnull final String typeHandle, @Nonnull final List<PropertyGetter<T>> propertyGetters) {
+		this.beanClass = requireNonNull(beanClass);
+		this.typeHandle = requireNonNull(typeHandle);
+		this.propertyGetters = unmodifiableList(new ArrayList<>(propertyGetters));
+		final int maxTableCapacity = getDescriptionTableCapacity(this.propertyGetters.size());
+		this.descriptionPropertyOrders = new int[Integer.numberOfTrailingZeros(maxTableCapacity / MIN_DESCRIPTION_TABLE_CAPACITY) + 1][];
+		for(int tableCapacity = MIN_DESCRIPTION_TABLE_CAPACITY, i = 0; tableCapacity <= maxTableCapacity; tableCapacity <<= 1, i++) {
+			descriptionPropertyOrders[i] = createDescriptionPropertyOrder(this.propertyGetters, tableCapacity);
+		}
+	}
+
+	/** The initial capacity of the hash table a {@link SurfObject} stores its properties in. */
+	private static final int MIN_DESCRIPTION_TABLE_CAPACITY = 16;
+
+	/**
+	 * Determines the capacity of the hash table of a {@link SurfObject} description after the given number of properties have been set.
+	 * @param propertyCount The number of properties set.
+	 * @return The table capacity, a power of two.
+	 */
+	static int getDescriptionTableCapacity(final int propertyCount) {
+		int tableCapacity = MIN_DESCRIPTION_TABLE_CAPACITY;
+		while(propertyCount > tableCapacity / 4 * 3) { //the table grows when its load factor of 0.75 is exceeded
+			tableCapacity <<= 1;
+		}
+		return tableCapacity;
+	}
+
+	/**
+	 * Determines the order in which a {@link SurfObject} hash table of the given capacity iterates properties set in the given order. Properties are iterated
+	 * by table bucket, and properties within the same bucket in the order they were set.
+	 * @param propertyGetters The getters of the properties, in the order they are set.
+	 * @param tableCapacity The capacity of the table.
+	 * @return The indexes of the properties in iteration order.
+	 */
+	private static int[] createDescriptionPropertyOrder(@Nonnull final List<? extends PropertyGetter<?>> propertyGetters, final int tableCapacity) {
+		final int propertyCount = propertyGetters.size();
+		final long[] bucketIndexes = new long[propertyCount];
+		for(int i = 0; i < propertyCount; i++) {
+			final int hash = propertyGetters.get(i).getName().hashCode();
+			final int bucket = (hash ^ (hash >>> 16)) & (tableCapacity - 1);
+			bucketIndexes[i] = ((long)bucket << 32) | i; //sort by bucket, then by property index
+		}
+		Arrays.sort(bucketIndexes);
+		final int[] propertyOrder = new int[propertyCount];
+		for(int i = 0; i < propertyCount; i++) {
+			propertyOrder[i] = (int)bucketIndexes[i];
+		}
+		return propertyOrder;
+	}
+
+	/**
+	 * Compiles a plan for serializing instances of the given class. If a {@link SurfGeneratedWriter} was generated for the class, the plan reads properties
+	 * through the generated writer. Otherwise the class is introspected, and a generated getter is bound to each property with an accessible getter method;
+	 * other properties are read through introspection.
+	 * @param <T> The type of bean to serialize.
+	 * @param beanClass The class of bean to serialize.
+	 * @return A serialization plan for the given bean class.
+	 */
+	public static <T> SerializationPlan<T> compile(@Nonnull final Class<T> beanClass) {
+		final Optional<SurfGeneratedWriter<T>> generatedWriter = findGeneratedWriter(beanClass);
+		if(generatedWriter.isPresent()) {
+			return compile(generatedWriter.get());
+		}
+		final Introspection<T> introspection = Introspection.of(beanClass);
+		final Collection<Property<T, ?>> properties = introspection.getProperties();
+		final List<PropertyGetter<T>> propertyGetters = new ArrayList<>(properties.size());
+		for(final Property<T, ?> property : properties) {
+			final Function<T, Object> getter = BeanAccessors.bindGetter(beanClass, property.getName()).orElseGet(() -> bean -> {
+				try {
+					return property.getValue(bean);
+				} catch(final InvocationTargetException invocationTargetException) {
+					final Throwable cause = invocationTargetException.getCause();
+					if(cause instanceof RuntimeException) { //rethrow unchecked exceptions as the bound getters do
+						throw (RuntimeException)cause;
+					}
+					if(cause instanceof Error) {
+						throw (Error)cause;
+					}
+					throw BeanAccessors.newPropertyReadException(beanClass, property.getName(), cause);
+				} catch(final IllegalAccessException illegalAccessException) {
+					throw BeanAccessors.newPropertyReadException(beanClass, property.getName(), illegalAccessException);
+				}
+			});
+			propertyGetters.add(new PropertyGetter<>(property.getName(), getter));
+		}
+		return new SerializationPlan<>(beanClass, introspection.getObjectType().getErasedType().getSimpleName(), propertyGetters);
+	}
+
+	/**
+	 * Compiles a plan for serializing beans using a writer generated for the bean class.
+	 * @param <T> The type of bean to serialize.
+	 * @param generatedWriter The writer generated for the bean class.
+	 * @return A serialization plan for the bean class of the generated writer.
+	 */
+	static <T> SerializationPlan<T> compile(@Nonnull final SurfGeneratedWriter<T> generatedWriter) {
+		final List<String> propertyNames = generatedWriter.getPropertyNames();
+		final List<PropertyGetter<T>> propertyGetters = new ArrayList<>(propertyNames.size());
+		for(int i = 0; i < propertyNames.size(); i++) {
+			final int propertyIndex = i;
+			propertyGetters.add(new PropertyGetter<>(propertyNames.get(i), bean -> generatedWriter.getPropertyValue(bean, propertyIndex)));
+		}
+		return new SerializationPlan<>(generatedWriter.getBeanClass(), generatedWriter.getTypeHandle(), propertyGetters);
+	}
+
+	/**
+	 * Finds and instantiates the writer generated for a bean class at compile time, if any.
+	 * @param <T> The type of bean.
+	 * @param beanClass The class of bean.
+	 * @return The writer generated for the bean class, if one is present and can be instantiated.
+	 * @see SurfGeneratedWriter#getClassName(String)
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> Optional<SurfGeneratedWriter<T>> findGeneratedWriter(@Nonnull final Class<T> beanClass) {
+		final ClassLoader classLoader = beanClass.getClassLoader();
+		if(classLoader == null) { //system classes are never annotated for generation
+			return Optional.empty();
+		}
+		final Class<?> generatedWriterClass;
+		try {
+			generatedWriterClass = Class.forName(SurfGeneratedWriter.getClassName(beanClass.getName()), true, classLoader);
+		} catch(final ClassNotFoundException classNotFoundException) {
+			return Optional.empty();
+		}
+		if(!SurfGeneratedWriter.class.isAssignableFrom(generatedWriterClass)) {
+			return Optional.empty();
+		}
+		final SurfGeneratedWriter<?> generatedWriter;
+		try {
+			generatedWriter = (SurfGeneratedWriter<?>)generatedWriterClass.getConstructor().newInstance();
+		} catch(final ReflectiveOperationException reflectiveOperationException) {
+			throw new IllegalStateException(String.format("Generated SURF writer %s could not be instantiated.", generatedWriterClass.getName()),
+					reflectiveOperationException);
+		}
+		return generatedWriter.getBeanClass() == beanClass ? Optional.of((SurfGeneratedWriter<T>)generatedWriter) : Optional.empty();
+	}
+
+	/**
+	 * A bean property name bound to a function for reading the property value.
+	 * @param <T> The type of bean.
+	 */
+	public static final class PropertyGetter<T> {
+
+		private final String name;
+
+		/** @return The name of the property. */
+		public String getName() {
+			return name;
+		}
+
+		private final Function<? super T, ?> getter;
+
+		/**
+		 * Constructor.
+		 * @param name The name of the property.
+		 * @param getter The function for reading the property value from a bean.
+		 */
+		public PropertyGetter(@Nonnull final String name, @Nonnull final Function<? super T, ?> getter) {
+			this.name = requireNonNull(name);
+			this.getter = requireNonNull(getter);
+		}
+
+		/**
+		 * Reads the value of the property by invoking its getter.
+		 * @param bean The bean from which to read the property.
+		 * @return The value of the property, which may be <code>null</code>.
+		 * @throws IllegalStateException if the property could not be read through introspection.
+		 */
+		public Object getValue(@Nonnull final T bean) {
+			return getter.apply(bean);
+		}
+
+	}
+
+}
@@ -0,0 +1,445 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static com.globalmentor.io.ReaderParser.*;
+import static io.urf.surf.jaxrs.GenericTypes.*;
+import static java.util.Objects.*;
+
+import java.io.*;
+import java.lang.reflect.*;
+import java.math.*;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.*;
+
+import javax.annotation.*;
+
+import com.globalmentor.io.ParseIOException;
+import com.globalmentor.java.CodePointCharacter;
+
+import io.urf.surf.*;
+
+/**
+ * A SURF parser that binds what it parses directly to instances of a target Java type, without first creating {@link SurfObject} instances.
+ * <p>
+ * SURF objects are bound to beans using the binding plan of the target class, setting each property as it is parsed; properties the bean cannot bind are
+ * parsed and discarded. SURF lists, sets and maps are bound to the target collection or map type, with their contents bound to the type arguments of the
+ * target type. Other values are converted to the target type where possible, such as a SURF number to an <code>int</code>. Where the target type is
+ * {@link Object} or a resource is labeled, parsing falls back to the general SURF representation, which is then converted to the target type.
+ * </p>
+ * <p>
+ * Like {@link SurfParser}, this class keeps state for the document being parsed and is not thread safe; a new instance should be used for each document.
+ * </p>
+ * @author Garret Wilson
+ */
+class SurfBeanParser extends SurfParser {
+
+	private final SurfMessageBodyReader messageBodyReader;
+
+	/** The beans to which already parsed SURF objects have been bound, so that a labeled object referenced several times is bound to a single bean. */
+	private final Map<SurfObject, Object> boundSurfObjects = new IdentityHashMap<>();
+
+	/**
+	 * Constructor.
+	 * @param messageBodyReader The message body reader providing the bean binding plans.
+	 */
+	public SurfBeanParser(@Nonnull final SurfMessageBodyReader messageBodyReader) {
+		this.messageBodyReader = requireNonNull(messageBodyReader);
+	}
+
+	/**
+	 * Parses a SURF document, binding its root resource to the given type.
+	 * @param reader The reader containing the SURF document; must support marking.
+	 * @param type The type to which the root resource should be bound.
+	 * @return The bound root resource, which will be empty if the document has no content.
+	 * @throws IOException if there was an error reading the document.
+	 * @throws ParseIOException if the document is not valid SURF, or could not be bound to the given type.
+	 */
+	public Optional<Object> parse(@Nonnull final Reader reader, @Nonnull final Type type) throws IOException {
+		if(skipLineBreaks(reader) < 0) {
+			return Optional.empty();
+		}
+		final Object resource = parseResource(reader, type, true);
+		checkParseIO(reader, skipLineBreaks(reader) < 0, "No content allowed after root resource.");
+		return Optional.of(resource);
+	}
+
+	/**
+	 * Parses a resource, binding it to the given type.
+	 * @param reader The reader from which to parse the resource.
+	 * @param type The type to which the resource should be bound.
+	 * @param allowDescription Whether a SURF object description is allowed to follow an object.
+	 * @return The bound resource.
+	 * @throws IOException if there was an error reading the resource.
+	 * @throws ParseIOException if the resource is not valid SURF, or could not be bound to the given type.
+	 */
+	public Object parseResource(@Nonnull final Reader reader, @Nonnull final Type type, final boolean allowDescription) throws IOException {
+		final Class<?> rawType = getRawType(type);
+		if(rawType == Object.class) {
+			return parseResource(reader, allowDescription);
+		}
+		switch(peekRequired(reader)) {
+			case SURF.OBJECT_BEGIN:
+				if(!rawType.isAssignableFrom(SurfObject.class)) {
+					return parseBean(reader, rawType, allowDescription);
+				}
+				break;
+			case SURF.LIST_BEGIN:
+				if(Collection.class.isAssignableFrom(rawType)) {
+					return parseCollection(reader, type, SURF.LIST_BEGIN, SURF.LIST_END);
+				}
+				break;
+			case SURF.SET_BEGIN:
+				if(Collection.class.isAssignableFrom(rawType)) {
+					return parseCollection(reader, type, SURF.SET_BEGIN, SURF.SET_END);
+				}
+				break;
+			case SURF.MAP_BEGIN:
+				if(Map.class.isAssignableFrom(rawType)) {
+					return parseMap(reader, type);
+				}
+				break;
+			default:
+				break;
+		}
+		return convert(reader, parseResource(reader, allowDescription), type);
+	}
+
+	/**
+	 * Parses a SURF object, binding it to a new instance of the given bean class.
+	 * @param <T> The type of bean.
+	 * @param reader The reader from which to parse the object.
+	 * @param beanClass The class of bean to which the object should be bound.
+	 * @param allowDescription Whether a SURF object description is allowed to follow the object.
+	 * @return The bound bean.
+	 * @throws IOException if there was an error reading the object.
+	 * @throws ParseIOException if the object is not valid SURF, or could not be bound to the given class.
+	 */
+	protected <T> T parseBean(@Nonnull final Reader reader, @Nonnull final Class<T> beanClass, final boolean allowDescription) throws IOException {
+		check(reader, SURF.OBJECT_BEGIN);
+		int c = skipFiller(reader);
+		if(c >= 0 && SURF.Handle.isBeginCharacter((char)c)) { //the type handle is informational; the target class determines the bean type
+			parseHandle(reader);
+			c = skipFiller(reader);
+		}
+		final BindingPlan<T> bindingPlan = messageBodyReader.getBindingPlan(beanClass);
+		final T bean;
+		try {
+			bean = bindingPlan.newInstance();
+		} catch(final IllegalArgumentException illegalArgumentException) {
+			throw new ParseIOException(reader, illegalArgumentException.getMessage(), illegalArgumentException);
+		}
+		if(allowDescription && c == SURF.DESCRIPTION_BEGIN) {
+			check(reader, SURF.DESCRIPTION_BEGIN);
+			parseSequence(reader, SURF.DESCRIPTION_END, r -> {
+				final String propertyHandle = parseHandle(r);
+				skipLineBreaks(r);
+				check(r, SURF.PROPERTY_VALUE_DELIMITER);
+				skipLineBreaks(r);
+				final Optional<BindingPlan.PropertySetter<T>> foundPropertySetter = bindingPlan.findPropertySetter(propertyHandle);
+				if(foundPropertySetter.isPresent()) {
+					final BindingPlan.PropertySetter<T> propertySetter = foundPropertySetter.get();
+					final Object value = parseResource(r, propertySetter.getValueType(), true);
+					try {
+						propertySetter.setValue(bean, value);
+					} catch(final ClassCastException | NullPointerException e) {
+						throw new ParseIOException(r, String.format("Value of property %s cannot be bound to %s.", propertyHandle, beanClass.getName()), e);
+					}
+				} else {
+					parseResource(r); //skip properties the bean does not support
+				}
+			});
+			check(reader, SURF.DESCRIPTION_END);
+		}
+		return bean;
+	}
+
+	/**
+	 * Parses a SURF list or set, binding it to a collection of the given type.
+	 * @param reader The reader from which to parse the collection.
+	 * @param type The type of collection, from which the element type is determined.
+	 * @param begin The delimiter beginning the collection.
+	 * @param end The delimiter ending the collection.
+	 * @return The bound collection.
+	 * @throws IOException if there was an error reading the collection.
+	 * @throws ParseIOException if the collection is not valid SURF, or could not be bound to the given type.
+	 */
+	protected Collection<Object> parseCollection(@Nonnull final Reader reader, @Nonnull final Type type, final char begin, final char end) throws IOException {
+		final Collection<Object> collection = newCollection(reader, getRawType(type), begin == SURF.SET_BEGIN);
+		final Type elementType = getTypeArgument(type, Collection.class, 0);
+		check(reader, begin);
+		parseSequence(reader, end, r -> collection.add(parseResource(r, elementType, true)));
+		check(reader, end);
+		return collection;
+	}
+
+	/**
+	 * Parses a SURF map, binding it to a map of the given type.
+	 * @param reader The reader from which to parse the map.
+	 * @param type The type of map, from which the key and value types are determined.
+	 * @return The bound map.
+	 * @throws IOException if there was an error reading the map.
+	 * @throws ParseIOException if the map is not valid SURF, or could not be bound to the given type.
+	 */
+	protected Map<Object, Object> parseMap(@Nonnull final Reader reader, @Nonnull final Type type) throws IOException {
+		final Map<Object, Object> map = newMap(reader, getRawType(type));
+		final Type keyType = getTypeArgument(type, Map.class, 0);
+		final Type valueType = getTypeArgument(type, Map.class, 1);
+		check(reader, SURF.MAP_BEGIN);
+		parseSequence(reader, SURF.MAP_END, r -> {
+			final Object key;
+			if(peek(r) == SURF.MAP_KEY_DELIMITER) { //a key with a description is enclosed in delimiters
+				check(r, SURF.MAP_KEY_DELIMITER);
+				key = parseResource(r, keyType, true);
+				check(r, SURF.MAP_KEY_DELIMITER);
+			} else {
+				key = parseResource(r, keyType, false);
+			}
+			skipLineBreaks(r);
+			check(r, SURF.ENTRY_KEY_VALUE_DELIMITER);
+			skipLineBreaks(r);
+			map.put(key, parseResource(r, valueType, true));
+		});
+		check(reader, SURF.MAP_END);
+		return map;
+	}
+
+	/**
+	 * Creates a new collection of the given type. An interface or abstract collection type is instantiated as {@link ArrayList}, {@link LinkedHashSet},
+	 * {@link TreeSet} or {@link ArrayDeque} as appropriate.
+	 * @param reader The reader being parsed, for error reporting.
+	 * @param collectionClass The class of collection to create.
+	 * @param isSet Whether the collection being parsed is a SURF set.
+	 * @return A new, empty collection.
+	 * @throws ParseIOException if a collection of the given type could not be created.
+	 */
+	@SuppressWarnings("unchecked")
+	private Collection<Object> newCollection(@Nonnull final Reader reader, @Nonnull final Class<?> collectionClass, final boolean isSet) throws ParseIOException {
+		if(collectionClass.isInterface() || java.lang.reflect.Modifier.isAbstract(collectionClass.getModifiers())) {
+			if(collectionClass.isAssignableFrom(ArrayList.class) && !(isSet && collectionClass.isAssignableFrom(LinkedHashSet.class))) {
+				return new ArrayList<>();
+			} else if(collectionClass.isAssignableFrom(LinkedHashSet.class)) {
+				return new LinkedHashSet<>();
+			} else if(collectionClass.isAssignableFrom(TreeSet.class)) {
+				return new TreeSet<>();
+			} else if(collectionClass.isAssignableFrom(ArrayDeque.class)) {
+				return new ArrayDeque<>();
+			}
+		}
+		return (Collection<Object>)newInstance(reader, collectionClass);
+	}
+
+	/**
+	 * Creates a new map of the given type. An interface or abstract map type is instantiated as {@link LinkedHashMap} or {@link TreeMap} as appropriate.
+	 * @param reader The reader being parsed, for error reporting.
+	 * @param mapClass The class of map to create.
+	 * @return A new, empty map.
+	 * @throws ParseIOException if a map of the given type could not be created.
+	 */
+	@SuppressWarnings("unchecked")
+	private Map<Object, Object> newMap(@Nonnull final Reader reader, @Nonnull final Class<?> mapClass) throws ParseIOException {
+		if(mapClass.isInterface() || java.lang.reflect.Modifier.isAbstract(mapClass.getModifiers())) {
+			if(mapClass.isAssignableFrom(LinkedHashMap.class)) {
+				return new LinkedHashMap<>();
+			} else if(mapClass.isAssignableFrom(TreeMap.class)) {
+				return new TreeMap<>();
+			}
+		}
+		return (Map<Object, Object>)newInstance(reader, mapClass);
+	}
+
+	/**
+	 * Creates a new instance of a class using its binding plan.
+	 * @param <T> The type of object to create.
+	 * @param reader The reader being parsed, for error reporting.
+	 * @param objectClass The class of object to create.
+	 * @return A new instance of the class.
+	 * @throws ParseIOException if the class could not be instantiated.
+	 */
+	private <T> T newInstance(@Nonnull final Reader reader, @Nonnull final Class<T> objectClass) throws ParseIOException {
+		try {
+			return messageBodyReader.getBindingPlan(objectClass).newInstance();
+		} catch(final IllegalArgumentException illegalArgumentException) {
+			throw new ParseIOException(reader, illegalArgumentException.getMessage(), illegalArgumentException);
+		}
+	}
+
+	/**
+	 * Converts a value in its general SURF representation to the given type.
+	 * @param reader The reader being parsed, for error reporting.
+	 * @param value The value to convert.
+	 * @param type The type to convert the value to.
+	 * @return The converted value.
+	 * @throws ParseIOException if the value could not be converted to the given type.
+	 */
+	protected Object convert(@Nonnull final Reader reader, @Nonnull final Object value, @Nonnull final Type type) throws ParseIOException {
+		final Class<?> rawType = wrap(getRawType(type));
+		if(rawType.isInstance(value) && !(value instanceof Collection) && !(value instanceof Map)) {
+			return value;
+		}
+		try {
+			if(value instanceof Number && Number.class.isAssignableFrom(rawType)) {
+				return convertNumber((Number)value, rawType);
+			} else if(value instanceof CodePointCharacter && rawType == Character.class) {
+				return Character.valueOf((char)((CodePointCharacter)value).getCodePoint());
+			} else if(value instanceof byte[] && rawType == ByteBuffer.class) {
+				return ByteBuffer.wrap((byte[])value);
+			} else if(value instanceof URI && rawType == URL.class) {
+				return ((URI)value).toURL();
+			} else if(value instanceof Instant && rawType == Date.class) {
+				return Date.from((Instant)value);
+			} else if(value instanceof String && rawType.isEnum()) {
+				@SuppressWarnings({"unchecked", "rawtypes"})
+				final Object enumValue = Enum.valueOf((Class<? extends Enum>)rawType, (String)value);
+				return enumValue;
+			} else if(value instanceof List && rawType.isArray()) {
+				final List<?> list = (List<?>)value;
+				final Type componentType = type instanceof GenericArrayType ? ((GenericArrayType)type).getGenericComponentType() : rawType.getComponentType();
+				final Object array = Array.newInstance(getRawType(componentType), list.size());
+				for(int i = 0; i < list.size(); i++) {
+					Array.set(array, i, convert(reader, list.get(i), componentType));
+				}
+				return array;
+			} else if(value instanceof Collection && Collection.class.isAssignableFrom(rawType)) {
+				final Collection<Object> collection = newCollection(reader, rawType, value instanceof Set);
+				final Type elementType = getTypeArgument(type, Collection.class, 0);
+				for(final Object element : (Collection<?>)value) {
+					collection.add(convert(reader, element, elementType));
+				}
+				return collection;
+			} else if(value instanceof Map && Map.class.isAssignableFrom(rawType)) {
+				final Map<Object, Object> map = newMap(reader, rawType);
+				final Type keyType = getTypeArgument(type, Map.class, 0);
+				final Type valueType = getTypeArgument(type, Map.class, 1);
+				for(final Map.Entry<?, ?> entry : ((Map<?, ?>)value).entrySet()) {
+					map.put(convert(reader, entry.getKey(), keyType), convert(reader, entry.getValue(), valueType));
+				}
+				return map;
+			} else if(value instanceof SurfObject && !rawType.isInterface()) {
+				return convertSurfObject(reader, (SurfObject)value, rawType);
+			}
+		} catch(final IllegalArgumentException | ArithmeticException | MalformedURLException e) {
+			throw new ParseIOException(reader, String.format("Value %s cannot be converted to %s.", value, type.getTypeName()), e);
+		}
+		if(rawType.isInstance(value)) { //a collection or map that need not be converted
+			return value;
+		}
+		throw new ParseIOException(reader, String.format("Value %s cannot be converted to %s.", value, type.getTypeName()));
+	}
+
+	/**
+	 * Binds an already parsed SURF object, such as a labeled object, to a new bean. An object that has already been bound is bound to the same bean, so that
+	 * shared and cyclic references are preserved.
+	 * @param <T> The type of bean.
+	 * @param reader The reader being parsed, for error reporting.
+	 * @param surfObject The SURF object to bind.
+	 * @param beanClass The class of bean to which the object should be bound.
+	 * @return The bound bean.
+	 * @throws ParseIOException if the object could not be bound to the given class.
+	 */
+	private <T> T convertSurfObject(@Nonnull final Reader reader, @Nonnull final SurfObject surfObject, @Nonnull final Class<T> beanClass) throws ParseIOException {
+		final Object boundBean = boundSurfObjects.get(surfObject);
+		if(boundBean != null) {
+			if(!beanClass.isInstance(boundBean)) {
+				throw new ParseIOException(reader, String.format("Object already bound to %s cannot be bound to %s.", boundBean.getClass().getName(), beanClass.getName()));
+			}
+			return beanClass.cast(boundBean);
+		}
+		final BindingPlan<T> bindingPlan = messageBodyReader.getBindingPlan(beanClass);
+		final T bean = newInstance(reader, beanClass);
+		boundSurfObjects.put(surfObject, bean); //record the bean before binding its properties, which may refer back to it
+		for(final Map.Entry<String, Object> property : surfObject.getProperties()) {
+			final Optional<BindingPlan.PropertySetter<T>> foundPropertySetter = bindingPlan.findPropertySetter(property.getKey());
+			if(foundPropertySetter.isPresent()) {
+				final BindingPlan.PropertySetter<T> propertySetter = foundPropertySetter.get();
+				propertySetter.setValue(bean, convert(reader, property.getValue(), propertySetter.getValueType()));
+			}
+		}
+		return bean;
+	}
+
+	/**
+	 * Converts a SURF number to another number type.
+	 * @param number The number to convert.
+	 * @param numberClass The class of number to convert to.
+	 * @return The converted number.
+	 * @throws ArithmeticException if the number cannot be represented exactly as an integral type.
+	 * @throws IllegalArgumentException if the number type is not supported, or the number cannot be converted to a decimal.
+	 */
+	private static Number convertNumber(@Nonnull final Number number, @Nonnull final Class<?> numberClass) {
+		if(numberClass == Integer.class) {
+			return Math.toIntExact(toLongExact(number));
+		} else if(numberClass == Long.class) {
+			return toLongExact(number);
+		} else if(numberClass == Double.class) {
+			return number.doubleValue();
+		} else if(numberClass == Float.class) {
+			return number.floatValue();
+		} else if(numberClass == Short.class) {
+			final long value = toLongExact(number);
+			if(value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+				throw new ArithmeticException(String.format("Number %s is out of short range.", number));
+			}
+			return (short)value;
+		} else if(numberClass == Byte.class) {
+			final long value = toLongExact(number);
+			if(value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+				throw new ArithmeticException(String.format("Number %s is out of byte range.", number));
+			}
+			return (byte)value;
+		} else if(numberClass == BigDecimal.class) {
+			return new BigDecimal(number.toString());
+		} else if(numberClass == BigInteger.class) {
+			return new BigDecimal(number.toString()).toBigIntegerExact();
+		} else if(numberClass.isInstance(number)) {
+			return number;
+		}
+		throw new IllegalArgumentException(String.format("Unsupported number type %s.", numberClass.getName()));
+	}
+
+	/**
+	 * Converts a SURF number to a <code>long</code>, ensuring that no information is lost.
+	 * @param number The number to convert.
+	 * @return The value of the number as a <code>long</code>.
+	 * @throws ArithmeticException if the number has a fractional part or is out of <code>long</code> range.
+	 * @throws IllegalArgumentException if the number is not finite.
+	 */
+	private static long toLongExact(@Nonnull final Number number) {
+		if(number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte) {
+			return number.longValue();
+		}
+		if(number instanceof BigInteger) {
+			return ((BigInteger)number).longValueExact();
+		}
+		return new BigDecimal(number.toString()).longValueExact();
+	}
+
+	/**
+	 * Returns the wrapper class of a primitive class.
+	 * @param type The class, which may be primitive.
+	 * @return The corresponding wrapper class if the class is primitive; otherwise the class itself.
+	 */
+	private static Class<?> wrap(@Nonnull final Class<?> type) {
+		if(!type.isPrimitive()) {
+			return type;
+		}
+		return java.lang.invoke.MethodType.methodType(type).wrap().returnType();
+	}
+
+}
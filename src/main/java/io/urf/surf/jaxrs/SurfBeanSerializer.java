@@ -0,0 +1,1184 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static com.globalmentor.java.Conditions.*;
+import static java.util.Objects.*;
+
+import java.io.*;
+import java.lang.reflect.Array;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.BaseStream;
+
+import javax.annotation.*;
+
+import com.globalmentor.io.function.IOBiConsumer;
+
+import io.urf.surf.*;
+
+/**
+ * A SURF serializer that writes arbitrary Java objects directly, without first converting them to {@link SurfObject} instances.
+ * <p>
+ * Values natively supported by SURF are serialized as usual. Other objects are handled according to the {@link SurfTypeCategory} of their type: lists, sets,
+ * other collections and maps are serialized in place in their own iteration order, without being copied, with their elements, keys and values converted as
+ * they are written; arrays are serialized as lists; enums are serialized as strings of
+ * their constant names; {@link RawSurf} resources are written as-is; beans are serialized as SURF objects using the serialization plan of
+ * their class; and objects with a registered converter are serialized as their converted values.
+ * </p>
+ * <p>
+ * The output is identical to that of {@link SurfSerializer} for the equivalent graph of {@link SurfObject} instances, except that sets and maps are written
+ * in their own iteration order.
+ * </p>
+ * <p>
+ * A bean instance referenced more than once in the graph, including through a cycle, is written in full only the first time, labeled with a generated alias
+ * such as <code>|bean1|</code>; later occurrences are written as the alias alone. To find shared beans, the property values of each bean are read while
+ * discovering resource references and kept for serialization, so that the getters of each bean are still invoked only once.
+ * </p>
+ * <p>
+ * If a {@link SurfProjection} has been set, only the selected bean properties are read and written. A shared bean is written with the projection that applied
+ * where it was first discovered.
+ * </p>
+ * <p>
+ * Like {@link SurfSerializer}, this class keeps state for the graph being serialized and is not thread safe; a new instance should be used for each graph.
+ * </p>
+ * @author Garret Wilson
+ */
+class SurfBeanSerializer extends SurfSerializer {
+
+	/** The number of elements of a streamed sequence serialized between flushes of the output. */
+	static final int STREAMED_ELEMENTS_PER_FLUSH = 100;
+
+	private final SurfMessageBodyWriter writer;
+
+	/** Whether references are currently being discovered within a natively supported resource, whose contents are not converted. */
+	private boolean discoveringNativeResource = false;
+
+	/** The prefix of the aliases generated for shared beans, followed by a sequential number. */
+	public static final String GENERATED_BEAN_ALIAS_PREFIX = "bean";
+
+	/**
+	 * The expected number of entries with which the identity maps of a serializer are created. A new serializer is created for each entity written, and most
+	 * entities contain few beans and share none, so the maps start small and grow as needed rather than allocating the default capacity for every response.
+	 */
+	static final int INITIAL_IDENTITY_MAP_SIZE = 2;
+
+	/**
+	 * The property values of each bean discovered, read once during discovery, along with the projection they were read with. The serializers of the chunks of
+	 * a list serialized in parallel share the map of the document serializer, and only read it.
+	 */
+	private final Map<Object, DiscoveredBean> discoveredBeans;
+
+	/** The beans referenced more than once in the graph. */
+	private final Set<Object> sharedBeans = Collections.newSetFromMap(new IdentityHashMap<>(INITIAL_IDENTITY_MAP_SIZE));
+
+	/** The compound resources discovered within natively supported resources, which the superclass labels if they are referenced more than once. */
+	private final Set<Object> discoveredNativeResources = Collections.newSetFromMap(new IdentityHashMap<>(INITIAL_IDENTITY_MAP_SIZE));
+
+	/** Whether a compound resource within natively supported resources is referenced more than once in the graph. */
+	private boolean nativeResourceShared = false;
+
+	/** The aliases of shared beans that have been serialized or are being serialized. */
+	private final Map<Object, String> beanAliases = new IdentityHashMap<>(INITIAL_IDENTITY_MAP_SIZE);
+
+	private long generatedBeanAliasCount = 0;
+
+	/** The projection applying to the resource currently being discovered or serialized. */
+	private SurfProjection projection = SurfProjection.ALL;
+
+	/** @return The selection of bean properties to serialize, applying to the root resource. */
+	public SurfProjection getProjection() {
+		return projection;
+	}
+
+	/**
+	 * Sets the selection of bean properties to serialize. By default all properties are serialized.
+	 * @param projection The selection of bean properties, applying to the root resource.
+	 */
+	public void setProjection(@Nonnull final SurfProjection projection) {
+		this.projection = requireNonNull(projection);
+	}
+
+	private long objectCount = 0;
+
+	/** @return The number of beans serialized as SURF objects. */
+	public long getObjectCount() {
+		return objectCount;
+	}
+
+	private long propertyCount = 0;
+
+	/** @return The number of bean properties serialized. */
+	public long getPropertyCount() {
+		return propertyCount;
+	}
+
+	private int maxDepth = Integer.MAX_VALUE;
+
+	/** @return The maximum nesting depth of resources in a document, with the root resource at depth <code>1</code>. */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * Sets the maximum nesting depth of resources in a document. The contents of a list, set, map or array, and the property values of a bean, are one level
+	 * deeper than the resource containing them. By default the depth is unlimited.
+	 * @param maxDepth The maximum depth, with the root resource at depth <code>1</code>.
+	 * @throws IllegalArgumentException if the given maximum is not positive.
+	 */
+	public void setMaxDepth(final int maxDepth) {
+		checkArgument(maxDepth > 0, "Maximum depth %d must be positive.", maxDepth);
+		this.maxDepth = maxDepth;
+	}
+
+	private long maxElementCount = Long.MAX_VALUE;
+
+	/** @return The maximum number of elements in a document. */
+	public long getMaxElementCount() {
+		return maxElementCount;
+	}
+
+	/**
+	 * Sets the maximum number of elements in a document. Every resource written counts as an element, including each reference to a shared bean, each map key,
+	 * and each element of a primitive array. By default the number of elements is unlimited.
+	 * @param maxElementCount The maximum number of elements.
+	 * @throws IllegalArgumentException if the given maximum is not positive.
+	 */
+	public void setMaxElementCount(final long maxElementCount) {
+		checkArgument(maxElementCount > 0, "Maximum element count %d must be positive.", maxElementCount);
+		this.maxElementCount = maxElementCount;
+	}
+
+	@Nullable
+	private SurfParallelSerialization parallelSerialization = null;
+
+	/** @return The configuration for serializing large lists in parallel, or <code>null</code> if lists are always serialized sequentially. */
+	@Nullable
+	public SurfParallelSerialization getParallelSerialization() {
+		return parallelSerialization;
+	}
+
+	/**
+	 * Sets the configuration for serializing large lists in parallel. By default lists are serialized sequentially.
+	 * @param parallelSerialization The configuration for parallel serialization, or <code>null</code> if lists should always be serialized sequentially.
+	 */
+	public void setParallelSerialization(@Nullable final SurfParallelSerialization parallelSerialization) {
+		this.parallelSerialization = parallelSerialization;
+	}
+
+	/** The indent level of the output, which the superclass does not expose. */
+	private int indentLevel = 0;
+
+	/** The number of elements discovered in the graph. */
+	private long discoveredElementCount = 0;
+
+	/** The number of elements serialized. */
+	private long elementCount = 0;
+
+	/** The depth of the resource being serialized. */
+	private int depth = 0;
+
+	/**
+	 * Constructor.
+	 * @param writer The message body writer providing the bean serialization plans and type categories.
+	 */
+	public SurfBeanSerializer(@Nonnull final SurfMessageBodyWriter writer) {
+		this.writer = requireNonNull(writer);
+		this.discoveredBeans = new IdentityHashMap<>(INITIAL_IDENTITY_MAP_SIZE);
+	}
+
+	/**
+	 * Chunk constructor, creating a serializer for a chunk of the elements of a list being serialized by another serializer. The new serializer has the same
+	 * settings, indent level, depth and projection as the other serializer, and shares the beans it discovered.
+	 * @param documentSerializer The serializer of the document containing the list.
+	 */
+	private SurfBeanSerializer(@Nonnull final SurfBeanSerializer documentSerializer) {
+		this.writer = documentSerializer.writer;
+		this.discoveredBeans = documentSerializer.discoveredBeans;
+		setFormatted(documentSerializer.isFormatted());
+		setIndentSequence(documentSerializer.getIndentSequence());
+		setLineSeparator(documentSerializer.getLineSeparator());
+		setSequenceSeparatorRequired(documentSerializer.isSequenceSeparatorRequired());
+		this.projection = documentSerializer.projection;
+		this.maxDepth = documentSerializer.maxDepth;
+		this.maxElementCount = documentSerializer.maxElementCount;
+		this.depth = documentSerializer.depth;
+		for(int i = 0; i < documentSerializer.indentLevel; i++) {
+			increaseIndentLevel();
+		}
+	}
+
+	@Override
+	protected Closeable increaseIndentLevel() {
+		indentLevel++;
+		return super.increaseIndentLevel();
+	}
+
+	@Override
+	protected void decreaseIndentLevel() {
+		indentLevel--;
+		super.decreaseIndentLevel();
+	}
+
+	/**
+	 * Serializes a root resource to an appendable, first discovering shared resource references as {@link #serialize(OutputStream, Object)} does. Unlike that
+	 * method, this method does not wrap the destination in new buffered writers, allowing the caller to provide a reusable one.
+	 * @param appendable The destination of the serialized document.
+	 * @param root The root resource to serialize.
+	 * @throws IOException if there was an error writing the document.
+	 */
+	public void serializeDocument(@Nonnull final Appendable appendable, @Nonnull final Object root) throws IOException {
+		try {
+			discoverDocument(root);
+			serialize(appendable, root);
+		} finally {
+			clearBeanReferences();
+		}
+	}
+
+	/**
+	 * Discovers the resource references of a root resource as {@link #discoverResourceReferences(Object)} does, reporting any limit exceeded as a checked
+	 * exception.
+	 * @param root The root resource of the document.
+	 * @throws SurfLimitExceededException if the graph exceeds the maximum depth or element count.
+	 */
+	public void discoverDocument(@Nonnull final Object root) throws SurfLimitExceededException {
+		try {
+			discoverResourceReferences(root);
+		} catch(final UncheckedIOException uncheckedIOException) {
+			throw unwrapLimitExceeded(uncheckedIOException);
+		}
+	}
+
+	@Override
+	public String serialize(final Object root) throws IOException {
+		try {
+			return super.serialize(root);
+		} catch(final UncheckedIOException uncheckedIOException) {
+			throw unwrapLimitExceeded(uncheckedIOException);
+		} finally {
+			clearBeanReferences();
+		}
+	}
+
+	@Override
+	public void serialize(final OutputStream outputStream, final Object root) throws IOException {
+		try {
+			super.serialize(outputStream, root);
+		} catch(final UncheckedIOException uncheckedIOException) {
+			throw unwrapLimitExceeded(uncheckedIOException);
+		} finally {
+			clearBeanReferences();
+		}
+	}
+
+	/**
+	 * Returns the {@link SurfLimitExceededException} with which discovery was aborted.
+	 * @param uncheckedIOException The unchecked exception thrown while discovering resource references.
+	 * @return The limit exception wrapped by the unchecked exception.
+	 * @throws UncheckedIOException if the unchecked exception does not wrap a limit exception, in which case it is rethrown.
+	 */
+	private static SurfLimitExceededException unwrapLimitExceeded(@Nonnull final UncheckedIOException uncheckedIOException) {
+		if(uncheckedIOException.getCause() instanceof SurfLimitExceededException) {
+			return (SurfLimitExceededException)uncheckedIOException.getCause();
+		}
+		throw uncheckedIOException;
+	}
+
+	/**
+	 * Forgets the beans discovered and aliased for a document, so that a following document will generate its aliases anew, and resets the count of elements
+	 * serialized.
+	 */
+	private void clearBeanReferences() {
+		discoveredBeans.clear();
+		sharedBeans.clear();
+		discoveredNativeResources.clear();
+		nativeResourceShared = false;
+		beanAliases.clear();
+		generatedBeanAliasCount = 0;
+		elementCount = 0;
+		depth = 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version records references to natively supported resources, to the contents of lists, sets and maps, and to the beans in the graph, reading the
+	 * property values of each bean only once. The elements of streams are not visited.
+	 * </p>
+	 * <p>
+	 * The graph is traversed using an explicit stack rather than recursion, so that a deep graph cannot exhaust the thread stack, and the traversal stops as
+	 * soon as the graph exceeds the maximum depth or element count, before anything has been written.
+	 * </p>
+	 * @throws UncheckedIOException with a {@link SurfLimitExceededException} as its cause if the graph exceeds a limit.
+	 * @see #getMaxDepth()
+	 * @see #getMaxElementCount()
+	 */
+	@Override
+	protected void discoverResourceReferences(final Object resource) {
+		if(discoveringNativeResource) { //the contents of natively supported resources are traversed by the superclass
+			discoverNativeResource(resource);
+			return;
+		}
+		discoveredElementCount = 0;
+		final Deque<DiscoveryFrame> frames = new ArrayDeque<>();
+		discoverResource(resource, projection, 1, frames);
+		while(!frames.isEmpty()) {
+			final DiscoveryFrame frame = frames.peek();
+			if(frame.elements != null) {
+				if(frame.pendingValue != null) { //the key of the entry has been discovered
+					final Object value = frame.pendingValue;
+					frame.pendingValue = null;
+					discoverResource(value, frame.projection, frame.depth + 1, frames);
+					continue;
+				}
+				if(!frame.elements.hasNext()) {
+					frames.pop();
+					continue;
+				}
+				Object element = frame.elements.next();
+				if(frame.entries) { //discover the key, and then the value
+					final Map.Entry<?, ?> entry = (Map.Entry<?, ?>)element;
+					frame.pendingValue = entry.getValue();
+					element = entry.getKey();
+				}
+				if(element != null) {
+					discoverResource(element, frame.projection, frame.depth + 1, frames);
+				}
+			} else {
+				final Object[] values = frame.values;
+				while(frame.valueIndex < values.length && values[frame.valueIndex] == null) {
+					frame.valueIndex++;
+				}
+				if(frame.valueIndex == values.length) {
+					frames.pop();
+					continue;
+				}
+				final int valueIndex = frame.valueIndex++;
+				final String propertyName = frame.propertyGetters.get(valueIndex).getName();
+				discoverResource(values[valueIndex], frame.projection.getPropertyProjection(propertyName), frame.depth + 1, frames);
+			}
+		}
+	}
+
+	/**
+	 * Discovers a single resource in the graph, pushing a frame for traversing its contents if it has any.
+	 * @param resource The resource being discovered.
+	 * @param resourceProjection The projection applying to the resource.
+	 * @param depth The depth of the resource in the graph, with the root resource at depth <code>1</code>.
+	 * @param frames The stack of resources whose contents are being traversed.
+	 * @throws UncheckedIOException with a {@link SurfLimitExceededException} as its cause if the resource exceeds a limit.
+	 */
+	private void discoverResource(@Nonnull final Object resource, @Nonnull final SurfProjection resourceProjection, final int depth,
+			@Nonnull final Deque<DiscoveryFrame> frames) {
+		if(depth > maxDepth) {
+			throw new UncheckedIOException(newDepthExceededException());
+		}
+		countDiscoveredElements(1);
+		switch(writer.getTypeCategory(resource.getClass())) {
+			case NATIVE:
+				discoverNativeResourceReferences(resource);
+				break;
+			case MAP:
+				frames.push(new DiscoveryFrame(depth, resourceProjection, ((Map<?, ?>)resource).entrySet().iterator(), true));
+				break;
+			case LIST: //includes collections that are neither lists nor sets
+			case SET:
+				frames.push(new DiscoveryFrame(depth, resourceProjection, ((Collection<?>)resource).iterator(), false));
+				break;
+			case ARRAY:
+				if(resource instanceof Object[]) {
+					frames.push(new DiscoveryFrame(depth, resourceProjection, Arrays.asList((Object[])resource).iterator(), false));
+				} else { //primitive arrays cannot contain references
+					countDiscoveredElements(Array.getLength(resource));
+				}
+				break;
+			case BEAN:
+				discoverBean(resource, resourceProjection, depth, frames);
+				break;
+			default: //converted values and streams, which can only be traversed once, are not visited
+				break;
+		}
+	}
+
+	/**
+	 * Discovers a bean, recording whether the bean itself has been encountered before. The property values of the bean are read and kept for serialization; the
+	 * properties of a bean already encountered are not visited again, so that cycles are not followed.
+	 * @param <T> The type of bean.
+	 * @param bean The bean being discovered.
+	 * @param beanProjection The projection applying to the bean.
+	 * @param depth The depth of the bean in the graph.
+	 * @param frames The stack of resources whose contents are being traversed.
+	 */
+	private <T> void discoverBean(@Nonnull final T bean, @Nonnull final SurfProjection beanProjection, final int depth,
+			@Nonnull final Deque<DiscoveryFrame> frames) {
+		if(discoveredBeans.containsKey(bean)) {
+			sharedBeans.add(bean);
+			return;
+		}
+		@SuppressWarnings("unchecked")
+		final SerializationPlan<T> serializationPlan = writer.getSerializationPlan((Class<T>)bean.getClass()).project(beanProjection);
+		final Object[] values = readPropertyValues(serializationPlan, bean);
+		discoveredBeans.put(bean, new DiscoveredBean(beanProjection, serializationPlan, values)); //record the bean before visiting its properties, which may refer back to it
+		frames.push(new DiscoveryFrame(depth, beanProjection, values, serializationPlan.getPropertyGetters()));
+	}
+
+	/**
+	 * Counts elements discovered in the graph.
+	 * @param count The number of elements discovered.
+	 * @throws UncheckedIOException with a {@link SurfLimitExceededException} as its cause if the graph exceeds the maximum element count.
+	 */
+	private void countDiscoveredElements(final long count) {
+		if(count > maxElementCount - discoveredElementCount) {
+			throw new UncheckedIOException(newElementCountExceededException());
+		}
+		discoveredElementCount += count;
+	}
+
+	/**
+	 * Reads the values of all the properties of a bean.
+	 * @param <T> The type of bean.
+	 * @param serializationPlan The serialization plan of the bean class.
+	 * @param bean The bean the properties of which to read.
+	 * @return The property values, some of which may be <code>null</code>, in the order of the serialization plan property getters.
+	 * @throws IllegalStateException if a property of the bean could not be read.
+	 */
+	private static <T> Object[] readPropertyValues(@Nonnull final SerializationPlan<T> serializationPlan, @Nonnull final T bean) {
+		final List<SerializationPlan.PropertyGetter<T>> propertyGetters = serializationPlan.getPropertyGetters();
+		final int propertyCount = propertyGetters.size();
+		final Object[] values = new Object[propertyCount];
+		for(int i = 0; i < propertyCount; i++) {
+			values[i] = propertyGetters.get(i).getValue(bean);
+		}
+		return values;
+	}
+
+	/**
+	 * Discovers references within a resource that is serialized natively, the contents of which are not converted.
+	 * @param resource The resource being serialized natively.
+	 */
+	private void discoverNativeResourceReferences(@Nonnull final Object resource) {
+		final boolean wasDiscoveringNativeResource = discoveringNativeResource;
+		discoveringNativeResource = true;
+		try {
+			discoverNativeResource(resource);
+		} finally {
+			discoveringNativeResource = wasDiscoveringNativeResource;
+		}
+	}
+
+	/**
+	 * Discovers a resource within a natively supported resource using the superclass, noting whether it is a compound resource that has been encountered before
+	 * and will therefore be labeled.
+	 * @param resource The resource within a natively supported resource, or the natively supported resource itself.
+	 */
+	private void discoverNativeResource(@Nonnull final Object resource) {
+		if(SurfResources.isCompoundResource(resource) && !discoveredNativeResources.add(resource)) {
+			nativeResourceShared = true;
+		}
+		super.discoverResourceReferences(resource);
+	}
+
+	/**
+	 * Indicates whether any resource in the graph discovered is referenced more than once, and will be labeled when first serialized and referred to by its
+	 * alias afterwards. As resources must be labeled in document order, the elements of lists in such a graph cannot be serialized in parallel.
+	 * @return <code>true</code> if a bean or a compound resource within a natively supported resource is shared.
+	 */
+	private boolean hasSharedResources() {
+		return !sharedBeans.isEmpty() || nativeResourceShared;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version serializes beans directly as SURF objects, and serializes objects of {@link SurfTypeCategory#CUSTOM} types as their converted values.
+	 * </p>
+	 * <p>
+	 * The depth and number of elements are checked as they are written, as the contents of streams are not known until they are serialized.
+	 * </p>
+	 * @throws SurfLimitExceededException if the document exceeds the maximum depth or element count.
+	 * @throws IllegalStateException if a property of a bean could not be read.
+	 * @see #getMaxDepth()
+	 * @see #getMaxElementCount()
+	 */
+	@Override
+	public void serializeResource(final Appendable appendable, final Object resource) throws IOException {
+		if(depth == maxDepth) {
+			throw newDepthExceededException();
+		}
+		countElements(1);
+		depth++;
+		try {
+			serializeValue(appendable, resource);
+		} finally {
+			depth--;
+		}
+	}
+
+	/**
+	 * Serializes a resource according to the category of its type, without counting it as an element.
+	 * @param appendable The appendable to which serialized data should be appended.
+	 * @param resource The resource to serialize, which may be <code>null</code>.
+	 * @throws IOException if there is an error appending to the output.
+	 */
+	private void serializeValue(@Nonnull final Appendable appendable, @Nullable final Object resource) throws IOException {
+		switch(resource != null ? writer.getTypeCategory(resource.getClass()) : SurfTypeCategory.NATIVE) {
+			case CUSTOM:
+				serializeValue(appendable, writer.convert(resource));
+				break;
+			case BEAN:
+				serializeBean(appendable, resource);
+				break;
+			case STREAM:
+				serializeStream(appendable, resource);
+				break;
+			case ARRAY:
+				serializeArray(appendable, resource);
+				break;
+			case ENUM:
+				appendable.append(writer.getSerializedEnumName((Enum<?>)resource));
+				break;
+			case LIST:
+				if(resource instanceof List) {
+					final List<?> list = (List<?>)resource;
+					final SurfParallelSerialization parallelSerialization = this.parallelSerialization;
+					if(parallelSerialization != null && list instanceof RandomAccess && list.size() >= parallelSerialization.getMinListSize() && !hasSharedResources()) {
+						serializeListInParallel(appendable, list, parallelSerialization);
+					} else {
+						serializeList(appendable, list);
+					}
+				} else {
+					serializeCollection(appendable, (Collection<?>)resource);
+				}
+				break;
+			case RAW:
+				if(appendable instanceof EncodingWriter) { //splice the bytes into the output
+					((EncodingWriter)appendable).writeRaw((RawSurf)resource);
+				} else {
+					((RawSurf)resource).appendTo(appendable);
+				}
+				break;
+			default:
+				super.serializeResource(appendable, resource);
+				break;
+		}
+	}
+
+	/**
+	 * Serializes a list as a SURF list, serializing chunks of its elements in parallel and writing them in order. The output is identical to that of
+	 * {@link #serializeList(Appendable, List)}; this method must therefore only be used for a document with no shared resources, as those must be labeled in
+	 * document order.
+	 * @param appendable The appendable to which serialized data should be appended.
+	 * @param list The list to serialize, which should support random access.
+	 * @param parallelSerialization The configuration for serializing the list in parallel.
+	 * @throws IOException if there is an error serializing a chunk or appending to the output.
+	 * @throws InterruptedIOException if the thread was interrupted while waiting for a chunk to be serialized.
+	 */
+	protected void serializeListInParallel(@Nonnull final Appendable appendable, @Nonnull final List<?> list,
+			@Nonnull final SurfParallelSerialization parallelSerialization) throws IOException {
+		final int size = list.size();
+		final int chunkSize = parallelSerialization.getChunkSize();
+		appendable.append(SURF.LIST_BEGIN);
+		if(size > 0) {
+			formatNewLine(appendable);
+			try (final Closeable indention = increaseIndentLevel()) {
+				final Deque<FutureTask<Chunk>> pendingChunks = new ArrayDeque<>(parallelSerialization.getMaxConcurrentChunkCount());
+				int nextChunkStart = 0;
+				try {
+					while(nextChunkStart < size || !pendingChunks.isEmpty()) {
+						while(nextChunkStart < size && pendingChunks.size() < parallelSerialization.getMaxConcurrentChunkCount()) {
+							final int start = nextChunkStart;
+							final int end = Math.min(start + chunkSize, size);
+							final SurfBeanSerializer chunkSerializer = new SurfBeanSerializer(this);
+							final FutureTask<Chunk> chunkTask = new FutureTask<>(() -> chunkSerializer.serializeChunk(list, start, end));
+							try {
+								parallelSerialization.getExecutor().execute(chunkTask);
+							} catch(final RejectedExecutionException rejectedExecutionException) {
+								chunkTask.run(); //serialize the chunk on this thread if the executor is saturated
+							}
+							pendingChunks.add(chunkTask);
+							nextChunkStart = end;
+						}
+						final Chunk chunk = getChunk(pendingChunks.remove());
+						appendable.append(chunk.text);
+						objectCount += chunk.objectCount;
+						propertyCount += chunk.propertyCount;
+						countElements(chunk.elementCount);
+					}
+				} finally {
+					pendingChunks.forEach(pendingChunk -> pendingChunk.cancel(false)); //don't continue serializing if serialization failed
+				}
+			}
+			formatIndent(appendable);
+		}
+		appendable.append(SURF.LIST_END);
+	}
+
+	/**
+	 * Serializes consecutive elements of a list being serialized in parallel, as {@link #serializeSequence(Appendable, Iterable, IOBiConsumer)} would serialize
+	 * them as part of the entire list.
+	 * @param list The list being serialized.
+	 * @param start The index of the first element of the chunk.
+	 * @param end The index after the last element of the chunk.
+	 * @return The serialized chunk.
+	 * @throws IOException if there is an error serializing an element.
+	 */
+	private Chunk serializeChunk(@Nonnull final List<?> list, final int start, final int end) throws IOException {
+		final StringBuilder stringBuilder = new StringBuilder();
+		final boolean sequenceSeparatorRequired = isSequenceSeparatorRequired();
+		final int size = list.size();
+		for(int index = start; index < end; index++) {
+			formatIndent(stringBuilder);
+			serializeResource(stringBuilder, list.get(index));
+			final boolean hasNext = index < size - 1;
+			if(sequenceSeparatorRequired && hasNext) {
+				stringBuilder.append(SURF.SEQUENCE_DELIMITER);
+			}
+			if(!formatNewLine(stringBuilder) && !sequenceSeparatorRequired && hasNext) {
+				stringBuilder.append(SURF.SEQUENCE_DELIMITER);
+			}
+		}
+		return new Chunk(stringBuilder, objectCount, propertyCount, elementCount);
+	}
+
+	/**
+	 * Waits for a chunk of a list to be serialized. If no thread of the executor has started serializing the chunk, it is serialized on this thread instead, so
+	 * that serialization progresses even if the executor is busy, or if this thread is one of its own.
+	 * @param chunkTask The task serializing the chunk.
+	 * @return The serialized chunk.
+	 * @throws IOException if there was an error serializing the chunk.
+	 * @throws InterruptedIOException if the thread was interrupted while waiting.
+	 */
+	private static Chunk getChunk(@Nonnull final FutureTask<Chunk> chunkTask) throws IOException {
+		chunkTask.run(); //does nothing if the task has already been started
+		try {
+			return chunkTask.get();
+		} catch(final InterruptedException interruptedException) {
+			Thread.currentThread().interrupt();
+			throw (InterruptedIOException)new InterruptedIOException("Interrupted while serializing list in parallel.").initCause(interruptedException);
+		} catch(final ExecutionException executionException) {
+			final Throwable cause = executionException.getCause();
+			if(cause instanceof IOException) {
+				throw (IOException)cause;
+			} else if(cause instanceof RuntimeException) {
+				throw (RuntimeException)cause;
+			} else if(cause instanceof Error) {
+				throw (Error)cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	/** A serialized chunk of the elements of a list, along with the counts of what was serialized. */
+	private static final class Chunk {
+
+		private final CharSequence text;
+
+		private final long objectCount;
+
+		private final long propertyCount;
+
+		private final long elementCount;
+
+		/**
+		 * Constructor.
+		 * @param text The serialized elements.
+		 * @param objectCount The number of beans serialized.
+		 * @param propertyCount The number of bean properties serialized.
+		 * @param elementCount The number of elements serialized.
+		 */
+		public Chunk(@Nonnull final CharSequence text, final long objectCount, final long propertyCount, final long elementCount) {
+			this.text = requireNonNull(text);
+			this.objectCount = objectCount;
+			this.propertyCount = propertyCount;
+			this.elementCount = elementCount;
+		}
+
+	}
+
+	/**
+	 * Serializes a collection that is neither a list nor a set, such as a queue or the values of a map, as a SURF list in iteration order, with the same output
+	 * as a list of the same elements.
+	 * @param appendable The appendable to which serialized data should be appended.
+	 * @param collection The collection to serialize.
+	 * @throws IOException if there is an error appending to the output.
+	 */
+	protected void serializeCollection(@Nonnull final Appendable appendable, @Nonnull final Collection<?> collection) throws IOException {
+		appendable.append(SURF.LIST_BEGIN);
+		if(!collection.isEmpty()) {
+			formatNewLine(appendable);
+			try (final Closeable indention = increaseIndentLevel()) {
+				serializeSequence(appendable, collection, this::serializeResource);
+			}
+			formatIndent(appendable);
+		}
+		appendable.append(SURF.LIST_END);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version converts keys as well as values. A key written as an object with a description, such as a bean with properties, is enclosed in
+	 * {@link SURF#MAP_KEY_DELIMITER} characters.
+	 * </p>
+	 */
+	@Override
+	public void serializeMap(final Appendable appendable, final Map<?, ?> map) throws IOException {
+		appendable.append(SURF.MAP_BEGIN);
+		if(!map.isEmpty()) {
+			formatNewLine(appendable);
+			try (final Closeable indention = increaseIndentLevel()) {
+				serializeSequence(appendable, map.entrySet(), (out, entry) -> {
+					final Object key = entry.getKey();
+					final boolean hasDescription = isSerializedWithDescription(key);
+					if(hasDescription) {
+						out.append(SURF.MAP_KEY_DELIMITER);
+					}
+					serializeResource(out, key);
+					if(hasDescription) {
+						out.append(SURF.MAP_KEY_DELIMITER);
+					}
+					out.append(SURF.ENTRY_KEY_VALUE_DELIMITER);
+					if(isFormatted()) {
+						out.append(' ');
+					}
+					serializeResource(out, entry.getValue());
+				});
+			}
+			formatIndent(appendable);
+		}
+		appendable.append(SURF.MAP_END);
+	}
+
+	/**
+	 * Determines whether a resource, if serialized next, would be written as an object with a description. A bean that was not discovered, such as one
+	 * within a stream, is assumed to have a description, so that its properties need not be read twice.
+	 * @param resource The resource to be serialized.
+	 * @return <code>true</code> if the resource would be written as an object with a description.
+	 */
+	private boolean isSerializedWithDescription(@Nullable Object resource) {
+		if(resource == null) {
+			return false;
+		}
+		SurfTypeCategory typeCategory = writer.getTypeCategory(resource.getClass());
+		while(typeCategory == SurfTypeCategory.CUSTOM) {
+			resource = writer.convert(resource);
+			typeCategory = writer.getTypeCategory(resource.getClass());
+		}
+		if(resource instanceof SurfObject) {
+			return ((SurfObject)resource).hasDescription();
+		}
+		if(typeCategory != SurfTypeCategory.BEAN) {
+			return false;
+		}
+		if(beanAliases.containsKey(resource)) { //a shared bean already written is referred to by its alias alone
+			return false;
+		}
+		final DiscoveredBean discoveredBean = discoveredBeans.get(resource);
+		if(discoveredBean == null) {
+			return true;
+		}
+		for(final Object value : discoveredBean.values) {
+			if(value != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Serializes a bean as a SURF object, with the simple name of its class as the type handle and its non-<code>null</code> properties as the description.
+	 * Each property value is read exactly once. A bean shared within the graph is labeled with an alias the first time it is serialized, and written as the
+	 * alias alone thereafter.
+	 * @param <T> The type of bean.
+	 * @param appendable The appendable to which serialized data should be appended.
+	 * @param bean The bean to serialize.
+	 * @throws IOException if there is an error appending to the output.
+	 * @throws IllegalStateException if a property of the bean could not be read.
+	 */
+	protected <T> void serializeBean(@Nonnull final Appendable appendable, @Nonnull final T bean) throws IOException {
+		final DiscoveredBean discoveredBean = discoveredBeans.get(bean); //beans in streams are not discovered
+		final SurfProjection beanProjection = discoveredBean != null ? discoveredBean.projection : projection;
+		@SuppressWarnings("unchecked")
+		final SerializationPlan<T> serializationPlan = discoveredBean != null ? (SerializationPlan<T>)discoveredBean.serializationPlan
+				: writer.getSerializationPlan((Class<T>)bean.getClass()).project(beanProjection);
+		if(sharedBeans.contains(bean)) {
+			final String existingAlias = beanAliases.get(bean);
+			if(existingAlias != null) { //the bean has already been serialized, or is being serialized and is referenced through a cycle
+				appendable.append(SURF.LABEL_DELIMITER).append(existingAlias).append(SURF.LABEL_DELIMITER);
+				return;
+			}
+			final String alias = GENERATED_BEAN_ALIAS_PREFIX + (++generatedBeanAliasCount);
+			beanAliases.put(bean, alias);
+			appendable.append(SURF.LABEL_DELIMITER).append(alias).append(SURF.LABEL_DELIMITER);
+		}
+		final List<SerializationPlan.PropertyGetter<T>> propertyGetters = serializationPlan.getPropertyGetters();
+		final Object[] values = discoveredBean != null ? discoveredBean.values : readPropertyValues(serializationPlan, bean);
+		int presentPropertyCount = 0;
+		for(final Object value : values) {
+			if(value != null) {
+				presentPropertyCount++;
+			}
+		}
+
+		objectCount++;
+		propertyCount += presentPropertyCount;
+		appendable.append(SURF.OBJECT_BEGIN).append(serializationPlan.getTypeHandle());
+		if(presentPropertyCount > 0) { //serialize the description as serializeDescription() would, without the intermediate SurfObject
+			appendable.append(SURF.DESCRIPTION_BEGIN);
+			formatNewLine(appendable);
+			try (final Closeable indention = increaseIndentLevel()) {
+				final boolean sequenceSeparatorRequired = isSequenceSeparatorRequired();
+				int remainingPropertyCount = presentPropertyCount;
+				for(final int propertyIndex : serializationPlan.getDescriptionPropertyOrder(presentPropertyCount)) {
+					final Object value = values[propertyIndex];
+					if(value == null) {
+						continue;
+					}
+					formatIndent(appendable);
+					appendable.append(propertyGetters.get(propertyIndex).getName());
+					if(isFormatted()) {
+						appendable.append(' ');
+					}
+					appendable.append(SURF.PROPERTY_VALUE_DELIMITER);
+					if(isFormatted()) {
+						appendable.append(' ');
+					}
+					projection = beanProjection.getPropertyProjection(propertyGetters.get(propertyIndex).getName());
+					try {
+						serializeResource(appendable, value);
+					} finally {
+						projection = beanProjection;
+					}
+					final boolean hasNext = --remainingPropertyCount > 0;
+					if(sequenceSeparatorRequired && hasNext) {
+						appendable.append(SURF.SEQUENCE_DELIMITER);
+					}
+					if(!formatNewLine(appendable) && !sequenceSeparatorRequired && hasNext) {
+						appendable.append(SURF.SEQUENCE_DELIMITER);
+					}
+				}
+			}
+			formatIndent(appendable);
+			appendable.append(SURF.DESCRIPTION_END);
+		}
+	}
+
+	/**
+	 * Serializes an {@link SurfTypeCategory#ARRAY} resource as a SURF list, with the same output as a list of the same elements. The elements of primitive
+	 * arrays are written directly without being boxed; integral values are formatted without allocating any objects.
+	 * @param appendable The appendable to which serialized data should be appended.
+	 * @param array The array to serialize.
+	 * @throws IOException if there is an error appending to the output.
+	 */
+	protected void serializeArray(@Nonnull final Appendable appendable, @Nonnull final Object array) throws IOException {
+		final ArrayElementSerializer elementSerializer;
+		if(array instanceof int[]) {
+			final int[] ints = (int[])array;
+			elementSerializer = index -> appendLong(appendable, ints[index]);
+		} else if(array instanceof long[]) {
+			final long[] longs = (long[])array;
+			elementSerializer = index -> appendLong(appendable, longs[index]);
+		} else if(array instanceof double[]) {
+			final double[] doubles = (double[])array;
+			elementSerializer = index -> appendable.append(Double.toString(doubles[index]));
+		} else if(array instanceof float[]) {
+			final float[] floats = (float[])array;
+			elementSerializer = index -> appendable.append(Float.toString(floats[index]));
+		} else if(array instanceof short[]) {
+			final short[] shorts = (short[])array;
+			elementSerializer = index -> appendLong(appendable, shorts[index]);
+		} else if(array instanceof boolean[]) {
+			final boolean[] booleans = (boolean[])array;
+			elementSerializer = index -> appendable.append(booleans[index] ? SURF.BOOLEAN_TRUE_LEXICAL_FORM : SURF.BOOLEAN_FALSE_LEXICAL_FORM);
+		} else if(array instanceof char[]) {
+			final char[] chars = (char[])array;
+			elementSerializer = index -> {
+				appendable.append(SURF.CHARACTER_DELIMITER);
+				serializeCharacterCodePoint(appendable, SURF.CHARACTER_DELIMITER, chars[index]);
+				appendable.append(SURF.CHARACTER_DELIMITER);
+			};
+		} else {
+			final Object[] objects = (Object[])array;
+			elementSerializer = index -> serializeResource(appendable, objects[index]);
+		}
+		final int length = Array.getLength(array);
+		if(!(array instanceof Object[])) { //the elements of other arrays are counted as they are serialized
+			countElements(length);
+		}
+		appendable.append(SURF.LIST_BEGIN);
+		if(length > 0) { //serialize the elements as serializeList() would
+			formatNewLine(appendable);
+			try (final Closeable indention = increaseIndentLevel()) {
+				final boolean sequenceSeparatorRequired = isSequenceSeparatorRequired();
+				for(int index = 0; index < length; index++) {
+					formatIndent(appendable);
+					elementSerializer.serialize(index);
+					final boolean hasNext = index < length - 1;
+					if(sequenceSeparatorRequired && hasNext) {
+						appendable.append(SURF.SEQUENCE_DELIMITER);
+					}
+					if(!formatNewLine(appendable) && !sequenceSeparatorRequired && hasNext) {
+						appendable.append(SURF.SEQUENCE_DELIMITER);
+					}
+				}
+			}
+			formatIndent(appendable);
+		}
+		appendable.append(SURF.LIST_END);
+	}
+
+	/** The digits of the integral value being formatted, filled from the end. */
+	private final char[] digits = new char[20];
+
+	/**
+	 * Appends the decimal representation of an integral value, as {@link Long#toString(long)} would produce, without allocating a string.
+	 * @param appendable The appendable to which the value should be appended.
+	 * @param value The value to append.
+	 * @throws IOException if there is an error appending to the output.
+	 */
+	private void appendLong(@Nonnull final Appendable appendable, final long value) throws IOException {
+		if(value == Long.MIN_VALUE) { //cannot be negated
+			appendable.append("-9223372036854775808");
+			return;
+		}
+		long remainder = value;
+		if(remainder < 0) {
+			appendable.append('-');
+			remainder = -remainder;
+		}
+		int digitIndex = digits.length;
+		do {
+			digits[--digitIndex] = (char)('0' + remainder % 10);
+			remainder /= 10;
+		} while(remainder != 0);
+		for(; digitIndex < digits.length; digitIndex++) {
+			appendable.append(digits[digitIndex]);
+		}
+	}
+
+	/** Serializes the element of an array at an index. */
+	@FunctionalInterface
+	private interface ArrayElementSerializer {
+
+		/**
+		 * Serializes an array element.
+		 * @param index The index of the element in the array.
+		 * @throws IOException if there is an error appending to the output.
+		 */
+		void serialize(int index) throws IOException;
+
+	}
+
+	/**
+	 * Serializes a {@link SurfTypeCategory#STREAM} resource as a SURF list, pulling each element only when it is to be serialized. The output is flushed after
+	 * every {@value #STREAMED_ELEMENTS_PER_FLUSH} elements if it is {@link Flushable}, so that a client starts receiving elements before the stream ends.
+	 * <p>
+	 * A {@link BaseStream} is always closed after serialization, even if serialization fails; any other resource, or its iterator, is closed if it is
+	 * {@link AutoCloseable}. If serialization fails, any failure to close is added as {@link Throwable#addSuppressed(Throwable) suppressed} to the original
+	 * failure rather than replacing it.
+	 * </p>
+	 * @param appendable The appendable to which serialized data should be appended.
+	 * @param resource The stream, iterator or iterable to serialize.
+	 * @throws IOException if there is an error appending to the output or closing the resource.
+	 */
+	protected void serializeStream(@Nonnull final Appendable appendable, @Nonnull final Object resource) throws IOException {
+		Iterator<?> iterator = null;
+		Throwable failure = null;
+		try {
+			if(resource instanceof BaseStream) {
+				iterator = ((BaseStream<?, ?>)resource).iterator();
+			} else if(resource instanceof Iterator) {
+				iterator = (Iterator<?>)resource;
+			} else {
+				iterator = ((Iterable<?>)resource).iterator();
+			}
+			appendable.append(SURF.LIST_BEGIN);
+			if(iterator.hasNext()) { //serialize the elements as serializeList() would, without knowing the size in advance
+				formatNewLine(appendable);
+				try (final Closeable indention = increaseIndentLevel()) {
+					final boolean sequenceSeparatorRequired = isSequenceSeparatorRequired();
+					int elementCount = 0;
+					boolean hasNext;
+					do {
+						formatIndent(appendable);
+						serializeResource(appendable, iterator.next());
+						hasNext = iterator.hasNext();
+						if(sequenceSeparatorRequired && hasNext) {
+							appendable.append(SURF.SEQUENCE_DELIMITER);
+						}
+						if(!formatNewLine(appendable) && !sequenceSeparatorRequired && hasNext) {
+							appendable.append(SURF.SEQUENCE_DELIMITER);
+						}
+						if(++elementCount % STREAMED_ELEMENTS_PER_FLUSH == 0 && appendable instanceof Flushable) {
+							((Flushable)appendable).flush();
+						}
+					} while(hasNext);
+				}
+				formatIndent(appendable);
+			}
+			appendable.append(SURF.LIST_END);
+		} catch(final Throwable throwable) {
+			failure = throwable;
+			throw throwable;
+		} finally {
+			closeStreamSource(resource instanceof AutoCloseable ? resource : iterator, failure);
+		}
+	}
+
+	/**
+	 * Closes the source of a streamed resource if it is {@link AutoCloseable}.
+	 * @param source The streamed resource or its iterator, or <code>null</code> if no iterator could be obtained.
+	 * @param failure The failure serializing the resource, or <code>null</code> if serialization succeeded.
+	 * @throws IOException if serialization succeeded but the source could not be closed.
+	 */
+	private static void closeStreamSource(@Nullable final Object source, @Nullable final Throwable failure) throws IOException {
+		if(source instanceof AutoCloseable) {
+			try {
+				((AutoCloseable)source).close();
+			} catch(final Exception exception) {
+				if(failure != null) {
+					failure.addSuppressed(exception);
+				} else if(exception instanceof IOException) {
+					throw (IOException)exception;
+				} else if(exception instanceof RuntimeException) {
+					throw (RuntimeException)exception;
+				} else {
+					throw new IOException(exception);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Counts elements serialized.
+	 * @param count The number of elements serialized.
+	 * @throws SurfLimitExceededException if the document exceeds the maximum element count.
+	 */
+	private void countElements(final long count) throws SurfLimitExceededException {
+		if(count > maxElementCount - elementCount) {
+			throw newElementCountExceededException();
+		}
+		elementCount += count;
+	}
+
+	/** @return A new exception indicating that the document exceeds the maximum depth. */
+	private SurfLimitExceededException newDepthExceededException() {
+		return new SurfLimitExceededException(String.format("SURF entity exceeds the maximum depth of %d.", maxDepth));
+	}
+
+	/** @return A new exception indicating that the document exceeds the maximum element count. */
+	private SurfLimitExceededException newElementCountExceededException() {
+		return new SurfLimitExceededException(String.format("SURF entity exceeds the maximum of %d elements.", maxElementCount));
+	}
+
+	/**
+	 * A resource in the graph whose contents are being traversed while discovering references: the elements of a collection or array, the entries of a map, or
+	 * the property values of a bean.
+	 */
+	private static final class DiscoveryFrame {
+
+		/** The depth of the resource in the graph. */
+		private final int depth;
+
+		/** The projection applying to the resource. */
+		private final SurfProjection projection;
+
+		/** The remaining elements or map entries, or <code>null</code> if the resource is a bean. */
+		@Nullable
+		private final Iterator<?> elements;
+
+		/** Whether the elements are map entries. */
+		private final boolean entries;
+
+		/** The value of the map entry whose key is being discovered, or <code>null</code> if there is none. */
+		@Nullable
+		private Object pendingValue = null;
+
+		/** The property values of the bean, or <code>null</code> if the resource is not a bean. */
+		@Nullable
+		private final Object[] values;
+
+		/** The property getters of the bean, in the order of the property values, or <code>null</code> if the resource is not a bean. */
+		@Nullable
+		private final List<? extends SerializationPlan.PropertyGetter<?>> propertyGetters;
+
+		/** The index of the next property value to traverse. */
+		private int valueIndex = 0;
+
+		/**
+		 * Collection, array or map constructor.
+		 * @param depth The depth of the resource in the graph.
+		 * @param projection The projection applying to the resource.
+		 * @param elements The elements or map entries of the resource.
+		 * @param entries Whether the elements are map entries.
+		 */
+		public DiscoveryFrame(final int depth, @Nonnull final SurfProjection projection, @Nonnull final Iterator<?> elements, final boolean entries) {
+			this.depth = depth;
+			this.projection = projection;
+			this.elements = elements;
+			this.entries = entries;
+			this.values = null;
+			this.propertyGetters = null;
+		}
+
+		/**
+		 * Bean constructor.
+		 * @param depth The depth of the bean in the graph.
+		 * @param projection The projection applying to the bean.
+		 * @param values The property values of the bean.
+		 * @param propertyGetters The property getters of the bean, in the order of the property values.
+		 */
+		public DiscoveryFrame(final int depth, @Nonnull final SurfProjection projection, @Nonnull final Object[] values,
+				@Nonnull final List<? extends SerializationPlan.PropertyGetter<?>> propertyGetters) {
+			this.depth = depth;
+			this.projection = projection;
+			this.elements = null;
+			this.entries = false;
+			this.values = values;
+			this.propertyGetters = propertyGetters;
+		}
+
+	}
+
+	/** The property values read from a bean while discovering references, along with the plan used to read them. */
+	private static final class DiscoveredBean {
+
+		/** The projection with which the property values were read. */
+		private final SurfProjection projection;
+
+		/** The serialization plan of the bean class, projected using the projection, so that the plan is looked up only once for each bean. */
+		private final SerializationPlan<?> serializationPlan;
+
+		/** The property values, in the order of the projected serialization plan of the bean class. */
+		private final Object[] values;
+
+		/**
+		 * Constructor.
+		 * @param projection The projection with which the property values were read.
+		 * @param serializationPlan The projected serialization plan of the bean class.
+		 * @param values The property values, in the order of the projected serialization plan of the bean class.
+		 */
+		public DiscoveredBean(@Nonnull final SurfProjection projection, @Nonnull final SerializationPlan<?> serializationPlan, @Nonnull final Object[] values) {
+			this.projection = requireNonNull(projection);
+			this.serializationPlan = requireNonNull(serializationPlan);
+			this.values = requireNonNull(values);
+		}
+
+	}
+
+}
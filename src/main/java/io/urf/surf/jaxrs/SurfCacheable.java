@@ -0,0 +1,36 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.*;
+
+import java.lang.annotation.*;
+
+/**
+ * Indicates that the SURF representations of the entities returned by a resource method, or of the instances of an entity class, may be cached by
+ * {@link SurfMessageBodyWriter} if it has been configured with a {@link SurfRepresentationCache}. Representations are cached by entity identity, so entities
+ * must not be modified after they have first been written; a new version of an entity should be a new instance. Only long-lived entities, such as singletons
+ * or entities held by an application cache, benefit from caching; an entity created anew for each request is never found in the cache.
+ * @author Garret Wilson
+ * @see SurfMessageBodyWriter#setRepresentationCache(SurfRepresentationCache)
+ */
+@Documented
+@Retention(RUNTIME)
+@Target({METHOD, TYPE})
+public @interface SurfCacheable {
+}
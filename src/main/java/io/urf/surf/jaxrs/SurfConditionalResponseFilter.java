@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static java.util.Objects.*;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import javax.annotation.*;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.container.*;
+import javax.ws.rs.core.*;
+
+/**
+ * Evaluates <code>If-None-Match</code> preconditions against the cached SURF representations of {@link SurfCacheable} entities. The entity tag of each
+ * cached representation is added to the response, and if the request indicates that the client already has the representation, the response is replaced with
+ * <code>304 Not Modified</code> without writing the entity.
+ * <p>
+ * The filter uses the representation cache of the given writer; if the writer has no {@link SurfRepresentationCache}, the filter has no effect. The filter
+ * must be registered along with the same writer instance, for example as singletons of the JAX-RS application.
+ * </p>
+ * @author Garret Wilson
+ * @see SurfMessageBodyWriter#setRepresentationCache(SurfRepresentationCache)
+ */
+public class SurfConditionalResponseFilter implements ContainerResponseFilter {
+
+	/** The entity tag matching any representation in an <code>If-None-Match</code> header. */
+	private static final String ANY_ENTITY_TAG = "*";
+
+	/** The prefix of a weak entity tag. */
+	private static final String WEAK_ENTITY_TAG_PREFIX = "W/";
+
+	private final SurfMessageBodyWriter writer;
+
+	/**
+	 * Constructor.
+	 * @param writer The writer which caches the SURF representations of entities.
+	 */
+	public SurfConditionalResponseFilter(@Nonnull final SurfMessageBodyWriter writer) {
+		this.writer = requireNonNull(writer);
+	}
+
+	@Override
+	public void filter(final ContainerRequestContext requestContext, final ContainerResponseContext responseContext) throws IOException {
+		final String method = requestContext.getMethod();
+		if(!(HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method)) || responseContext.getStatus() != Response.Status.OK.getStatusCode()
+				|| !responseContext.hasEntity()) {
+			return;
+		}
+		final MediaType mediaType = responseContext.getMediaType();
+		if(mediaType == null || !writer.isWriteable(responseContext.getEntityClass(), responseContext.getEntityType(), responseContext.getEntityAnnotations(),
+				mediaType)) {
+			return;
+		}
+		final Optional<SurfRepresentation> foundRepresentation = writer.findRepresentation(responseContext.getEntity(), responseContext.getEntityClass(),
+				responseContext.getEntityAnnotations(), mediaType);
+		if(!foundRepresentation.isPresent()) {
+			return;
+		}
+		final String entityTag = foundRepresentation.get().getEntityTag();
+		responseContext.getHeaders().putSingle(HttpHeaders.ETAG, entityTag);
+		if(matchesAny(requestContext.getHeaderString(HttpHeaders.IF_NONE_MATCH), entityTag)) {
+			responseContext.setStatus(Response.Status.NOT_MODIFIED.getStatusCode());
+			responseContext.setEntity(null);
+		}
+	}
+
+	/**
+	 * Determines whether an entity tag matches any of those listed in an <code>If-None-Match</code> header. As that header requires, tags are compared using
+	 * the weak comparison function, ignoring any weakness indicator.
+	 * @param ifNoneMatch The value of the <code>If-None-Match</code> header, or <code>null</code> if the header is not present.
+	 * @param entityTag The entity tag of the current representation, including its quotes.
+	 * @return <code>true</code> if the header lists the entity tag or matches any representation.
+	 */
+	static boolean matchesAny(@Nullable final String ifNoneMatch, @Nonnull final String entityTag) {
+		if(ifNoneMatch == null) {
+			return false;
+		}
+		final String opaqueTag = removeWeakPrefix(entityTag);
+		for(final String listedTag : ifNoneMatch.split(",")) {
+			final String trimmedTag = listedTag.trim();
+			if(trimmedTag.equals(ANY_ENTITY_TAG) || removeWeakPrefix(trimmedTag).equals(opaqueTag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Removes the weakness indicator of an entity tag, if present.
+	 * @param entityTag The entity tag.
+	 * @return The opaque, quoted part of the entity tag.
+	 */
+	private static String removeWeakPrefix(@Nonnull final String entityTag) {
+		return entityTag.startsWith(WEAK_ENTITY_TAG_PREFIX) ? entityTag.substring(WEAK_ENTITY_TAG_PREFIX.length()) : entityTag;
+	}
+
+}
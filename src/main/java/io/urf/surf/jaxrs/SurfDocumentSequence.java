@@ -0,0 +1,43 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import java.io.IOException;
+
+import javax.annotation.*;
+
+/**
+ * An entity that is written as a sequence of SURF documents, each on its own line, such as the events of a feed. A resource method returns a document
+ * sequence, or resumes an asynchronous response with one, and {@link SurfMessageBodyWriter} calls {@link #writeTo(SurfDocumentSequenceWriter)} to produce
+ * the documents as they become available; the response ends when the method returns.
+ * <p>
+ * With an asynchronous response, the sequence is written on the thread resuming the response, which may wait for events without holding a request thread.
+ * </p>
+ * @author Garret Wilson
+ * @see SurfDocumentSequenceWriter
+ */
+@FunctionalInterface
+public interface SurfDocumentSequence {
+
+	/**
+	 * Writes the documents of the sequence.
+	 * @param sequenceWriter The writer to which to write each document; it is closed after this method returns.
+	 * @throws IOException if there was an error writing a document.
+	 */
+	void writeTo(@Nonnull SurfDocumentSequenceWriter sequenceWriter) throws IOException;
+
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static com.globalmentor.java.Conditions.*;
+import static java.util.Objects.*;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.*;
+
+import io.urf.surf.SURF;
+
+/**
+ * A handle for writing a sequence of entities to an output stream, each serialized as a separate, compact SURF document followed by a line feed. Entities are
+ * converted just as {@link SurfMessageBodyWriter} converts an entire entity, and the limits of the message body writer apply to each document. Compact SURF
+ * has no line breaks, so each document occupies a single line; embedded {@link RawSurf} values are copied as-is, and must therefore be compact as well.
+ * <p>
+ * Each document is serialized completely before any of it is written, so a document that fails to serialize or exceeds the maximum byte count leaves no
+ * partial output and the sequence may continue. Each document is serialized by a new serializer, so that aliases are generated anew for each document and
+ * no entity is retained after its document is written; only the buffer of the largest document is held in memory, so a sequence may run indefinitely.
+ * </p>
+ * <p>
+ * By default the output is flushed after every document, so that each is delivered as soon as it is written. For feeds with many documents, flushes may be
+ * batched using {@link #setBatching(int, long, TimeUnit)}; a blocking output stream slows the writer to the pace of the client.
+ * </p>
+ * <p>
+ * This class is thread safe; documents written by several threads are each written whole, in the order the threads acquire the writer.
+ * </p>
+ * @author Garret Wilson
+ * @see SurfMessageBodyWriter#openDocumentSequence(OutputStream)
+ */
+public final class SurfDocumentSequenceWriter implements Closeable, Flushable {
+
+	/** The character ending each document. */
+	public static final char DOCUMENT_DELIMITER = '\n';
+
+	/** The largest document buffer kept for reuse; a larger buffer is discarded after its document is written. */
+	private static final int MAX_RETAINED_BUFFER_LENGTH = 64 * 1024;
+
+	private final EncodingWriter.Pool encodingWriters;
+
+	private final EncodingWriter encodingWriter;
+
+	private final SurfMessageBodyWriter surfMessageBodyWriter;
+
+	private final int maxDepth;
+
+	private final long maxElementCount;
+
+	private final long maxByteCount;
+
+	@Nullable
+	private final SurfParallelSerialization parallelSerialization;
+
+	private StringBuilder documentBuffer = new StringBuilder();
+
+	private boolean closed = false;
+
+	private long documentCount = 0;
+
+	/** @return The number of documents written. */
+	public synchronized long getDocumentCount() {
+		return documentCount;
+	}
+
+	private int maxBatchSize = 1;
+
+	/** @return The largest number of documents written before the output is flushed. */
+	public synchronized int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	private long maxBatchDelayNanos = 0;
+
+	/**
+	 * @param unit The unit of the delay to return.
+	 * @return The longest time a document may wait for the output to be flushed, checked whenever a document is written.
+	 */
+	public synchronized long getMaxBatchDelay(@Nonnull final TimeUnit unit) {
+		return unit.convert(maxBatchDelayNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/** The number of documents written since the output was last flushed. */
+	private int batchSize = 0;
+
+	/** The time the first document written since the output was last flushed was written. */
+	private long batchStartNanos = 0;
+
+	/**
+	 * Constructor.
+	 * @param surfMessageBodyWriter The message body writer providing the type handling and limits; the limits in effect when this writer is opened apply to
+	 *          all its documents.
+	 * @param encodingWriters The pool from which to acquire an encoding writer, and to which to release it when this writer is closed.
+	 * @param outputStream The output stream to which to write the documents.
+	 */
+	SurfDocumentSequenceWriter(@Nonnull final SurfMessageBodyWriter surfMessageBodyWriter, @Nonnull final EncodingWriter.Pool encodingWriters,
+			@Nonnull final OutputStream outputStream) {
+		requireNonNull(outputStream);
+		this.surfMessageBodyWriter = requireNonNull(surfMessageBodyWriter);
+		maxDepth = surfMessageBodyWriter.getMaxDepth();
+		maxElementCount = surfMessageBodyWriter.getMaxElementCount();
+		maxByteCount = surfMessageBodyWriter.getMaxByteCount();
+		parallelSerialization = surfMessageBodyWriter.getParallelSerialization().orElse(null);
+		this.encodingWriters = requireNonNull(encodingWriters);
+		encodingWriter = encodingWriters.acquire().attach(outputStream);
+	}
+
+	/**
+	 * Sets how flushes of the output are batched. The output is flushed when a document is written if the batch has reached the maximum size, or if the first
+	 * document of the batch has waited at least the maximum delay. As the delay is only checked when a document is written, a feed that may pause should call
+	 * {@link #flush()} when it does.
+	 * @param maxBatchSize The largest number of documents to write before flushing the output.
+	 * @param maxBatchDelay The longest time a document may wait for the output to be flushed; zero flushes after every document.
+	 * @param unit The unit of the delay.
+	 * @throws IllegalArgumentException if the given batch size is not positive, or the given delay is negative.
+	 */
+	public synchronized void setBatching(final int maxBatchSize, final long maxBatchDelay, @Nonnull final TimeUnit unit) {
+		checkArgument(maxBatchSize > 0, "Maximum batch size %d must be positive.", maxBatchSize);
+		checkArgument(maxBatchDelay >= 0, "Maximum batch delay %d must not be negative.", maxBatchDelay);
+		this.maxBatchSize = maxBatchSize;
+		this.maxBatchDelayNanos = unit.toNanos(maxBatchDelay);
+	}
+
+	/**
+	 * Writes an entity as the next document of the sequence, flushing the output if the batch is complete.
+	 * @param entity The entity to write.
+	 * @throws SurfLimitExceededException if the entity exceeds the maximum depth, element count or byte count, in which case nothing is written.
+	 * @throws IOException if this writer is closed, or if there was an error writing the document.
+	 * @throws IllegalStateException if a property of a bean could not be read, in which case nothing is written.
+	 * @throws IllegalArgumentException if the document contains a line break from an embedded {@link RawSurf} value that is not compact, in which case nothing
+	 *           is written.
+	 * @see #setBatching(int, long, TimeUnit)
+	 */
+	public synchronized void write(@Nonnull final Object entity) throws IOException {
+		requireNonNull(entity);
+		if(closed) {
+			throw new IOException("SURF document sequence is closed.");
+		}
+		documentBuffer.setLength(0);
+		try {
+			createSerializer().serializeDocument(documentBuffer, entity);
+			if(containsLineBreak(documentBuffer)) {
+				throw new IllegalArgumentException("SURF document in a sequence must not contain line breaks; embedded raw SURF must be compact.");
+			}
+			if(maxByteCount != Long.MAX_VALUE && getEncodedLength(documentBuffer) > maxByteCount) {
+				throw new SurfLimitExceededException(String.format("SURF document exceeds the maximum of %d bytes.", maxByteCount));
+			}
+			documentBuffer.append(DOCUMENT_DELIMITER);
+			encodingWriter.append(documentBuffer);
+		} finally {
+			if(documentBuffer.length() > MAX_RETAINED_BUFFER_LENGTH) {
+				documentBuffer = new StringBuilder();
+			}
+		}
+		documentCount++;
+		final long nowNanos = System.nanoTime();
+		if(batchSize++ == 0) {
+			batchStartNanos = nowNanos;
+		}
+		if(batchSize >= maxBatchSize || nowNanos - batchStartNanos >= maxBatchDelayNanos) {
+			flush();
+		}
+	}
+
+	/**
+	 * Creates a serializer for a single document. The superclass serializer retains the resources and aliases of every graph it serializes, so a serializer is
+	 * never reused for another document.
+	 * @return A new serializer with the settings of this writer.
+	 */
+	private SurfBeanSerializer createSerializer() {
+		final SurfBeanSerializer serializer = new SurfBeanSerializer(surfMessageBodyWriter);
+		serializer.setFormatted(false); //each document must fit on a line
+		serializer.setMaxDepth(maxDepth);
+		serializer.setMaxElementCount(maxElementCount);
+		serializer.setParallelSerialization(parallelSerialization);
+		return serializer;
+	}
+
+	/**
+	 * Determines whether a document contains a line break, which would split it across lines of the sequence.
+	 * @param document The serialized document.
+	 * @return <code>true</code> if the document contains a line feed or carriage return.
+	 */
+	static boolean containsLineBreak(@Nonnull final CharSequence document) {
+		final int length = document.length();
+		for(int i = 0; i < length; i++) {
+			final char c = document.charAt(i);
+			if(c == '\n' || c == '\r') {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Determines the number of bytes of a document when encoded in the SURF charset, UTF-8, without encoding it.
+	 * @param document The serialized document.
+	 * @return The number of bytes of the encoded document.
+	 */
+	static long getEncodedLength(@Nonnull final CharSequence document) {
+		final int length = document.length();
+		long byteCount = 0;
+		for(int i = 0; i < length; i++) {
+			final char c = document.charAt(i);
+			if(c < 0x80) {
+				byteCount++;
+			} else if(c < 0x800) {
+				byteCount += 2;
+			} else if(Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(document.charAt(i + 1))) {
+				byteCount += 4;
+				i++;
+			} else {
+				byteCount += 3;
+			}
+		}
+		return byteCount;
+	}
+
+	/**
+	 * {@inheritDoc} This implementation writes all documents written so far and flushes the output stream.
+	 * @throws IOException if this writer is closed, or if there was an error writing to the output stream.
+	 */
+	@Override
+	public synchronized void flush() throws IOException {
+		if(closed) {
+			throw new IOException("SURF document sequence is closed.");
+		}
+		encodingWriter.flush();
+		batchSize = 0;
+	}
+
+	/** {@inheritDoc} This implementation writes all documents written so far and flushes the output stream, which is not closed. */
+	@Override
+	public synchronized void close() throws IOException {
+		if(closed) {
+			return;
+		}
+		closed = true;
+		try {
+			encodingWriter.finish();
+		} finally {
+			encodingWriters.release(encodingWriter);
+		}
+	}
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.*;
+
+import java.lang.annotation.*;
+
+/**
+ * Selects the bean properties to write for a resource method, or for an entity class. Properties not selected are neither read nor written. If the writer
+ * accepts the {@value SurfMessageBodyWriter#FIELDS_QUERY_PARAMETER} query parameter, a request may narrow the selection further, but not widen it.
+ * @author Garret Wilson
+ * @see SurfProjection#parse(String)
+ * @see SurfMessageBodyWriter#getProjection(Class, Annotation[])
+ */
+@Documented
+@Retention(RUNTIME)
+@Target({METHOD, TYPE})
+public @interface SurfFields {
+
+	/** @return The selection of properties to write, such as <code>id,name,owner(name,email)</code>. */
+	String value();
+
+}
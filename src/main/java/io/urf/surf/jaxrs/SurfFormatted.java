@@ -0,0 +1,38 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.*;
+
+import java.lang.annotation.*;
+
+/**
+ * Indicates whether SURF representations written for a resource method, or for an entity class, should be formatted for human readers, with line breaks and
+ * indentation. Without this annotation {@link SurfMessageBodyWriter} writes compact SURF unless otherwise configured.
+ * @author Garret Wilson
+ * @see SurfMessageBodyWriter#isFormatted(Class, java.lang.annotation.Annotation[], javax.ws.rs.core.MediaType)
+ */
+@Documented
+@Retention(RUNTIME)
+@Target({METHOD, TYPE})
+public @interface SurfFormatted {
+
+	/** @return Whether the SURF output should be formatted. */
+	boolean value() default true;
+
+}
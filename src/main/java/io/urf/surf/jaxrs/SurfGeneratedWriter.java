@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import java.util.List;
+
+import javax.annotation.*;
+
+/**
+ * Reads the properties of a bean without reflection, generated at compile time for a bean class annotated with {@link SurfSerializable}.
+ * <p>
+ * A generated writer is named after the bean class by appending {@value #CLASS_NAME_SUFFIX} to the class name, with the names of any enclosing classes joined
+ * by underscores, and is placed in the same package as the bean class. For example the writer of <code>com.example.Outer.Inner</code> is
+ * <code>com.example.Outer_Inner_SurfWriter</code>. Generated writers must have a public no-argument constructor and must be thread-safe.
+ * </p>
+ * @author Garret Wilson
+ * @param <T> The type of bean the writer reads.
+ * @see SurfSerializableProcessor
+ */
+public interface SurfGeneratedWriter<T> {
+
+	/** The suffix appended to the name of a bean class to form the name of its generated writer. */
+	public static final String CLASS_NAME_SUFFIX = "_SurfWriter";
+
+	/** @return The class of bean the writer reads. */
+	public Class<T> getBeanClass();
+
+	/** @return The handle of the SURF object type to use for the bean. */
+	public String getTypeHandle();
+
+	/** @return The names of the bean properties, in the order in which their values are indexed. */
+	public List<String> getPropertyNames();
+
+	/**
+	 * Reads the value of a property by invoking its getter.
+	 * @param bean The bean from which to read the property.
+	 * @param propertyIndex The index of the property in {@link #getPropertyNames()}.
+	 * @return The value of the property, which may be <code>null</code>.
+	 * @throws IndexOutOfBoundsException if the given index does not identify a property.
+	 */
+	@Nullable
+	public Object getPropertyValue(@Nonnull T bean, int propertyIndex);
+
+	/**
+	 * Determines the fully qualified name of the generated writer of a bean class.
+	 * @param beanClassBinaryName The binary name of the bean class, e.g. <code>com.example.Outer$Inner</code>.
+	 * @return The binary name of the generated writer class.
+	 */
+	public static String getClassName(@Nonnull final String beanClassBinaryName) {
+		return beanClassBinaryName.replace('$', '_') + CLASS_NAME_SUFFIX;
+	}
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import java.io.IOException;
+
+/**
+ * Indicates that an entity could not be written because it exceeded a configured limit, such as the maximum nesting depth or the maximum number of bytes.
+ * {@link SurfMessageBodyWriter} reports the failure to JAX-RS as a server error.
+ * @author Garret Wilson
+ * @see SurfMessageBodyWriter#setMaxDepth(int)
+ * @see SurfMessageBodyWriter#setMaxElementCount(long)
+ * @see SurfMessageBodyWriter#setMaxByteCount(long)
+ */
+public class SurfLimitExceededException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Message constructor.
+	 * @param message The description of the limit exceeded.
+	 */
+	public SurfLimitExceededException(final String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import java.io.*;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import javax.annotation.*;
+import javax.ws.rs.*;
+import javax.ws.rs.core.*;
+import javax.ws.rs.ext.*;
+
+import com.globalmentor.io.ParseIOException;
+
+import io.urf.surf.*;
+
+/**
+ * Provides support for reading entities of the SURF {@link MediaType} in JAX-RS.
+ * <p>
+ * The SURF document is bound directly to the requested entity type as it is parsed, without building an intermediate graph of {@link SurfObject} instances
+ * unless the entity type is {@link Object} or {@link SurfObject}. Bean classes are introspected once, and the resulting binding plans are cached.
+ * </p>
+ * @author Garret Wilson
+ */
+@Provider
+@Consumes("text/surf")
+public class SurfMessageBodyReader implements MessageBodyReader<Object> {
+
+	/** The default maximum number of classes for which binding plans are cached. */
+	public static final int DEFAULT_MAX_BINDING_PLAN_COUNT = 1024;
+
+	private final ClassCache<BindingPlan<?>> bindingPlans;
+
+	/** Default constructor, caching up to {@value #DEFAULT_MAX_BINDING_PLAN_COUNT} binding plans. */
+	public SurfMessageBodyReader() {
+		this(DEFAULT_MAX_BINDING_PLAN_COUNT);
+	}
+
+	/**
+	 * Binding plan cache size constructor.
+	 * @param maxBindingPlanCount The maximum number of classes for which binding plans are cached.
+	 * @throws IllegalArgumentException if the given maximum count is not positive.
+	 */
+	public SurfMessageBodyReader(final int maxBindingPlanCount) {
+		bindingPlans = new ClassCache<>(maxBindingPlanCount, BindingPlan::compile);
+	}
+
+	/**
+	 * Returns the plan for binding instances of the given class, introspecting the class only the first time it is requested.
+	 * @param <T> The type of bean.
+	 * @param beanClass The class of the bean to bind.
+	 * @return The cached binding plan for the bean class.
+	 */
+	@SuppressWarnings("unchecked")
+	<T> BindingPlan<T> getBindingPlan(@Nonnull final Class<T> beanClass) {
+		return (BindingPlan<T>)bindingPlans.get(beanClass);
+	}
+
+	@Override
+	public boolean isReadable(final Class<?> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType) {
+		if(mediaType != null) {
+			return "text".equals(mediaType.getType()) && "surf".equals(mediaType.getSubtype());
+		} else {
+			return true;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @throws NoContentException if the entity is empty.
+	 * @throws BadRequestException if the entity is not valid SURF or cannot be bound to the requested type.
+	 */
+	@Override
+	public Object readFrom(final Class<Object> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType,
+			final MultivaluedMap<String, String> httpHeaders, final InputStream entityStream) throws IOException, WebApplicationException {
+		final Reader reader = new LineNumberReader(new InputStreamReader(entityStream, SURF.CHARSET)); //SurfParser requires a reader supporting marking
+		try {
+			return new SurfBeanParser(this).parse(reader, genericType != null ? genericType : type)
+					.orElseThrow(() -> new NoContentException("No SURF resource present in the entity."));
+		} catch(final ParseIOException parseIOException) {
+			throw new BadRequestException(parseIOException.getMessage(), parseIOException);
+		}
+	}
+
+}
@@ -21,7 +21,9 @@
 import java.lang.reflect.*;
 import java.nio.ByteBuffer;
 import java.util.*;
-import java.util.Map.Entry;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.*;
+import java.util.stream.BaseStream;
 
 import javax.annotation.*;
 import javax.ws.rs.*;
@@ -33,6 +35,7 @@
 import io.ploop.introspection.*;
 import io.urf.surf.*;
 
+import static com.globalmentor.java.Conditions.*;
 import static java.util.Objects.*;
 
 /**
@@ -46,7 +49,6 @@
 @Produces("text/surf")
 public class SurfMessageBodyWriter implements MessageBodyWriter<Object> {
 
-	private final static String ARRAY_LIST_CLASS_NAME = "java.util.ArrayList";
 	private final static String BIG_DECIMAL_CLASS_NAME = "java.math.BigDecimal";
 	private final static String BIG_INTEGER_CLASS_NAME = "java.math.BigInteger";
 	private final static String BOOLEAN_CLASS_NAME = "java.lang.Boolean";
@@ -58,13 +60,8 @@ public class SurfMessageBodyWriter implements MessageBodyWriter<Object> {
 	private final static String DOUBLE_CLASS_NAME = "java.lang.Double";
 	private final static String EMAIL_ADDRESS_CLASS_NAME = "com.globalmentor.net.EmailAddress";
 	private final static String FLOAT_CLASS_NAME = "java.lang.Float";
-	private final static String HASH_MAP_CLASS_NAME = "java.util.HashMap";
-	private final static String HASH_SET_CLASS_NAME = "java.util.HashSet";
 	private final static String INSTANT_CLASS_NAME = "java.time.Instant";
 	private final static String INTEGER_CLASS_NAME = "java.lang.Integer";
-	private final static String LINKED_HASH_MAP_CLASS_NAME = "java.util.LinkedHashMap";
-	private final static String LINKED_HASH_SET_CLASS_NAME = "java.util.LinkedHashSet";
-	private final static String LINKED_LIST_CLASS_NAME = "java.util.LinkedList";
 	private final static String LOCAL_DATE_CLASS_NAME = "java.time.LocalDate";
 	private final static String LOCAL_DATE_TIME_CLASS_NAME = "java.time.LocalDateTime";
 	private final static String LOCAL_TIME_CLASS_NAME = "java.time.LocalTime";
@@ -77,8 +74,6 @@ public class SurfMessageBodyWriter implements MessageBodyWriter<Object> {
 	private final static String STRING_CLASS_NAME = "java.lang.String";
 	private final static String STRING_BUILDER_CLASS_NAME = "java.lang.StringBuilder";
 	private final static String TELEPHONE_NUMBER_CLASS_NAME = "com.globalmentor.itu.TelephoneNumber";
-	private final static String TREE_MAP_CLASS_NAME = "java.util.TreeMap";
-	private final static String TREE_SET_CLASS_NAME = "java.util.TreeSet";
 	private final static String URI_CLASS_NAME = "java.net.URI";
 	private final static String URL_CLASS_NAME = "java.net.URL";
 	private final static String UUID_CLASS_NAME = "java.util.UUID";
@@ -86,6 +81,361 @@ public class SurfMessageBodyWriter implements MessageBodyWriter<Object> {
 	private final static String YEAR_MONTH_CLASS_NAME = "java.time.YearMonth";
 	private final static String ZONED_DATE_TIME_CLASS_NAME = "java.time.ZonedDateTime";
 
+	/** The media type parameter indicating whether the SURF output should be formatted, e.g. <code>text/surf;formatted=true</code>. */
+	public static final String FORMATTED_PARAMETER = "formatted";
+
+	/** The query parameter selecting the bean properties to write, e.g. <code>?fields=id,name,owner(name)</code>. */
+	public static final String FIELDS_QUERY_PARAMETER = "fields";
+
+	/** The default maximum number of bean classes for which serialization plans are cached. */
+	public static final int DEFAULT_MAX_SERIALIZATION_PLAN_COUNT = 1024;
+
+	/** The default maximum nesting depth of resources in an entity. */
+	public static final int DEFAULT_MAX_DEPTH = 512;
+
+	/** The default largest size in bytes of an entity that is buffered so that its length can be reported. */
+	public static final int DEFAULT_CONTENT_LENGTH_THRESHOLD = 8 * 1024;
+
+	private final ClassCache<SerializationPlan<?>> serializationPlans;
+
+	private final int contentLengthThreshold;
+
+	/** @return The largest size in bytes of an entity that is buffered so that its length can be reported, or zero if entities are always streamed. */
+	public int getContentLengthThreshold() {
+		return contentLengthThreshold;
+	}
+
+	/** The reusable writers and buffers for encoding entities. */
+	private final EncodingWriter.Pool encodingWriters;
+
+	/**
+	 * Default constructor, caching up to {@value #DEFAULT_MAX_SERIALIZATION_PLAN_COUNT} serialization plans and reporting the content length of entities up to
+	 * {@value #DEFAULT_CONTENT_LENGTH_THRESHOLD} bytes.
+	 */
+	public SurfMessageBodyWriter() {
+		this(DEFAULT_MAX_SERIALIZATION_PLAN_COUNT);
+	}
+
+	/**
+	 * Serialization plan cache size constructor, reporting the content length of entities up to {@value #DEFAULT_CONTENT_LENGTH_THRESHOLD} bytes.
+	 * @param maxSerializationPlanCount The maximum number of bean classes for which serialization plans are cached.
+	 * @throws IllegalArgumentException if the given maximum count is not positive.
+	 */
+	public SurfMessageBodyWriter(final int maxSerializationPlanCount) {
+		this(maxSerializationPlanCount, DEFAULT_CONTENT_LENGTH_THRESHOLD);
+	}
+
+	/**
+	 * Serialization plan cache size and content length threshold constructor.
+	 * <p>
+	 * Entities no larger than the content length threshold are serialized into a reused buffer and written with a <code>Content-Length</code> header. Larger
+	 * entities are streamed as they are serialized, leaving the container to use chunked transfer encoding.
+	 * </p>
+	 * @param maxSerializationPlanCount The maximum number of bean classes for which serialization plans are cached.
+	 * @param contentLengthThreshold The largest size in bytes of an entity that is buffered so that its length can be reported, or zero if entities should
+	 *          always be streamed.
+	 * @throws IllegalArgumentException if the given maximum count is not positive, or the given threshold is negative.
+	 */
+	public SurfMessageBodyWriter(final int maxSerializationPlanCount, final int contentLengthThreshold) {
+		serializationPlans = new ClassCache<>(maxSerializationPlanCount, beanClass -> {
+			instrumentation.recordSerializationPlanCompilation(beanClass);
+			return SerializationPlan.compile(beanClass);
+		});
+		checkArgument(contentLengthThreshold >= 0, "Content length threshold %d must not be negative.", contentLengthThreshold);
+		this.contentLengthThreshold = contentLengthThreshold;
+		encodingWriters = new EncodingWriter.Pool(Runtime.getRuntime().availableProcessors() * 2, contentLengthThreshold);
+	}
+
+	/**
+	 * Returns the plan for serializing instances of the given bean class, introspecting the class only the first time it is requested.
+	 * @param <T> The type of bean.
+	 * @param beanClass The class of the bean to serialize.
+	 * @return The cached serialization plan for the bean class.
+	 */
+	@SuppressWarnings("unchecked")
+	<T> SerializationPlan<T> getSerializationPlan(@Nonnull final Class<T> beanClass) {
+		instrumentation.recordSerializationPlanLookup(beanClass);
+		return (SerializationPlan<T>)serializationPlans.get(beanClass);
+	}
+
+	/**
+	 * Prepares the writer for writing entities of the given type, so that the first entity written does not pay the cost of introspection. The bean classes
+	 * reachable from the type are determined, including the element types of generic collections and streams, the value types of generic maps, and the types
+	 * of bean properties. For each bean class its serialization plan is compiled, and if the class can be instantiated a new instance is serialized and
+	 * discarded to exercise the plan.
+	 * <p>
+	 * Warming up is best effort; bean classes that cannot be instantiated or serialized are skipped.
+	 * </p>
+	 * @param type The generic type of entity to be written.
+	 * @return The bean classes for which the writer was prepared.
+	 */
+	public Set<Class<?>> warmUp(@Nonnull final Type type) {
+		final Set<Class<?>> beanClasses = new LinkedHashSet<>();
+		collectBeanClasses(type, beanClasses);
+		for(final Class<?> beanClass : beanClasses) {
+			final Optional<? extends Supplier<?>> constructor = BeanAccessors.bindConstructor(beanClass);
+			if(constructor.isPresent()) {
+				try {
+					new SurfBeanSerializer(this).serializeDocument(new StringBuilder(), constructor.get().get());
+				} catch(final IOException | RuntimeException exception) {
+					//the bean could not be serialized with its default values; its plan has nevertheless been compiled
+				}
+			}
+		}
+		return beanClasses;
+	}
+
+	/**
+	 * Collects the concrete bean classes reachable from a type, compiling the serialization plan of each.
+	 * @param type The generic type.
+	 * @param beanClasses The bean classes collected so far, to which new ones will be added.
+	 */
+	private void collectBeanClasses(@Nonnull final Type type, @Nonnull final Set<Class<?>> beanClasses) {
+		final Class<?> rawType = GenericTypes.getRawType(type);
+		if(rawType.isPrimitive() || rawType == Object.class) {
+			return;
+		}
+		switch(getTypeCategory(rawType)) {
+			case LIST:
+			case SET:
+				collectBeanClasses(GenericTypes.getTypeArgument(type, Collection.class, 0), beanClasses);
+				break;
+			case MAP:
+				collectBeanClasses(GenericTypes.getTypeArgument(type, Map.class, 0), beanClasses);
+				collectBeanClasses(GenericTypes.getTypeArgument(type, Map.class, 1), beanClasses);
+				break;
+			case ARRAY:
+				collectBeanClasses(type instanceof GenericArrayType ? ((GenericArrayType)type).getGenericComponentType() : rawType.getComponentType(), beanClasses);
+				break;
+			case STREAM:
+				final Class<?> elementSupertype = BaseStream.class.isAssignableFrom(rawType) ? BaseStream.class
+						: Iterator.class.isAssignableFrom(rawType) ? Iterator.class : Iterable.class;
+				collectBeanClasses(GenericTypes.getTypeArgument(type, elementSupertype, 0), beanClasses);
+				break;
+			case BEAN:
+				if(rawType.isInterface() || Modifier.isAbstract(rawType.getModifiers()) || !beanClasses.add(rawType)) {
+					break; //the plans of abstract types are never requested, as beans are serialized by their concrete class
+				}
+				for(final SerializationPlan.PropertyGetter<?> propertyGetter : getSerializationPlan(rawType).getPropertyGetters()) {
+					BeanAccessors.findGetterMethod(rawType, propertyGetter.getName())
+							.ifPresent(getterMethod -> collectBeanClasses(getterMethod.getGenericReturnType(), beanClasses));
+				}
+				break;
+			default: //native values need no preparation, and the types converters produce are not known
+				break;
+		}
+	}
+
+	private volatile int maxDepth = DEFAULT_MAX_DEPTH;
+
+	/** @return The maximum nesting depth of resources in an entity, with the entity itself at depth <code>1</code>. */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * Sets the maximum nesting depth of resources in an entity. The elements of a collection, stream, map or array, and the property values of a bean, are one
+	 * level deeper than the resource containing them. The default is {@value #DEFAULT_MAX_DEPTH}, which keeps serialization from exhausting the thread stack.
+	 * <p>
+	 * The depth of an entity other than a stream is checked before anything is written.
+	 * </p>
+	 * @param maxDepth The maximum depth.
+	 * @throws IllegalArgumentException if the given maximum is not positive.
+	 */
+	public void setMaxDepth(final int maxDepth) {
+		checkArgument(maxDepth > 0, "Maximum depth %d must be positive.", maxDepth);
+		this.maxDepth = maxDepth;
+	}
+
+	private volatile long maxElementCount = Long.MAX_VALUE;
+
+	/** @return The maximum number of elements in an entity. */
+	public long getMaxElementCount() {
+		return maxElementCount;
+	}
+
+	/**
+	 * Sets the maximum number of elements in an entity. Every resource written counts as an element, including the entity itself, each reference to a shared
+	 * bean, each map key, and each element of a primitive array. By default the number of elements is unlimited.
+	 * <p>
+	 * The elements of an entity are counted before anything is written, except for the contents of streams, which are counted as they are written.
+	 * </p>
+	 * @param maxElementCount The maximum number of elements.
+	 * @throws IllegalArgumentException if the given maximum is not positive.
+	 */
+	public void setMaxElementCount(final long maxElementCount) {
+		checkArgument(maxElementCount > 0, "Maximum element count %d must be positive.", maxElementCount);
+		this.maxElementCount = maxElementCount;
+	}
+
+	private volatile long maxByteCount = Long.MAX_VALUE;
+
+	/** @return The maximum number of bytes in the representation of an entity. */
+	public long getMaxByteCount() {
+		return maxByteCount;
+	}
+
+	/**
+	 * Sets the maximum number of bytes in the representation of an entity. Serialization stops before the bytes exceeding the limit are written; as entities
+	 * are streamed, some of the representation may already have been sent. By default the number of bytes is unlimited.
+	 * @param maxByteCount The maximum number of bytes.
+	 * @throws IllegalArgumentException if the given maximum is not positive.
+	 */
+	public void setMaxByteCount(final long maxByteCount) {
+		checkArgument(maxByteCount > 0, "Maximum byte count %d must be positive.", maxByteCount);
+		this.maxByteCount = maxByteCount;
+	}
+
+	private volatile SurfWriterInstrumentation instrumentation = SurfWriterInstrumentation.NONE;
+
+	/** @return The instrumentation receiving measurements of the work done by this writer. */
+	public SurfWriterInstrumentation getInstrumentation() {
+		return instrumentation;
+	}
+
+	/**
+	 * Sets the instrumentation to receive measurements of the work done by this writer. By default the writer uses {@link SurfWriterInstrumentation#NONE},
+	 * and takes no measurements.
+	 * @param instrumentation The instrumentation to receive measurements.
+	 */
+	public void setInstrumentation(@Nonnull final SurfWriterInstrumentation instrumentation) {
+		this.instrumentation = requireNonNull(instrumentation);
+	}
+
+	/** The providers of the application, for looking up any {@link SurfOutputFormat} configuration; may be <code>null</code> if not injected. */
+	@Context
+	private Providers providers;
+
+	/** Information about the request URI, for looking up any {@value #FIELDS_QUERY_PARAMETER} query parameter; may be <code>null</code> if not injected. */
+	@Context
+	private UriInfo uriInfo;
+
+	private volatile boolean fieldsQueryParameterEnabled = false;
+
+	/** @return Whether the request may select the bean properties to write using the {@value #FIELDS_QUERY_PARAMETER} query parameter. */
+	public boolean isFieldsQueryParameterEnabled() {
+		return fieldsQueryParameterEnabled;
+	}
+
+	/**
+	 * Sets whether the request may select the bean properties to write using the {@value #FIELDS_QUERY_PARAMETER} query parameter. As the parameter applies to
+	 * the responses of all resources, it should only be enabled if no resource uses a query parameter of the same name for another purpose. By default the
+	 * parameter is ignored.
+	 * @param fieldsQueryParameterEnabled <code>true</code> if the query parameter should select the properties to write.
+	 * @see #getProjection(Class, Annotation[])
+	 */
+	public void setFieldsQueryParameterEnabled(final boolean fieldsQueryParameterEnabled) {
+		this.fieldsQueryParameterEnabled = fieldsQueryParameterEnabled;
+	}
+
+	/**
+	 * Determines the selection of bean properties to write for an entity. All properties are written unless a selection is made by:
+	 * <ul>
+	 * <li>a {@link SurfFields} annotation on the resource method, or on the entity class, the former taking precedence; and</li>
+	 * <li>if {@link #isFieldsQueryParameterEnabled() enabled}, the {@value #FIELDS_QUERY_PARAMETER} query parameter of the request, e.g.
+	 * <code>?fields=id,name,owner(name,email)</code>.</li>
+	 * </ul>
+	 * If both select properties, only the properties selected by both are written, so that a request cannot widen the selection of an annotation.
+	 * @param type The class of entity being written, or <code>null</code> if not known.
+	 * @param annotations The annotations of the resource method and the entity, or <code>null</code> if not known.
+	 * @return The projection to apply to the entity.
+	 * @throws BadRequestException if the query parameter is not a valid property selection.
+	 * @throws IllegalArgumentException if an annotation does not contain a valid property selection.
+	 * @see SurfProjection#parse(String)
+	 * @see SurfProjection#intersect(SurfProjection)
+	 */
+	protected SurfProjection getProjection(@Nullable final Class<?> type, @Nullable final Annotation[] annotations) {
+		final SurfProjection declaredProjection = getDeclaredProjection(type, annotations);
+		if(fieldsQueryParameterEnabled && uriInfo != null) {
+			final String fieldsParameter = uriInfo.getQueryParameters().getFirst(FIELDS_QUERY_PARAMETER);
+			if(fieldsParameter != null) {
+				final SurfProjection requestedProjection;
+				try {
+					requestedProjection = SurfProjection.parse(fieldsParameter);
+				} catch(final IllegalArgumentException illegalArgumentException) {
+					throw new BadRequestException(illegalArgumentException.getMessage(), illegalArgumentException);
+				}
+				return declaredProjection.intersect(requestedProjection);
+			}
+		}
+		return declaredProjection;
+	}
+
+	/**
+	 * Determines the selection of bean properties to write for an entity as declared by a {@link SurfFields} annotation on the resource method, or on the
+	 * entity class.
+	 * @param type The class of entity being written, or <code>null</code> if not known.
+	 * @param annotations The annotations of the resource method and the entity, or <code>null</code> if not known.
+	 * @return The declared projection, which is {@link SurfProjection#ALL} if no annotation selects properties.
+	 * @throws IllegalArgumentException if an annotation does not contain a valid property selection.
+	 */
+	private static SurfProjection getDeclaredProjection(@Nullable final Class<?> type, @Nullable final Annotation[] annotations) {
+		if(annotations != null) {
+			for(final Annotation annotation : annotations) {
+				if(annotation instanceof SurfFields) {
+					return SurfProjection.parse(((SurfFields)annotation).value());
+				}
+			}
+		}
+		if(type != null) {
+			final SurfFields fieldsAnnotation = type.getAnnotation(SurfFields.class);
+			if(fieldsAnnotation != null) {
+				return SurfProjection.parse(fieldsAnnotation.value());
+			}
+		}
+		return SurfProjection.ALL;
+	}
+
+	/**
+	 * Determines whether the SURF representation of an entity should be formatted for human readers. Output is compact unless formatting is requested, in order
+	 * of precedence, by:
+	 * <ol>
+	 * <li>the {@value #FORMATTED_PARAMETER} parameter of the media type, e.g. <code>text/surf;formatted=true</code>;</li>
+	 * <li>a {@link SurfFormatted} annotation on the resource method, or on the entity class; or</li>
+	 * <li>a {@link ContextResolver} of {@link SurfOutputFormat} for the entity class.</li>
+	 * </ol>
+	 * @param type The class of entity being written, or <code>null</code> if not known.
+	 * @param annotations The annotations of the resource method and the entity, or <code>null</code> if not known.
+	 * @param mediaType The media type of the representation, or <code>null</code> if not known.
+	 * @return <code>true</code> if the representation should be formatted.
+	 */
+	protected boolean isFormatted(@Nullable final Class<?> type, @Nullable final Annotation[] annotations, @Nullable final MediaType mediaType) {
+		if(mediaType != null) {
+			final String formattedParameter = mediaType.getParameters().get(FORMATTED_PARAMETER);
+			if(formattedParameter != null) {
+				return Boolean.parseBoolean(formattedParameter);
+			}
+		}
+		if(annotations != null) {
+			for(final Annotation annotation : annotations) {
+				if(annotation instanceof SurfFormatted) {
+					return ((SurfFormatted)annotation).value();
+				}
+			}
+		}
+		if(type != null) {
+			final SurfFormatted formattedAnnotation = type.getAnnotation(SurfFormatted.class);
+			if(formattedAnnotation != null) {
+				return formattedAnnotation.value();
+			}
+		}
+		if(providers != null) {
+			final ContextResolver<SurfOutputFormat> outputFormatResolver = providers.getContextResolver(SurfOutputFormat.class, mediaType);
+			if(outputFormatResolver != null) {
+				return outputFormatResolver.getContext(type) == SurfOutputFormat.FORMATTED;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The size cannot be known without serializing the entity, so this implementation always returns <code>-1</code>. Instead the <code>Content-Length</code>
+	 * header of small entities is set in
+	 * {@link #writeTo(Object, Class, Type, Annotation[], MediaType, MultivaluedMap, OutputStream)}; see {@link #getContentLengthThreshold()}.
+	 * </p>
+	 */
 	@Override
 	public long getSize(Object t, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
 		return -1;
@@ -100,114 +450,401 @@ public boolean isWriteable(final Class<?> type, final Type genericType, final An
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If a {@link SurfRepresentationCache} has been configured and the entity is {@link #isCacheable(Class, Annotation[]) cacheable}, the representation is
+	 * written from the cache, serializing and caching it first if needed, along with its <code>Content-Length</code> and <code>ETag</code> headers.
+	 * </p>
+	 * <p>
+	 * A {@link RawSurf} entity is written as-is along with its <code>Content-Length</code> header, without being parsed or reserialized.
+	 * </p>
+	 * <p>
+	 * A {@link SurfDocumentSequence} entity is written as a sequence of documents, each on its own line, as it produces them.
+	 * </p>
+	 * @throws WebApplicationException with the status {@link Response.Status#INTERNAL_SERVER_ERROR} if the entity exceeds the maximum depth, element count or
+	 *           byte count.
+	 * @see #setMaxDepth(int)
+	 * @see #setMaxElementCount(long)
+	 * @see #setMaxByteCount(long)
+	 */
 	@Override
 	public void writeTo(@Nonnull final Object objectToWrite, final Class<?> clazz, final Type type, final Annotation[] annotations, final MediaType mediaType,
 			final MultivaluedMap<String, Object> valueMap, final OutputStream out) throws IOException, WebApplicationException {
 		Objects.requireNonNull(objectToWrite, "The object to write should not be <null>.");
 
-		final SurfSerializer serializer = new SurfSerializer();
-		serializer.setFormatted(true);
-
-		try {
+		if(objectToWrite instanceof SurfDocumentSequence) {
+			try (final SurfDocumentSequenceWriter sequenceWriter = openDocumentSequence(out)) {
+				((SurfDocumentSequence)objectToWrite).writeTo(sequenceWriter);
+			}
+			return;
+		}
 
-			final Object surfRepresentation = transformObject(objectToWrite);
+		if(objectToWrite instanceof RawSurf) {
+			writeRaw((RawSurf)objectToWrite, valueMap, out);
+			return;
+		}
 
-			if(out instanceof Appendable) {
-				serializer.serialize((Appendable)out, surfRepresentation); //this is needed because when an `Appendable` and `OutputStream` is provided, SURF doesn't know what method to call.
-			} else {
-				serializer.serialize(out, surfRepresentation);
+		final Optional<SurfRepresentation> foundRepresentation = findRepresentation(objectToWrite, clazz, annotations, mediaType);
+		if(foundRepresentation.isPresent()) {
+			final SurfRepresentation representation = foundRepresentation.get();
+			if(valueMap != null) {
+				valueMap.putSingle(HttpHeaders.CONTENT_LENGTH, representation.getLength());
+				valueMap.putSingle(HttpHeaders.ETAG, representation.getEntityTag());
 			}
-
-		} catch(IllegalAccessException | InvocationTargetException e) {
-			throw new IllegalStateException("The object provided could not be converted into a SURF Object.", e);
+			representation.writeTo(out);
+			out.flush();
+			return;
 		}
 
+		final Class<?> entityType = clazz != null ? clazz : objectToWrite.getClass();
+		serialize(objectToWrite, isFormatted(entityType, annotations, mediaType), getProjection(entityType, annotations), valueMap, out);
 	}
 
 	/**
-	 * Helper method used to convert a general object provided in an object supported by {@link SurfSerializer}.
-	 * 
-	 * @param obj The object to be converted.
-	 * @return The object converted into
-	 * @throws InvocationTargetException if some underlying method of a class being inspected throws an exception.
-	 * @throws IllegalAccessException If the object being inspected is enforcing Java language access control some underlying method is inaccessible.
+	 * Opens a writer for writing a sequence of entities to an output stream, each as a separate SURF document on its own line. This is how a
+	 * {@link SurfDocumentSequence} entity is written, and may also be used directly, e.g. from a {@link StreamingOutput}. The writer must be closed when the
+	 * sequence is complete; the output stream itself is not closed.
+	 * @param out The stream to which to write the documents.
+	 * @return A new writer of a document sequence.
 	 */
-	private <P> Object transformObject(@Nonnull final P obj) throws IllegalAccessException, InvocationTargetException {
+	public SurfDocumentSequenceWriter openDocumentSequence(@Nonnull final OutputStream out) {
+		return new SurfDocumentSequenceWriter(this, encodingWriters, out);
+	}
 
-		if(obj == null) { //if the object is null we simply return it. The root object must not be null and it might be verified before the first call for this method.
-			return null;
+	/**
+	 * Writes an already serialized entity.
+	 * @param rawSurf The serialized entity.
+	 * @param httpHeaders The response headers, which must still be mutable, or <code>null</code> if the content length should not be reported.
+	 * @param out The stream to which to write the representation.
+	 * @throws WebApplicationException if the entity exceeds the maximum byte count.
+	 * @throws IOException if there was an error reading the entity or writing the representation.
+	 */
+	private void writeRaw(@Nonnull final RawSurf rawSurf, @Nullable final MultivaluedMap<String, Object> httpHeaders, @Nonnull final OutputStream out)
+			throws IOException {
+		final SurfWriterInstrumentation instrumentation = this.instrumentation;
+		final boolean instrumented = instrumentation != SurfWriterInstrumentation.NONE;
+		final long startNanos = instrumented ? System.nanoTime() : 0;
+		try {
+			if(rawSurf.getLength() > maxByteCount) {
+				throw new SurfLimitExceededException(String.format("SURF entity exceeds the maximum of %d bytes.", maxByteCount));
+			}
+			if(httpHeaders != null) {
+				httpHeaders.putSingle(HttpHeaders.CONTENT_LENGTH, rawSurf.getLength());
+			}
+			rawSurf.writeTo(out);
+			out.flush();
+		} catch(final SurfLimitExceededException limitExceededException) {
+			if(instrumented) {
+				instrumentation.recordFailure(rawSurf.getClass(), limitExceededException);
+			}
+			throw new WebApplicationException(limitExceededException.getMessage(), limitExceededException, Response.Status.INTERNAL_SERVER_ERROR);
+		} catch(final IOException | RuntimeException | Error throwable) {
+			if(instrumented) {
+				instrumentation.recordFailure(rawSurf.getClass(), throwable);
+			}
+			throw throwable;
 		}
+		if(instrumented) {
+			instrumentation.recordWrite(RawSurf.class, 0, System.nanoTime() - startNanos, rawSurf.getLength(), 0, 0);
+		}
+	}
 
-		if(obj instanceof List) { //if the provided method is a list, we just convert the values that needs to be converted, i.e., the values that are not natively supported by SURF.
-			final List<?> providedList = (List<?>)obj;
-			final List<Object> newList = new LinkedList<>();
-
-			for(final Object value : providedList) {
-				newList.add(transformObject(value));
+	/**
+	 * Serializes an entity.
+	 * @param objectToWrite The entity to serialize.
+	 * @param formatted Whether the representation should be formatted.
+	 * @param projection The selection of bean properties to write.
+	 * @param httpHeaders The response headers, which must still be mutable, or <code>null</code> if the content length should not be reported.
+	 * @param out The stream to which to write the representation.
+	 * @throws WebApplicationException if the entity exceeds the maximum depth, element count or byte count.
+	 * @throws IOException if there was an error writing the representation.
+	 */
+	private void serialize(@Nonnull final Object objectToWrite, final boolean formatted, @Nonnull final SurfProjection projection,
+			@Nullable final MultivaluedMap<String, Object> httpHeaders, @Nonnull final OutputStream out) throws IOException {
+		final SurfBeanSerializer serializer = new SurfBeanSerializer(this);
+		serializer.setFormatted(formatted);
+		serializer.setProjection(projection);
+		serializer.setMaxDepth(maxDepth);
+		serializer.setMaxElementCount(maxElementCount);
+		serializer.setParallelSerialization(parallelSerialization);
+
+		final SurfWriterInstrumentation instrumentation = this.instrumentation;
+		final boolean instrumented = instrumentation != SurfWriterInstrumentation.NONE;
+		final EncodingWriter writer = encodingWriters.acquire();
+		try {
+			//hold back small entities so that their length can be reported
+			final ContentLengthOutputStream contentLengthOutputStream = contentLengthThreshold > 0 && httpHeaders != null
+					? new ContentLengthOutputStream(out, writer.getContentLengthBuffer(), httpHeaders) : null;
+			writer.attach(contentLengthOutputStream != null ? contentLengthOutputStream : out);
+			writer.setMaxByteCount(maxByteCount);
+			if(instrumented) {
+				final long startNanos = System.nanoTime();
+				serializer.discoverDocument(objectToWrite);
+				final long discoveredNanos = System.nanoTime();
+				serializer.serialize(writer, objectToWrite);
+				writer.finish();
+				if(contentLengthOutputStream != null) {
+					contentLengthOutputStream.finish();
+				}
+				instrumentation.recordWrite(objectToWrite.getClass(), discoveredNanos - startNanos, System.nanoTime() - discoveredNanos, writer.getByteCount(),
+						serializer.getObjectCount(), serializer.getPropertyCount());
+			} else {
+				serializer.serializeDocument(writer, objectToWrite);
+				writer.finish();
+				if(contentLengthOutputStream != null) {
+					contentLengthOutputStream.finish();
+				}
 			}
-
-			return newList;
+		} catch(final SurfLimitExceededException limitExceededException) {
+			if(instrumented) {
+				instrumentation.recordFailure(objectToWrite.getClass(), limitExceededException);
+			}
+			throw new WebApplicationException(limitExceededException.getMessage(), limitExceededException, Response.Status.INTERNAL_SERVER_ERROR);
+		} catch(final IOException | RuntimeException | Error throwable) {
+			if(instrumented) {
+				instrumentation.recordFailure(objectToWrite.getClass(), throwable);
+			}
+			throw throwable;
+		} finally {
+			encodingWriters.release(writer);
 		}
+	}
 
-		if(obj instanceof Set) { //if the provided method is a set, we just convert the values that needs to be converted, i.e., the values that are not natively supported by SURF.
-			final Set<?> providedSet = (Set<?>)obj;
-			final Set<Object> newSet = new HashSet<>();
+	private volatile SurfParallelSerialization parallelSerialization = null;
 
-			for(final Object value : providedSet) {
-				newSet.add(transformObject(value));
-			}
+	/** @return The configuration for serializing large lists in parallel, if enabled. */
+	public Optional<SurfParallelSerialization> getParallelSerialization() {
+		return Optional.ofNullable(parallelSerialization);
+	}
 
-			return newSet;
-		}
+	/**
+	 * Sets the configuration for serializing the elements of large lists in parallel, which reduces the latency of writing large entities when processors are
+	 * idle. By default lists are serialized sequentially on the writing thread.
+	 * @param parallelSerialization The configuration for parallel serialization, or <code>null</code> if lists should always be serialized sequentially.
+	 */
+	public void setParallelSerialization(@Nullable final SurfParallelSerialization parallelSerialization) {
+		this.parallelSerialization = parallelSerialization;
+	}
 
-		if(obj instanceof Map) { //if the provided method is a map, we just convert the children name-value pairs that needs to be converted, i.e., the values that are not natively supported by SURF.
-			final Map<?, ?> providedMap = (Map<?, ?>)obj;
-			final Map<Object, Object> newMap = new HashMap<>();
+	private volatile SurfRepresentationCache representationCache = null;
 
-			for(final Entry<?, ?> entry : providedMap.entrySet()) {
-				newMap.put(entry.getKey(), transformObject(entry.getValue()));
-			}
+	/** @return The cache of the representations of cacheable entities, if representations are cached. */
+	public Optional<SurfRepresentationCache> getRepresentationCache() {
+		return Optional.ofNullable(representationCache);
+	}
 
-			return newMap;
+	/**
+	 * Sets the cache of the representations of cacheable entities. By default no representations are cached.
+	 * @param representationCache The cache of representations, or <code>null</code> if representations should not be cached.
+	 * @see #isCacheable(Class, Annotation[])
+	 */
+	public void setRepresentationCache(@Nullable final SurfRepresentationCache representationCache) {
+		this.representationCache = representationCache;
+	}
+
+	/**
+	 * Determines whether the representation of an entity may be cached, which is the case if a {@link SurfCacheable} annotation is present on the resource
+	 * method or on the entity class. Streamed entities, which can only be traversed once, are never cached; nor are entities for which a selection of properties
+	 * has been requested, as the variety of selections is unbounded.
+	 * @param type The class of entity being written.
+	 * @param annotations The annotations of the resource method and the entity, or <code>null</code> if not known.
+	 * @return <code>true</code> if the representation of the entity may be cached.
+	 * @see #getProjection(Class, Annotation[])
+	 */
+	protected boolean isCacheable(@Nonnull final Class<?> type, @Nullable final Annotation[] annotations) {
+		if(getTypeCategory(type) == SurfTypeCategory.STREAM || !getProjection(type, annotations).isAll()) {
+			return false;
 		}
+		if(annotations != null) {
+			for(final Annotation annotation : annotations) {
+				if(annotation instanceof SurfCacheable) {
+					return true;
+				}
+			}
+		}
+		return type.isAnnotationPresent(SurfCacheable.class);
+	}
 
-		if(isSupported(obj)) { //if SURF can handle with this type of object and it's not one of the data structure listed above, we don't need to convert it to anything else.
-			return obj;
+	/**
+	 * Finds the cached representation of an entity, serializing and caching the entity if it has not yet been cached. This allows the entity tag of a
+	 * representation to be determined before it is written, e.g. for evaluating request preconditions.
+	 * @param entity The entity to be written.
+	 * @param type The class of entity being written, or <code>null</code> if not known.
+	 * @param annotations The annotations of the resource method and the entity, or <code>null</code> if not known.
+	 * @param mediaType The media type of the representation, or <code>null</code> if not known.
+	 * @return The representation of the entity, which will be empty if no representation cache has been configured or if the entity is not cacheable.
+	 * @throws WebApplicationException if the entity exceeds the maximum depth, element count or byte count.
+	 * @throws IOException if there was an error serializing the entity.
+	 * @see #setRepresentationCache(SurfRepresentationCache)
+	 * @see #isCacheable(Class, Annotation[])
+	 */
+	public Optional<SurfRepresentation> findRepresentation(@Nonnull final Object entity, @Nullable final Class<?> type, @Nullable final Annotation[] annotations,
+			@Nullable final MediaType mediaType) throws IOException {
+		final SurfRepresentationCache representationCache = this.representationCache;
+		final Class<?> entityType = type != null ? type : entity.getClass();
+		if(representationCache == null || !isCacheable(entityType, annotations)) {
+			return Optional.empty();
 		}
+		final boolean formatted = isFormatted(entityType, annotations, mediaType);
+		final Optional<SurfRepresentation> cachedRepresentation = representationCache.find(entity, formatted);
+		if(cachedRepresentation.isPresent()) {
+			return cachedRepresentation;
+		}
+		final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		serialize(entity, formatted, SurfProjection.ALL, null, byteArrayOutputStream);
+		final SurfRepresentation representation = new SurfRepresentation(byteArrayOutputStream.toByteArray());
+		representationCache.put(entity, formatted, representation);
+		return Optional.of(representation);
+	}
+
+	/**
+	 * Registers a converter for instances of the given type, which will be serialized as the value the converter returns. The converter applies to subtypes as
+	 * well, and takes precedence over any other handling of the type; if several registered converters apply to a type, the first one registered is used.
+	 * <p>
+	 * Converters should be registered before the writer is used, as registering a converter discards the types already categorized.
+	 * </p>
+	 * @param <T> The type of object to convert.
+	 * @param type The class of object to convert.
+	 * @param converter The converter, which must not return <code>null</code>.
+	 */
+	public <T> void registerConverter(@Nonnull final Class<T> type, @Nonnull final Function<? super T, ?> converter) {
+		requireNonNull(converter);
+		converters.add(new AbstractMap.SimpleImmutableEntry<>(requireNonNull(type), object -> converter.apply(type.cast(object))));
+		typeCategories = new TypeCategories(); //start over, as types may now be categorized differently
+		typeConverters = new TypeConverters();
+	}
 
-		@SuppressWarnings("unchecked")
-		final Introspection<P> introspection = (Introspection<P>)Introspection.of(obj.getClass());
-		final Collection<Property<P, ?>> properties = introspection.getProperties();
+	/** The registered converters, in registration order, keyed to the types they convert. */
+	private final List<Map.Entry<Class<?>, Function<Object, ?>>> converters = new CopyOnWriteArrayList<>();
 
-		final SurfObject newSurfObject = new SurfObject(introspection.getObjectType().getErasedType().getSimpleName());
+	/**
+	 * Converts an object of a {@link SurfTypeCategory#CUSTOM} type using the first converter registered for its type, which is found only once per type.
+	 * @param object The object to convert.
+	 * @return The converted object.
+	 * @throws IllegalArgumentException if no converter has been registered for the type of object.
+	 * @throws NullPointerException if the converter returned <code>null</code>.
+	 */
+	Object convert(@Nonnull final Object object) {
+		return requireNonNull(typeConverters.get(object.getClass()).apply(object), "Converted object must not be <null>.");
+	}
 
-		for(final Property<P, ?> property : properties) {
+	/** The converter of types for which no converter has been registered, which rejects all objects. */
+	private static final Function<Object, ?> NO_CONVERTER = object -> {
+		throw new IllegalArgumentException(String.format("No converter registered for %s.", object.getClass().getName()));
+	};
 
-			if(property.getValue(obj) != null) {
-				newSurfObject.setPropertyValue(property.getName(), transformObject(property.getValue(obj)));
-			}
+	/** The first converter registered for each type, or {@link #NO_CONVERTER} if there is none, determined once per type. */
+	private volatile ClassValue<Function<Object, ?>> typeConverters = new TypeConverters();
+
+	/** Lazily finds the converter of each type using {@link SurfMessageBodyWriter#findConverter(Class)}. */
+	private class TypeConverters extends ClassValue<Function<Object, ?>> {
+		@Override
+		protected Function<Object, ?> computeValue(final Class<?> type) {
+			return findConverter(type).orElse(NO_CONVERTER);
+		}
+	}
 
+	/**
+	 * Finds the first converter registered for the given type.
+	 * @param type The type of object to convert.
+	 * @return The converter for the type, if any.
+	 */
+	private Optional<Function<Object, ?>> findConverter(@Nonnull final Class<?> type) {
+		return converters.stream().filter(entry -> entry.getKey().isAssignableFrom(type)).<Function<Object, ?>>map(Map.Entry::getValue).findFirst();
+	}
+
+	/** The serialized SURF strings of the names of the constants of each enum class, indexed by ordinal. */
+	private final ClassValue<String[]> serializedEnumNames = new ClassValue<String[]>() {
+		@Override
+		protected String[] computeValue(final Class<?> enumClass) {
+			final Object[] constants = enumClass.getEnumConstants();
+			final String[] serializedNames = new String[constants.length];
+			for(final Object constant : constants) {
+				final StringBuilder stringBuilder = new StringBuilder();
+				try {
+					SurfSerializer.serializeString(stringBuilder, ((Enum<?>)constant).name());
+				} catch(final IOException ioException) {
+					throw new AssertionError(ioException); //string builders do not throw I/O exceptions
+				}
+				serializedNames[((Enum<?>)constant).ordinal()] = stringBuilder.toString();
+			}
+			return serializedNames;
 		}
+	};
 
-		final SurfSerializer serializer = new SurfSerializer();
-		serializer.setFormatted(true);
+	/**
+	 * Returns the name of an enum constant serialized as a SURF string. The serialized names of the constants of each enum class are determined only once.
+	 * @param constant The enum constant.
+	 * @return The name of the constant, serialized as a SURF string.
+	 */
+	String getSerializedEnumName(@Nonnull final Enum<?> constant) {
+		return serializedEnumNames.get(constant.getDeclaringClass())[constant.ordinal()];
+	}
+
+	/** The category of each type, determined once per type. */
+	private volatile ClassValue<SurfTypeCategory> typeCategories = new TypeCategories();
+
+	/** Lazily categorizes each type using {@link SurfMessageBodyWriter#categorizeType(Class)}. */
+	private class TypeCategories extends ClassValue<SurfTypeCategory> {
+		@Override
+		protected SurfTypeCategory computeValue(final Class<?> type) {
+			return categorizeType(type);
+		}
+	}
 
-		return newSurfObject;
+	/**
+	 * Returns the category of the given type, indicating how its instances are serialized. The category of each type is determined only once, so this method
+	 * may be called for every value serialized.
+	 * @param type The type to categorize.
+	 * @return The category of the type.
+	 */
+	public SurfTypeCategory getTypeCategory(@Nonnull final Class<?> type) {
+		return typeCategories.get(type);
 	}
 
 	/**
-	 * Returns whether a {@link SurfObject} offers support for the provided object as a property.
+	 * Determines the category of the given type.
 	 * <p>
-	 * This method must be updated <strong>every time that SURF gets support to a new type of property</strong>.
+	 * This method is called at most once per type, and may be overridden to customize how types are serialized. The version in this class must be updated
+	 * <strong>every time that SURF gets support to a new type of property</strong>.
 	 * </p>
-	 * 
-	 * @param obj The object to be verified.
-	 * @return {@code true} whether the object is supported, {@code false} if not.
+	 * @param type The type to categorize.
+	 * @return The category of the type.
 	 */
-	private boolean isSupported(@Nonnull final Object obj) {
-		requireNonNull(obj, "The object provided must not be <null>.");
+	protected SurfTypeCategory categorizeType(@Nonnull final Class<?> type) {
+		requireNonNull(type, "The type provided must not be <null>.");
+
+		if(findConverter(type).isPresent()) {
+			return SurfTypeCategory.CUSTOM;
+		}
+		if(List.class.isAssignableFrom(type)) {
+			return SurfTypeCategory.LIST;
+		}
+		if(Set.class.isAssignableFrom(type)) {
+			return SurfTypeCategory.SET;
+		}
+		if(Map.class.isAssignableFrom(type)) {
+			return SurfTypeCategory.MAP;
+		}
+		if(Collection.class.isAssignableFrom(type)) { //other collections, such as queues and map values, are sequences as well
+			return SurfTypeCategory.LIST;
+		}
+		if(RawSurf.class.isAssignableFrom(type)) {
+			return SurfTypeCategory.RAW;
+		}
+		if(BaseStream.class.isAssignableFrom(type) || Iterator.class.isAssignableFrom(type)
+				|| (Iterable.class.isAssignableFrom(type) && !Collection.class.isAssignableFrom(type))) {
+			return SurfTypeCategory.STREAM;
+		}
+		if(type.isArray() && type != byte[].class) { //byte arrays are binary
+			return SurfTypeCategory.ARRAY;
+		}
+		if(Enum.class.isAssignableFrom(type) && type != Enum.class) { //includes the classes of constants with bodies
+			return SurfTypeCategory.ENUM;
+		}
 
-		switch(obj.getClass().getName()) {
+		switch(type.getName()) {
 			case BYTE_ARRAY_CLASS_NAME:
 			case BOOLEAN_CLASS_NAME:
 			case CHARACTER_CLASS_NAME:
@@ -239,36 +876,22 @@ private boolean isSupported(@Nonnull final Object obj) {
 			case YEAR_MONTH_CLASS_NAME:
 			case ZONED_DATE_TIME_CLASS_NAME:
 			case UUID_CLASS_NAME:
-			case ARRAY_LIST_CLASS_NAME:
-			case LINKED_LIST_CLASS_NAME:
-			case HASH_MAP_CLASS_NAME:
-			case LINKED_HASH_MAP_CLASS_NAME:
-			case TREE_MAP_CLASS_NAME:
-			case HASH_SET_CLASS_NAME:
-			case LINKED_HASH_SET_CLASS_NAME:
-			case TREE_SET_CLASS_NAME:
-				return true;
+				return SurfTypeCategory.NATIVE;
 			default:
-				if(obj instanceof SurfObject) { //objects
-					return true;
-				} else if(obj instanceof List) { //list
-					return true;
-				} else if(obj instanceof Map) { //map
-					return true;
-				} else if(obj instanceof Set) { //set
-					return true;
-				} else if(obj instanceof ByteBuffer) { //binary
-					return true;
-				} else if(obj instanceof Number) { //number
-					return true;
-				} else if(obj instanceof CharSequence) { //string
-					return true;
-				} else if(obj instanceof TelephoneNumber) { //telephone number
-					return true;
-				} else if(obj instanceof Date) { //temporal
-					return true;
+				if(SurfObject.class.isAssignableFrom(type)) { //objects
+					return SurfTypeCategory.NATIVE;
+				} else if(ByteBuffer.class.isAssignableFrom(type)) { //binary
+					return SurfTypeCategory.NATIVE;
+				} else if(Number.class.isAssignableFrom(type)) { //number
+					return SurfTypeCategory.NATIVE;
+				} else if(CharSequence.class.isAssignableFrom(type)) { //string
+					return SurfTypeCategory.NATIVE;
+				} else if(TelephoneNumber.class.isAssignableFrom(type)) { //telephone number
+					return SurfTypeCategory.NATIVE;
+				} else if(Date.class.isAssignableFrom(type)) { //temporal
+					return SurfTypeCategory.NATIVE;
 				} else {
-					return false;
+					return SurfTypeCategory.BEAN;
 				}
 		}
 
@@ -0,0 +1,34 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+/**
+ * The layout of SURF representations written by {@link SurfMessageBodyWriter}.
+ * <p>
+ * An application may configure the layout for all entities, or per entity type, by registering a {@link javax.ws.rs.ext.ContextResolver} of this type.
+ * </p>
+ * @author Garret Wilson
+ */
+public enum SurfOutputFormat {
+
+	/** SURF without line breaks or indentation, for the smallest representation. */
+	COMPACT,
+
+	/** SURF with line breaks and indentation, for human readers. */
+	FORMATTED;
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static com.globalmentor.java.Conditions.*;
+import static java.util.Objects.*;
+
+import java.util.concurrent.*;
+
+import javax.annotation.*;
+
+/**
+ * The configuration for serializing the elements of large lists in parallel. A list with at least a minimum number of elements is split into chunks of
+ * consecutive elements, which are serialized concurrently by an executor and written in their original order, so that the output is identical to that of
+ * serializing the list sequentially.
+ * <p>
+ * Only a limited number of chunks of any single list are submitted to the executor at once, so that a single large entity cannot monopolize the executor,
+ * and so that the serialized chunks held in memory are bounded. An executor that rejects a chunk causes the chunk to be serialized on the writing thread.
+ * </p>
+ * <p>
+ * The lists of an entity in which any resource is referenced more than once, whether a bean or a compound resource such as a {@link io.urf.surf.SurfObject},
+ * are always serialized sequentially, as shared resources must be labeled in document order.
+ * </p>
+ * <p>
+ * This class is immutable.
+ * </p>
+ * @author Garret Wilson
+ * @see SurfMessageBodyWriter#setParallelSerialization(SurfParallelSerialization)
+ */
+public final class SurfParallelSerialization {
+
+	/** The default minimum number of elements of a list serialized in parallel. */
+	public static final int DEFAULT_MIN_LIST_SIZE = 4096;
+
+	/** The default number of consecutive elements serialized by each task. */
+	public static final int DEFAULT_CHUNK_SIZE = 512;
+
+	private final Executor executor;
+
+	/** @return The executor serializing the chunks of lists. */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	private final int minListSize;
+
+	/** @return The minimum number of elements of a list serialized in parallel. */
+	public int getMinListSize() {
+		return minListSize;
+	}
+
+	private final int chunkSize;
+
+	/** @return The number of consecutive elements serialized by each task. */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	private final int maxConcurrentChunkCount;
+
+	/** @return The maximum number of chunks of a single list being serialized or waiting to be written at once. */
+	public int getMaxConcurrentChunkCount() {
+		return maxConcurrentChunkCount;
+	}
+
+	/**
+	 * Executor constructor, serializing lists of at least {@value #DEFAULT_MIN_LIST_SIZE} elements in chunks of {@value #DEFAULT_CHUNK_SIZE} elements, with up
+	 * to as many chunks of a list at once as there are available processors.
+	 * @param executor The executor serializing the chunks of lists, such as {@link ForkJoinPool#commonPool()} or a dedicated bounded pool.
+	 */
+	public SurfParallelSerialization(@Nonnull final Executor executor) {
+		this(executor, DEFAULT_MIN_LIST_SIZE, DEFAULT_CHUNK_SIZE, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor.
+	 * @param executor The executor serializing the chunks of lists, such as {@link ForkJoinPool#commonPool()} or a dedicated bounded pool.
+	 * @param minListSize The minimum number of elements of a list serialized in parallel.
+	 * @param chunkSize The number of consecutive elements serialized by each task.
+	 * @param maxConcurrentChunkCount The maximum number of chunks of a single list being serialized or waiting to be written at once.
+	 * @throws IllegalArgumentException if the given minimum list size, chunk size or maximum concurrent chunk count is not positive.
+	 */
+	public SurfParallelSerialization(@Nonnull final Executor executor, final int minListSize, final int chunkSize, final int maxConcurrentChunkCount) {
+		checkArgument(minListSize > 0, "Minimum list size %d must be positive.", minListSize);
+		checkArgument(chunkSize > 0, "Chunk size %d must be positive.", chunkSize);
+		checkArgument(maxConcurrentChunkCount > 0, "Maximum concurrent chunk count %d must be positive.", maxConcurrentChunkCount);
+		this.executor = requireNonNull(executor);
+		this.minListSize = minListSize;
+		this.chunkSize = chunkSize;
+		this.maxConcurrentChunkCount = maxConcurrentChunkCount;
+	}
+
+}
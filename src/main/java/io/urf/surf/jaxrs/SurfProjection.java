@@ -0,0 +1,304 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static java.util.Collections.*;
+
+import java.util.*;
+
+import javax.annotation.*;
+
+/**
+ * A selection of the bean properties to serialize, possibly including selections of the properties of the beans they refer to. Properties not selected are
+ * neither read nor written.
+ * <p>
+ * A projection is {@link #parse(String) parsed} from a comma-separated list of property names, in which the properties of a nested bean may be selected
+ * either in parentheses or using dotted paths. For example <code>id,name,owner(name,email)</code> and <code>id,name,owner.name,owner.email</code> are
+ * equivalent. Selecting a property without nested selection, as in <code>id,owner</code>, includes all the properties of the beans it refers to. Property
+ * names that do not exist in a bean are ignored. Selections may be nested at most {@value #MAX_DEPTH} levels deep.
+ * </p>
+ * <p>
+ * A projection applies to the beans of the graph being serialized; lists, sets, maps and streams pass the projection to their elements unchanged. Projections
+ * are immutable and may be used as keys.
+ * </p>
+ * @author Garret Wilson
+ * @see SurfFields
+ */
+public final class SurfProjection {
+
+	/** The maximum nesting depth of a parsed selection, with the properties of the root bean at depth <code>1</code>. */
+	public static final int MAX_DEPTH = 64;
+
+	/** The projection including all properties at every level. */
+	public static final SurfProjection ALL = new SurfProjection(null);
+
+	/** The nested projection of each selected property, sorted by property name; or <code>null</code> if all properties are included. */
+	@Nullable
+	private final SortedMap<String, SurfProjection> propertyProjections;
+
+	/** @return <code>true</code> if this projection includes all properties at every level, selecting nothing. */
+	public boolean isAll() {
+		return propertyProjections == null;
+	}
+
+	/**
+	 * Constructor.
+	 * @param propertyProjections The nested projection of each selected property, or <code>null</code> if all properties are included.
+	 */
+	private SurfProjection(@Nullable final SortedMap<String, SurfProjection> propertyProjections) {
+		this.propertyProjections = propertyProjections != null ? unmodifiableSortedMap(propertyProjections) : null;
+	}
+
+	/**
+	 * Determines whether a property is included in this projection.
+	 * @param propertyName The name of the property.
+	 * @return <code>true</code> if the property should be read and serialized.
+	 */
+	public boolean includes(@Nonnull final String propertyName) {
+		return propertyProjections == null || propertyProjections.containsKey(propertyName);
+	}
+
+	/**
+	 * Returns the projection to apply to the value of a property.
+	 * @param propertyName The name of the property.
+	 * @return The nested projection of the property, which is {@link #ALL} if the property includes all nested properties or is not included at all.
+	 */
+	public SurfProjection getPropertyProjection(@Nonnull final String propertyName) {
+		return propertyProjections != null ? propertyProjections.getOrDefault(propertyName, ALL) : ALL;
+	}
+
+	/**
+	 * Parses a projection from a list of property names such as <code>id,owner(name,email)</code> or <code>id,owner.name</code>. Whitespace around names is
+	 * ignored. If a property is selected both with and without nested selection, all its nested properties are included.
+	 * @param fields The property selection.
+	 * @return The projection represented by the selection, which is {@link #ALL} if the selection is empty.
+	 * @throws IllegalArgumentException if the selection is not well-formed, or is nested more than {@value #MAX_DEPTH} levels deep.
+	 */
+	public static SurfProjection parse(@Nonnull final String fields) {
+		if(fields.trim().isEmpty()) {
+			return ALL;
+		}
+		final Parser parser = new Parser(fields);
+		final SortedMap<String, SurfProjection> propertyProjections = parser.parseList();
+		if(!parser.isEnd()) {
+			throw parser.createException();
+		}
+		return new SurfProjection(propertyProjections);
+	}
+
+	/**
+	 * Returns the intersection of this projection with another, selecting only the properties selected by both, with their nested projections intersected in
+	 * turn. As {@link #ALL} places no restriction, the intersection with it is the other projection.
+	 * @param projection The projection with which to intersect this projection.
+	 * @return A projection of the properties selected by both projections, which may select no properties at all.
+	 */
+	public SurfProjection intersect(@Nonnull final SurfProjection projection) {
+		if(projection.isAll()) {
+			return this;
+		}
+		if(isAll()) {
+			return projection;
+		}
+		final SortedMap<String, SurfProjection> intersectedProjections = new TreeMap<>();
+		propertyProjections.forEach((propertyName, nestedProjection) -> {
+			final SurfProjection otherNestedProjection = projection.propertyProjections.get(propertyName);
+			if(otherNestedProjection != null) {
+				intersectedProjections.put(propertyName, nestedProjection.intersect(otherNestedProjection));
+			}
+		});
+		return new SurfProjection(intersectedProjections);
+	}
+
+	/**
+	 * Merges a nested projection of a property into a map of property projections.
+	 * @param propertyProjections The property projections being built.
+	 * @param propertyName The name of the property.
+	 * @param projection The nested projection of the property.
+	 */
+	private static void merge(@Nonnull final SortedMap<String, SurfProjection> propertyProjections, @Nonnull final String propertyName,
+			@Nonnull final SurfProjection projection) {
+		final SurfProjection existingProjection = propertyProjections.get(propertyName);
+		if(existingProjection == null) {
+			propertyProjections.put(propertyName, projection);
+		} else if(existingProjection.isAll() || projection.isAll()) {
+			propertyProjections.put(propertyName, ALL);
+		} else {
+			final SortedMap<String, SurfProjection> mergedProjections = new TreeMap<>(existingProjection.propertyProjections);
+			projection.propertyProjections.forEach((name, nestedProjection) -> merge(mergedProjections, name, nestedProjection));
+			propertyProjections.put(propertyName, new SurfProjection(mergedProjections));
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hashCode(propertyProjections);
+	}
+
+	@Override
+	public boolean equals(final Object object) {
+		if(this == object) {
+			return true;
+		}
+		if(!(object instanceof SurfProjection)) {
+			return false;
+		}
+		return Objects.equals(propertyProjections, ((SurfProjection)object).propertyProjections);
+	}
+
+	/**
+	 * {@inheritDoc} This version returns the projection in the form accepted by {@link #parse(String)}, using parentheses for nested selections. A selection of
+	 * no properties, which only results from an {@link #intersect(SurfProjection) intersection}, has no such form and appears empty.
+	 */
+	@Override
+	public String toString() {
+		if(propertyProjections == null) {
+			return "";
+		}
+		final StringBuilder stringBuilder = new StringBuilder();
+		propertyProjections.forEach((propertyName, projection) -> {
+			if(stringBuilder.length() > 0) {
+				stringBuilder.append(',');
+			}
+			stringBuilder.append(propertyName);
+			if(!projection.isAll()) {
+				stringBuilder.append('(').append(projection).append(')');
+			}
+		});
+		return stringBuilder.toString();
+	}
+
+	/** Parses a property selection, keeping track of the current position. */
+	private static final class Parser {
+
+		private final String fields;
+
+		private int index = 0;
+
+		/** The nesting depth of the list being parsed. */
+		private int depth = 0;
+
+		/**
+		 * Constructor.
+		 * @param fields The property selection.
+		 */
+		public Parser(@Nonnull final String fields) {
+			this.fields = fields;
+		}
+
+		/** @return <code>true</code> if the entire selection has been parsed, ignoring trailing whitespace. */
+		public boolean isEnd() {
+			skipWhitespace();
+			return index == fields.length();
+		}
+
+		/**
+		 * Parses a comma-separated list of property selections.
+		 * @return The nested projection of each property selected in the list.
+		 * @throws IllegalArgumentException if the list is not well-formed, or is nested too deeply.
+		 */
+		public SortedMap<String, SurfProjection> parseList() {
+			enterNesting();
+			final SortedMap<String, SurfProjection> propertyProjections = new TreeMap<>();
+			do {
+				final String propertyName = parseName();
+				merge(propertyProjections, propertyName, parseNestedProjection());
+			} while(consume(','));
+			depth--;
+			return propertyProjections;
+		}
+
+		/**
+		 * Parses the selection following a property name, if any.
+		 * @return The nested projection of the property, which is {@link SurfProjection#ALL} if there is no nested selection.
+		 * @throws IllegalArgumentException if the nested selection is not well-formed, or is nested too deeply.
+		 */
+		private SurfProjection parseNestedProjection() {
+			if(consume('(')) {
+				final SortedMap<String, SurfProjection> propertyProjections = parseList();
+				if(!consume(')')) {
+					throw createException();
+				}
+				return new SurfProjection(propertyProjections);
+			}
+			if(consume('.')) {
+				enterNesting();
+				final SortedMap<String, SurfProjection> propertyProjections = new TreeMap<>();
+				final String propertyName = parseName();
+				propertyProjections.put(propertyName, parseNestedProjection());
+				depth--;
+				return new SurfProjection(propertyProjections);
+			}
+			return ALL;
+		}
+
+		/**
+		 * Increases the nesting depth for a nested selection, so that a deeply nested selection is rejected rather than exhausting the stack.
+		 * @throws IllegalArgumentException if the selection is nested more than {@link SurfProjection#MAX_DEPTH} levels deep.
+		 */
+		private void enterNesting() {
+			if(depth == MAX_DEPTH) {
+				throw new IllegalArgumentException(String.format("Property selection \"%s\" is nested more than %d levels deep at index %d.", fields, MAX_DEPTH, index));
+			}
+			depth++;
+		}
+
+		/**
+		 * Parses a property name.
+		 * @return The property name.
+		 * @throws IllegalArgumentException if no property name is present.
+		 */
+		private String parseName() {
+			skipWhitespace();
+			final int start = index;
+			while(index < fields.length() && Character.isJavaIdentifierPart(fields.charAt(index))) {
+				index++;
+			}
+			if(index == start) {
+				throw createException();
+			}
+			return fields.substring(start, index);
+		}
+
+		/**
+		 * Consumes a delimiter if it is the next character, ignoring preceding whitespace.
+		 * @param delimiter The delimiter to consume.
+		 * @return <code>true</code> if the delimiter was present and consumed.
+		 */
+		private boolean consume(final char delimiter) {
+			skipWhitespace();
+			if(index < fields.length() && fields.charAt(index) == delimiter) {
+				index++;
+				return true;
+			}
+			return false;
+		}
+
+		/** Skips any whitespace at the current position. */
+		private void skipWhitespace() {
+			while(index < fields.length() && Character.isWhitespace(fields.charAt(index))) {
+				index++;
+			}
+		}
+
+		/** @return An exception indicating that the selection is not well-formed at the current position. */
+		public IllegalArgumentException createException() {
+			return new IllegalArgumentException(String.format("Invalid property selection \"%s\" at index %d.", fields, index));
+		}
+
+	}
+
+}
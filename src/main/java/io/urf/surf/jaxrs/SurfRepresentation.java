@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static java.util.Objects.*;
+
+import java.io.*;
+import java.security.*;
+import java.util.Base64;
+
+import javax.annotation.*;
+
+/**
+ * The serialized SURF representation of an entity, along with a strong entity tag identifying its content.
+ * @author Garret Wilson
+ * @see SurfRepresentationCache
+ */
+public final class SurfRepresentation {
+
+	/** The algorithm of the digest from which entity tags are generated. */
+	private static final String ENTITY_TAG_DIGEST_ALGORITHM = "SHA-256";
+
+	private final byte[] bytes;
+
+	/** @return The length of the representation in bytes. */
+	public int getLength() {
+		return bytes.length;
+	}
+
+	private final String entityTag;
+
+	/**
+	 * Returns the strong entity tag of the representation, including its surrounding quotes, suitable for use as the value of an <code>ETag</code> header. The
+	 * tag is derived from the bytes of the representation, so identical representations have identical tags.
+	 * @return The strong entity tag of the representation.
+	 */
+	public String getEntityTag() {
+		return entityTag;
+	}
+
+	/**
+	 * Constructor. The bytes are not copied, and must not be modified by the caller afterwards.
+	 * @param bytes The bytes of the serialized representation.
+	 */
+	SurfRepresentation(@Nonnull final byte[] bytes) {
+		this.bytes = requireNonNull(bytes);
+		final MessageDigest messageDigest;
+		try {
+			messageDigest = MessageDigest.getInstance(ENTITY_TAG_DIGEST_ALGORITHM);
+		} catch(final NoSuchAlgorithmException noSuchAlgorithmException) {
+			throw new IllegalStateException(noSuchAlgorithmException); //every Java platform is required to support SHA-256
+		}
+		this.entityTag = '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(messageDigest.digest(bytes)) + '"';
+	}
+
+	/**
+	 * Writes the representation.
+	 * @param outputStream The stream to which to write the representation.
+	 * @throws IOException if there was an error writing the representation.
+	 */
+	public void writeTo(@Nonnull final OutputStream outputStream) throws IOException {
+		outputStream.write(bytes);
+	}
+
+}
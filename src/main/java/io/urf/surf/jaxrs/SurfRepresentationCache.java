@@ -0,0 +1,211 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static com.globalmentor.java.Conditions.*;
+import static java.util.Objects.*;
+
+import java.lang.ref.*;
+import java.util.*;
+
+import javax.annotation.*;
+
+/**
+ * A cache of the serialized SURF representations of entities, holding representations up to a maximum total number of bytes and evicting the least recently
+ * used representations to make room for new ones. Representations are cached by the identity of the entity and by whether they are formatted, so cached
+ * entities must not be modified; a new version of an entity should be a new instance, or its old representations should be {@link #remove(Object) removed}.
+ * <p>
+ * Entities are referenced weakly, so caching a representation does not keep its entity from being garbage-collected; the representations of a collected
+ * entity are discarded. Each representation is charged {@value #ENTRY_OVERHEAD_BYTE_COUNT} bytes beyond its length against the maximum, as an estimate of
+ * the memory of its entry. As representations are only found again for the same entity instance, caching is only effective for long-lived entities, such as
+ * singletons or entities held by an application cache; the representations of entities created anew for each request are never reused, and only displace
+ * other representations.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ * @author Garret Wilson
+ * @see SurfMessageBodyWriter#setRepresentationCache(SurfRepresentationCache)
+ */
+public final class SurfRepresentationCache {
+
+	/** The default maximum total number of bytes of the cached representations. */
+	public static final long DEFAULT_MAX_BYTE_COUNT = 16 * 1024 * 1024;
+
+	/** The estimated number of bytes of memory used by the entry of a cached representation, beyond the bytes of the representation itself. */
+	public static final int ENTRY_OVERHEAD_BYTE_COUNT = 256;
+
+	private final long maxByteCount;
+
+	/** @return The maximum total number of bytes of the cached representations. */
+	public long getMaxByteCount() {
+		return maxByteCount;
+	}
+
+	/** The cached representations, in order of least recent access. */
+	private final LinkedHashMap<Key, SurfRepresentation> representations = new LinkedHashMap<>(16, 0.75f, true);
+
+	/** The queue of the keys the entities of which have been garbage-collected. */
+	private final ReferenceQueue<Object> collectedEntityKeys = new ReferenceQueue<>();
+
+	private long byteCount = 0;
+
+	/** @return The total number of bytes charged for the cached representations, including the overhead of their entries. */
+	public synchronized long getByteCount() {
+		expungeCollectedEntities();
+		return byteCount;
+	}
+
+	/** @return The number of cached representations. */
+	public synchronized int getSize() {
+		expungeCollectedEntities();
+		return representations.size();
+	}
+
+	/** Default constructor, caching up to {@value #DEFAULT_MAX_BYTE_COUNT} bytes of representations. */
+	public SurfRepresentationCache() {
+		this(DEFAULT_MAX_BYTE_COUNT);
+	}
+
+	/**
+	 * Maximum byte count constructor.
+	 * @param maxByteCount The maximum total number of bytes of the cached representations.
+	 * @throws IllegalArgumentException if the given maximum byte count is not positive.
+	 */
+	public SurfRepresentationCache(final long maxByteCount) {
+		checkArgument(maxByteCount > 0, "Maximum byte count %d must be positive.", maxByteCount);
+		this.maxByteCount = maxByteCount;
+	}
+
+	/**
+	 * Finds the cached representation of an entity, marking it as recently used.
+	 * @param entity The entity that was serialized.
+	 * @param formatted Whether the representation is formatted.
+	 * @return The cached representation of the entity, if any.
+	 */
+	public synchronized Optional<SurfRepresentation> find(@Nonnull final Object entity, final boolean formatted) {
+		expungeCollectedEntities();
+		return Optional.ofNullable(representations.get(new Key(entity, formatted, null)));
+	}
+
+	/**
+	 * Caches the representation of an entity, evicting the least recently used representations as needed to stay within the maximum byte count. A
+	 * representation which with the overhead of its entry is larger than the maximum byte count is not cached.
+	 * @param entity The entity that was serialized.
+	 * @param formatted Whether the representation is formatted.
+	 * @param representation The representation of the entity.
+	 */
+	public synchronized void put(@Nonnull final Object entity, final boolean formatted, @Nonnull final SurfRepresentation representation) {
+		expungeCollectedEntities();
+		if(getChargedByteCount(representation) > maxByteCount) {
+			return;
+		}
+		final Key key = new Key(entity, formatted, collectedEntityKeys);
+		final SurfRepresentation oldRepresentation = representations.remove(key); //replace the key as well, as the old one is already queued if collected
+		if(oldRepresentation != null) {
+			byteCount -= getChargedByteCount(oldRepresentation);
+		}
+		representations.put(key, representation);
+		byteCount += getChargedByteCount(representation);
+		final Iterator<SurfRepresentation> leastRecentlyUsedRepresentations = representations.values().iterator();
+		while(byteCount > maxByteCount) {
+			byteCount -= getChargedByteCount(leastRecentlyUsedRepresentations.next());
+			leastRecentlyUsedRepresentations.remove();
+		}
+	}
+
+	/**
+	 * Removes the cached representations of an entity, whether formatted or not.
+	 * @param entity The entity the representations of which should be removed.
+	 */
+	public synchronized void remove(@Nonnull final Object entity) {
+		expungeCollectedEntities();
+		for(final boolean formatted : new boolean[] {false, true}) {
+			final SurfRepresentation representation = representations.remove(new Key(entity, formatted, null));
+			if(representation != null) {
+				byteCount -= getChargedByteCount(representation);
+			}
+		}
+	}
+
+	/** Removes all cached representations. */
+	public synchronized void clear() {
+		representations.clear();
+		byteCount = 0;
+	}
+
+	/** Discards the representations of entities that have been garbage-collected. */
+	private void expungeCollectedEntities() {
+		Reference<?> collectedEntityKey;
+		while((collectedEntityKey = collectedEntityKeys.poll()) != null) {
+			final SurfRepresentation representation = representations.remove(collectedEntityKey); //a key is only equal to itself once its entity is collected
+			if(representation != null) { //the representation may already have been evicted or removed
+				byteCount -= getChargedByteCount(representation);
+			}
+		}
+	}
+
+	/**
+	 * Determines the number of bytes charged against the maximum for a cached representation.
+	 * @param representation The representation.
+	 * @return The length of the representation plus the estimated overhead of its entry.
+	 */
+	private static long getChargedByteCount(@Nonnull final SurfRepresentation representation) {
+		return (long)representation.getLength() + ENTRY_OVERHEAD_BYTE_COUNT;
+	}
+
+	/** The identity of a cached entity, which is weakly referenced, along with the options with which it was serialized. */
+	private static final class Key extends WeakReference<Object> {
+
+		/** The identity hash code of the entity, kept so that the key can still be found after the entity is collected. */
+		private final int hashCode;
+
+		private final boolean formatted;
+
+		/**
+		 * Constructor.
+		 * @param entity The entity that was serialized.
+		 * @param formatted Whether the representation is formatted.
+		 * @param queue The queue with which the key is registered for when the entity is collected, or <code>null</code> if the key is only used for lookup.
+		 */
+		public Key(@Nonnull final Object entity, final boolean formatted, @Nullable final ReferenceQueue<Object> queue) {
+			super(requireNonNull(entity), queue);
+			this.hashCode = System.identityHashCode(entity) * 31 + Boolean.hashCode(formatted);
+			this.formatted = formatted;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(final Object object) {
+			if(this == object) {
+				return true;
+			}
+			if(!(object instanceof Key)) {
+				return false;
+			}
+			final Key key = (Key)object;
+			final Object entity = get();
+			return entity != null && entity == key.get() && formatted == key.formatted;
+		}
+
+	}
+
+}
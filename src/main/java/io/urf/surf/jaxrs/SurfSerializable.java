@@ -0,0 +1,38 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.*;
+
+import java.lang.annotation.*;
+
+/**
+ * Requests that a {@link SurfGeneratedWriter} be generated at compile time for the annotated bean class by {@link SurfSerializableProcessor}.
+ * {@link SurfMessageBodyWriter} prefers a generated writer to introspecting the bean class, so that beans are serialized without reflection from the first
+ * request.
+ * <p>
+ * The bean class and its enclosing classes must not be private. Every public, non-static getter method taking no arguments is serialized as a property,
+ * including inherited ones.
+ * </p>
+ * @author Garret Wilson
+ */
+@Documented
+@Retention(CLASS)
+@Target(TYPE)
+public @interface SurfSerializable {
+}
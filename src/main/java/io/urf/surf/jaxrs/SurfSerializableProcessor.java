@@ -0,0 +1,197 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import java.io.*;
+import java.util.*;
+
+import javax.annotation.*;
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.*;
+import javax.lang.model.util.*;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a {@link SurfGeneratedWriter} for each bean class annotated with {@link SurfSerializable}.
+ * <p>
+ * The processor is registered as a service, and runs whenever this library is on the annotation processor path of the compiler. Properties are determined
+ * from the public getter methods of the bean class, and are indexed in order of name, as introspection orders them. A checked exception thrown by a getter
+ * is wrapped in an {@link IllegalStateException}, as when properties are read by introspection.
+ * </p>
+ * @author Garret Wilson
+ */
+@SupportedAnnotationTypes("io.urf.surf.jaxrs.SurfSerializable")
+public class SurfSerializableProcessor extends AbstractProcessor {
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnvironment) {
+		for(final TypeElement beanElement : ElementFilter.typesIn(roundEnvironment.getElementsAnnotatedWith(SurfSerializable.class))) {
+			if(!isAccessible(beanElement)) {
+				processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+						String.format("@%s class %s and its enclosing classes must not be private.", SurfSerializable.class.getSimpleName(), beanElement), beanElement);
+				continue;
+			}
+			try {
+				generateWriter(beanElement);
+			} catch(final IOException ioException) {
+				processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+						String.format("Unable to generate SURF writer for %s: %s", beanElement, ioException.getMessage()), beanElement);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Determines whether a bean class can be accessed from a generated writer in its package.
+	 * @param beanElement The bean class.
+	 * @return <code>true</code> if the class is a class, and neither it nor any class enclosing it is private.
+	 */
+	private static boolean isAccessible(@Nonnull final TypeElement beanElement) {
+		if(beanElement.getKind() != ElementKind.CLASS) {
+			return false;
+		}
+		for(Element element = beanElement; element instanceof TypeElement; element = element.getEnclosingElement()) {
+			if(element.getModifiers().contains(Modifier.PRIVATE)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Determines the getter methods of the properties of a bean class, including inherited ones.
+	 * @param beanElement The bean class.
+	 * @return The getter methods keyed to property names, sorted by property name.
+	 */
+	private SortedMap<String, ExecutableElement> getPropertyGetters(@Nonnull final TypeElement beanElement) {
+		final SortedMap<String, ExecutableElement> propertyGetters = new TreeMap<>();
+		for(final ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(beanElement))) {
+			final Set<Modifier> modifiers = method.getModifiers();
+			if(!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC) || !method.getParameters().isEmpty()
+					|| method.getReturnType().getKind() == TypeKind.VOID
+					|| ((TypeElement)method.getEnclosingElement()).getQualifiedName().contentEquals(Object.class.getName())) {
+				continue;
+			}
+			final String methodName = method.getSimpleName().toString();
+			final String prefix;
+			if(methodName.startsWith(BeanAccessors.GET_PREFIX)) {
+				prefix = BeanAccessors.GET_PREFIX;
+			} else if(methodName.startsWith(BeanAccessors.IS_PREFIX) && method.getReturnType().getKind() == TypeKind.BOOLEAN) {
+				prefix = BeanAccessors.IS_PREFIX;
+			} else {
+				continue;
+			}
+			if(methodName.length() == prefix.length()) {
+				continue;
+			}
+			final String propertyName = decapitalize(methodName.substring(prefix.length()));
+			final ExecutableElement existingGetter = propertyGetters.get(propertyName);
+			if(existingGetter == null || prefix.equals(BeanAccessors.IS_PREFIX)) { //as with introspection, an "is" getter takes precedence
+				propertyGetters.put(propertyName, method);
+			}
+		}
+		return propertyGetters;
+	}
+
+	/**
+	 * Determines a property name from the part of its getter method name following the prefix, following the JavaBeans conventions: the first letter is
+	 * lowercased, unless the first two letters are both uppercase, as in <code>URL</code>.
+	 * @param name The capitalized name.
+	 * @return The property name.
+	 */
+	static String decapitalize(@Nonnull final String name) {
+		if(name.length() > 1 && Character.isUpperCase(name.charAt(0)) && Character.isUpperCase(name.charAt(1))) {
+			return name;
+		}
+		return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+	}
+
+	/**
+	 * Determines whether a method declares that it throws a checked exception, which a generated writer must catch.
+	 * @param method The method.
+	 * @return <code>true</code> if any of the exceptions the method throws is neither a {@link RuntimeException} nor an {@link Error}.
+	 */
+	private boolean throwsCheckedException(@Nonnull final ExecutableElement method) {
+		final Elements elements = processingEnv.getElementUtils();
+		final Types types = processingEnv.getTypeUtils();
+		final TypeMirror runtimeExceptionType = elements.getTypeElement(RuntimeException.class.getName()).asType();
+		final TypeMirror errorType = elements.getTypeElement(Error.class.getName()).asType();
+		for(final TypeMirror thrownType : method.getThrownTypes()) {
+			if(!types.isSubtype(thrownType, runtimeExceptionType) && !types.isSubtype(thrownType, errorType)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Generates the source code of the writer of a bean class.
+	 * @param beanElement The bean class.
+	 * @throws IOException if there was an error writing the source file.
+	 */
+	private void generateWriter(@Nonnull final TypeElement beanElement) throws IOException {
+		final String beanClassName = beanElement.getQualifiedName().toString();
+		final String writerClassBinaryName = SurfGeneratedWriter.getClassName(processingEnv.getElementUtils().getBinaryName(beanElement).toString());
+		final int packageEnd = writerClassBinaryName.lastIndexOf('.');
+		final String writerClassSimpleName = writerClassBinaryName.substring(packageEnd + 1);
+		final boolean generic = !beanElement.getTypeParameters().isEmpty();
+		final SortedMap<String, ExecutableElement> propertyGetters = getPropertyGetters(beanElement);
+
+		try (final PrintWriter writer = new PrintWriter(processingEnv.getFiler().createSourceFile(writerClassBinaryName, beanElement).openWriter())) {
+			if(packageEnd >= 0) {
+				writer.printf("package %s;%n%n", writerClassBinaryName.substring(0, packageEnd));
+			}
+			writer.printf("/** Reads the properties of {@link %s} for SURF serialization. Generated by {@link %s}. */%n", beanClassName,
+					SurfSerializableProcessor.class.getName());
+			if(generic) {
+				writer.printf("@SuppressWarnings(\"rawtypes\")%n");
+			}
+			writer.printf("public final class %s implements %s<%s> {%n%n", writerClassSimpleName, SurfGeneratedWriter.class.getName(), beanClassName);
+			writer.printf("\tprivate static final java.util.List<String> PROPERTY_NAMES = java.util.Collections.unmodifiableList(java.util.Arrays.asList(");
+			writer.printf("%s));%n%n", String.join(", ", propertyGetters.keySet().stream().map(name -> '"' + name + '"').toArray(String[]::new)));
+			writer.printf("\t@Override%n\tpublic Class<%s> getBeanClass() {%n\t\treturn %s.class;%n\t}%n%n", beanClassName, beanClassName);
+			writer.printf("\t@Override%n\tpublic String getTypeHandle() {%n\t\treturn \"%s\";%n\t}%n%n", beanElement.getSimpleName());
+			writer.printf("\t@Override%n\tpublic java.util.List<String> getPropertyNames() {%n\t\treturn PROPERTY_NAMES;%n\t}%n%n");
+			writer.printf("\t@Override%n\tpublic Object getPropertyValue(final %s bean, final int propertyIndex) {%n", beanClassName);
+			writer.printf("\t\tswitch(propertyIndex) {%n");
+			int propertyIndex = 0;
+			for(final Map.Entry<String, ExecutableElement> propertyGetter : propertyGetters.entrySet()) {
+				final ExecutableElement getter = propertyGetter.getValue();
+				writer.printf("\t\t\tcase %d:%n", propertyIndex++);
+				if(throwsCheckedException(getter)) {
+					writer.printf("\t\t\t\ttry {%n\t\t\t\t\treturn bean.%s();%n", getter.getSimpleName());
+					writer.printf("\t\t\t\t} catch(final RuntimeException | Error unchecked) {%n\t\t\t\t\tthrow unchecked;%n");
+					writer.printf("\t\t\t\t} catch(final Throwable throwable) {%n");
+					writer.printf("\t\t\t\t\tthrow new IllegalStateException(\"The property %s of %s could not be read.\", throwable);%n\t\t\t\t}%n",
+							propertyGetter.getKey(), processingEnv.getElementUtils().getBinaryName(beanElement));
+				} else {
+					writer.printf("\t\t\t\treturn bean.%s();%n", getter.getSimpleName());
+				}
+			}
+			writer.printf("\t\t\tdefault:%n\t\t\t\tthrow new IndexOutOfBoundsException(\"No property with index \" + propertyIndex + \".\");%n");
+			writer.printf("\t\t}%n\t}%n%n}%n");
+		}
+	}
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+/**
+ * The category of a Java type, indicating how its instances are serialized to SURF.
+ * @author Garret Wilson
+ * @see SurfMessageBodyWriter#getTypeCategory(Class)
+ */
+public enum SurfTypeCategory {
+
+	/** A type such as a string, number or {@link io.urf.surf.SurfObject} that SURF supports natively. */
+	NATIVE,
+
+	/**
+	 * A {@link java.util.List}, or any other {@link java.util.Collection} that is not a set, serialized in iteration order as a SURF list with each element
+	 * converted.
+	 */
+	LIST,
+
+	/** A {@link java.util.Set}, serialized as a SURF set with each element converted. */
+	SET,
+
+	/** A {@link java.util.Map}, serialized in iteration order as a SURF map with each key and value converted. */
+	MAP,
+
+	/**
+	 * A {@link java.util.stream.BaseStream}, {@link java.util.Iterator} or other {@link Iterable} that is not a collection, serialized as a SURF list as its
+	 * elements are produced. Its elements are not checked for shared references.
+	 */
+	STREAM,
+
+	/**
+	 * An array other than a <code>byte[]</code>, which SURF supports natively as binary, serialized as a SURF list. The elements of primitive arrays are
+	 * written without boxing.
+	 */
+	ARRAY,
+
+	/** An {@link Enum}, serialized as a SURF string containing the name of the constant. */
+	ENUM,
+
+	/** A {@link RawSurf} resource, which is already serialized and is written as-is. */
+	RAW,
+
+	/** A type with a converter registered, whose instances are converted to some other value before being serialized. */
+	CUSTOM,
+
+	/** Any other type, the properties of which are serialized as a SURF object. */
+	BEAN;
+
+}
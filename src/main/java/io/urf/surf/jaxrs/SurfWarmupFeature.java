@@ -0,0 +1,107 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static java.util.Objects.*;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.*;
+
+import javax.annotation.*;
+import javax.ws.rs.Produces;
+import javax.ws.rs.container.*;
+import javax.ws.rs.core.FeatureContext;
+
+/**
+ * Warms up a {@link SurfMessageBodyWriter} at application start for the entities returned by resource methods producing SURF, so that the first request to
+ * each resource does not pay the cost of introspection. For each resource method whose {@link Produces} annotation, or that of its resource class, lists the
+ * SURF media type, the writer is {@link SurfMessageBodyWriter#warmUp(java.lang.reflect.Type) warmed up} for the generic return type of the method.
+ * <p>
+ * The time spent warming up each resource method is reported to the {@link SurfWriterInstrumentation} of the writer, and the totals are available from this
+ * feature. The feature must be registered along with the same writer instance, for example as singletons of the JAX-RS application.
+ * </p>
+ * @author Garret Wilson
+ */
+public class SurfWarmupFeature implements DynamicFeature {
+
+	/** The SURF media type, as it appears in {@link Produces} annotations. */
+	private static final String SURF_MEDIA_TYPE = "text/surf";
+
+	private final SurfMessageBodyWriter writer;
+
+	private final AtomicInteger warmedUpMethodCount = new AtomicInteger(0);
+
+	/** @return The number of resource methods for which the writer was warmed up. */
+	public int getWarmedUpMethodCount() {
+		return warmedUpMethodCount.get();
+	}
+
+	private final AtomicLong warmupNanos = new AtomicLong(0);
+
+	/** @return The total time in nanoseconds spent warming up the writer. */
+	public long getWarmupNanos() {
+		return warmupNanos.get();
+	}
+
+	/**
+	 * Constructor.
+	 * @param writer The writer to warm up.
+	 */
+	public SurfWarmupFeature(@Nonnull final SurfMessageBodyWriter writer) {
+		this.writer = requireNonNull(writer);
+	}
+
+	@Override
+	public void configure(final ResourceInfo resourceInfo, final FeatureContext context) {
+		final Method resourceMethod = resourceInfo.getResourceMethod();
+		if(resourceMethod == null || !producesSurf(resourceMethod, resourceInfo.getResourceClass())) {
+			return;
+		}
+		final long startNanos = System.nanoTime();
+		final int beanClassCount = writer.warmUp(resourceMethod.getGenericReturnType()).size();
+		final long nanos = System.nanoTime() - startNanos;
+		warmedUpMethodCount.incrementAndGet();
+		warmupNanos.addAndGet(nanos);
+		writer.getInstrumentation().recordWarmup(resourceMethod.getReturnType(), beanClassCount, nanos);
+	}
+
+	/**
+	 * Determines whether a resource method produces SURF. The {@link Produces} annotation of the method takes precedence over that of the resource class.
+	 * @param resourceMethod The resource method.
+	 * @param resourceClass The resource class, or <code>null</code> if not known.
+	 * @return <code>true</code> if the media types the method produces include SURF.
+	 */
+	static boolean producesSurf(@Nonnull final Method resourceMethod, @Nullable final Class<?> resourceClass) {
+		Produces produces = resourceMethod.getAnnotation(Produces.class);
+		if(produces == null && resourceClass != null) {
+			produces = resourceClass.getAnnotation(Produces.class);
+		}
+		if(produces == null) {
+			return false;
+		}
+		for(final String value : produces.value()) {
+			for(final String mediaType : value.split(",")) { //a single value may list several media types
+				final int parametersIndex = mediaType.indexOf(';');
+				if((parametersIndex >= 0 ? mediaType.substring(0, parametersIndex) : mediaType).trim().equalsIgnoreCase(SURF_MEDIA_TYPE)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import javax.annotation.*;
+
+/**
+ * Receives measurements of the work done by {@link SurfMessageBodyWriter}, such as for exporting to a metrics system.
+ * <p>
+ * All methods have empty default implementations, so an implementation need only override those measurements it is interested in. Methods may be called
+ * concurrently from multiple threads, and should return quickly as they are called while responses are being written.
+ * </p>
+ * <p>
+ * When the writer is configured with {@link #NONE}, it does not take any measurements at all.
+ * </p>
+ * @author Garret Wilson
+ * @see SurfMessageBodyWriter#setInstrumentation(SurfWriterInstrumentation)
+ * @see InMemorySurfWriterInstrumentation
+ */
+public interface SurfWriterInstrumentation {
+
+	/** Instrumentation that ignores all measurements, which the writer recognizes in order to skip measuring altogether. */
+	public static final SurfWriterInstrumentation NONE = new SurfWriterInstrumentation() {};
+
+	/**
+	 * Records that an entity was written successfully.
+	 * @param entityType The class of the entity written.
+	 * @param discoveryNanos The time in nanoseconds spent walking the entity graph to discover shared references before writing.
+	 * @param serializationNanos The time in nanoseconds spent serializing and writing the entity.
+	 * @param byteCount The number of bytes of the entity written.
+	 * @param objectCount The number of beans serialized as SURF objects.
+	 * @param propertyCount The number of bean properties serialized.
+	 */
+	default void recordWrite(@Nonnull final Class<?> entityType, final long discoveryNanos, final long serializationNanos, final long byteCount,
+			final long objectCount, final long propertyCount) {
+	}
+
+	/**
+	 * Records that writing an entity failed.
+	 * @param entityType The class of the entity being written.
+	 * @param failure The error that caused writing to fail.
+	 */
+	default void recordFailure(@Nonnull final Class<?> entityType, @Nonnull final Throwable failure) {
+	}
+
+	/**
+	 * Records that the serialization plan of a bean class was requested from the writer's plan cache.
+	 * @param beanClass The bean class.
+	 */
+	default void recordSerializationPlanLookup(@Nonnull final Class<?> beanClass) {
+	}
+
+	/**
+	 * Records that the serialization plan of a bean class was not in the writer's plan cache and had to be compiled.
+	 * @param beanClass The bean class.
+	 */
+	default void recordSerializationPlanCompilation(@Nonnull final Class<?> beanClass) {
+	}
+
+	/**
+	 * Records that the writer was warmed up for the entities returned by a resource method, for example by {@link SurfWarmupFeature} at application start.
+	 * @param entityType The class of the entities returned by the resource method.
+	 * @param beanClassCount The number of bean classes for which serialization plans were prepared.
+	 * @param warmupNanos The time in nanoseconds spent warming up.
+	 */
+	default void recordWarmup(@Nonnull final Class<?> entityType, final int beanClassCount, final long warmupNanos) {
+	}
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.junit.*;
+
+/**
+ * Tests of {@link BeanAccessors}.
+ *
+ * @author Garret Wilson
+ */
+public class BeanAccessorsTest {
+
+	/** Tests binding a generated getter to a public bean property. */
+	@Test
+	public void testBindGetter() {
+		final SimpleFooBarBean simpleFooBarBean = new SimpleFooBarBean();
+		simpleFooBarBean.setFoo("foo");
+
+		final Optional<Function<SimpleFooBarBean, Object>> fooGetter = BeanAccessors.bindGetter(SimpleFooBarBean.class, "foo");
+		assertThat(fooGetter.isPresent(), is(true));
+		assertThat(fooGetter.get().apply(simpleFooBarBean), is("foo"));
+		assertThat(BeanAccessors.bindGetter(SimpleFooBarBean.class, "bar").get().apply(simpleFooBarBean), is(nullValue()));
+	}
+
+	/** Tests that no getter is bound for a property that has no getter method, or for a class that is not accessible. */
+	@Test
+	public void testBindGetterUnavailable() {
+		assertThat(BeanAccessors.bindGetter(SimpleFooBarBean.class, "missing").isPresent(), is(false));
+		assertThat(BeanAccessors.bindGetter(PrivateBean.class, "foo").isPresent(), is(false));
+	}
+
+	/** Tests that a bound getter rethrows unchecked exceptions and wraps checked ones, and that writing a bean reports the failure the same way. */
+	@Test
+	public void testBindGetterExceptions() throws IOException {
+		final ThrowingBean throwingBean = new ThrowingBean();
+		try {
+			BeanAccessors.bindGetter(ThrowingBean.class, "checked").get().apply(throwingBean);
+			fail("Expected the checked exception to be wrapped.");
+		} catch(final IllegalStateException illegalStateException) {
+			assertThat(illegalStateException.getCause(), is(instanceOf(FileNotFoundException.class)));
+		}
+		try {
+			BeanAccessors.bindGetter(ThrowingBean.class, "unchecked").get().apply(throwingBean);
+			fail("Expected the unchecked exception to be thrown.");
+		} catch(final UnsupportedOperationException unsupportedOperationException) {
+			//unchecked exceptions are not wrapped
+		}
+		try { //properties are read in order of name, so the checked exception is thrown first
+			new SurfMessageBodyWriter().writeTo(throwingBean, null, null, null, null, null, new ByteArrayOutputStream());
+			fail("Expected the bean not to be written.");
+		} catch(final IllegalStateException illegalStateException) {
+			assertThat(illegalStateException.getCause(), is(instanceOf(FileNotFoundException.class))); //not reported as an I/O error writing the response
+		}
+	}
+
+	/** A bean with getters that throw exceptions. */
+	public static class ThrowingBean {
+
+		public String getChecked() throws IOException {
+			throw new FileNotFoundException("boom");
+		}
+
+		public String getUnchecked() throws UnsupportedOperationException {
+			throw new UnsupportedOperationException("boom");
+		}
+
+	}
+
+	/** A bean that cannot be accessed from outside this class. */
+	private static class PrivateBean {
+		@SuppressWarnings("unused")
+		public String getFoo() {
+			return "foo";
+		}
+	}
+
+}
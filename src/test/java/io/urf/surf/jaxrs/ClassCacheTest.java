@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.*;
+
+/**
+ * Tests of {@link ClassCache}.
+ *
+ * @author Garret Wilson
+ */
+public class ClassCacheTest {
+
+	/** Tests that a value is computed only once per class while it remains cached. */
+	@Test
+	public void testValueComputedOnce() {
+		final AtomicInteger computeCount = new AtomicInteger(0);
+		final ClassCache<String> classCache = new ClassCache<>(10, type -> {
+			computeCount.incrementAndGet();
+			return type.getSimpleName();
+		});
+
+		assertThat(classCache.get(SimpleFooBarBean.class), is("SimpleFooBarBean"));
+		assertThat(classCache.get(SimpleFooBarBean.class), is("SimpleFooBarBean"));
+		assertThat(classCache.get(ComplexFooBarBean.class), is("ComplexFooBarBean"));
+		assertThat(computeCount.get(), is(2));
+		assertThat(classCache.getSize(), is(2));
+	}
+
+	/** Tests that the oldest values are evicted and recomputed once the maximum size is exceeded. */
+	@Test
+	public void testEviction() {
+		final AtomicInteger computeCount = new AtomicInteger(0);
+		final ClassCache<String> classCache = new ClassCache<>(2, type -> {
+			computeCount.incrementAndGet();
+			return type.getSimpleName();
+		});
+
+		classCache.get(String.class);
+		classCache.get(Integer.class);
+		classCache.get(Long.class); //evicts String
+		assertThat(classCache.getSize(), is(2));
+		assertThat(computeCount.get(), is(3));
+
+		classCache.get(Long.class); //still cached
+		assertThat(computeCount.get(), is(3));
+		classCache.get(String.class); //recomputed
+		assertThat(computeCount.get(), is(4));
+		assertThat(classCache.getSize(), is(2));
+	}
+
+	/** Tests that a non-positive maximum size is rejected. */
+	@Test(expected = IllegalArgumentException.class)
+	public void testNonPositiveMaxSize() {
+		new ClassCache<>(0, Class::getName);
+	}
+
+}
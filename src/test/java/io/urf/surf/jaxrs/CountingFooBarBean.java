@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.*;
+
+/**
+ * A JavaBean that counts how many times each of its getters is invoked.
+ * 
+ * @author Garret Wilson
+ */
+public class CountingFooBarBean {
+
+	private final AtomicInteger fooGetCount = new AtomicInteger(0);
+
+	/** @return The number of times {@link #getFoo()} has been invoked. */
+	public int getFooGetCount() {
+		return fooGetCount.get();
+	}
+
+	private final AtomicInteger barGetCount = new AtomicInteger(0);
+
+	/** @return The number of times {@link #getBar()} has been invoked. */
+	public int getBarGetCount() {
+		return barGetCount.get();
+	}
+
+	private String foo;
+
+	private CountingFooBarBean bar;
+
+	/** No-args constructor. */
+	public CountingFooBarBean() {
+	}
+
+	/** @return The foo. */
+	public String getFoo() {
+		fooGetCount.incrementAndGet();
+		return foo;
+	}
+
+	/**
+	 * Sets foo.
+	 * @param foo The new foo.
+	 */
+	public void setFoo(@Nullable final String foo) {
+		this.foo = foo;
+	}
+
+	/** @return The bar. */
+	public CountingFooBarBean getBar() {
+		barGetCount.incrementAndGet();
+		return bar;
+	}
+
+	/**
+	 * Sets bar.
+	 * 
+	 * @param bar The new bar.
+	 */
+	public void setBar(@Nullable final CountingFooBarBean bar) {
+		this.bar = bar;
+	}
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.junit.*;
+
+import io.urf.surf.SURF;
+
+/**
+ * Tests of {@link EncodingWriter}.
+ *
+ * @author Garret Wilson
+ */
+public class EncodingWriterTest {
+
+	/** Tests that text longer than the buffers, with multi-byte characters and surrogate pairs straddling buffer boundaries, is encoded correctly. */
+	@Test
+	public void testEncodeAcrossBuffers() throws IOException {
+		final StringBuilder stringBuilder = new StringBuilder();
+		stringBuilder.append('x'); //offset the surrogate pairs so that some straddle the buffer boundary
+		while(stringBuilder.length() < EncodingWriter.BUFFER_SIZE * 3) {
+			stringBuilder.append("touché 😀 ");
+		}
+		final String text = stringBuilder.toString();
+
+		final EncodingWriter writer = new EncodingWriter(0);
+		for(int i = 0; i < 2; i++) { //make sure the writer can be reused
+			try (final ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+				writer.attach(outputStream);
+				writer.write(text.substring(0, 100));
+				writer.write(text.charAt(100));
+				writer.write(text.toCharArray(), 101, text.length() - 101);
+				writer.finish();
+				assertThat(outputStream.toString(SURF.CHARSET.name()), equalTo(text));
+			}
+		}
+	}
+
+	/** Tests that no bytes beyond the maximum byte count are written, and that the maximum is reset when the writer is reattached. */
+	@Test
+	public void testMaxByteCount() throws IOException {
+		final EncodingWriter writer = new EncodingWriter(0);
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		writer.attach(outputStream);
+		writer.setMaxByteCount(5);
+		writer.write("touché");
+		try {
+			writer.finish();
+			fail("Expected the maximum byte count to be exceeded.");
+		} catch(final SurfLimitExceededException limitExceededException) {
+			assertThat(outputStream.size(), is(0));
+		}
+		writer.attach(outputStream);
+		writer.write("touché");
+		writer.finish();
+		assertThat(outputStream.toString(SURF.CHARSET.name()), equalTo("touché"));
+	}
+
+	/** Tests that released writers are reused, up to the maximum pool size. */
+	@Test
+	public void testPool() {
+		final EncodingWriter.Pool pool = new EncodingWriter.Pool(1, 16);
+		final EncodingWriter writer1 = pool.acquire();
+		final EncodingWriter writer2 = pool.acquire();
+		assertThat(writer1, not(sameInstance(writer2)));
+		assertThat(writer1.getContentLengthBuffer().length, is(16));
+		pool.release(writer1);
+		pool.release(writer2);
+		assertThat(pool.getSize(), is(1));
+		assertThat(pool.acquire(), is(sameInstance(writer1)));
+		assertThat(pool.getSize(), is(0));
+	}
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static java.util.Arrays.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.file.*;
+import java.util.Arrays;
+
+import javax.ws.rs.core.*;
+
+import org.junit.*;
+
+import com.globalmentor.io.ParseIOException;
+
+import io.urf.surf.*;
+
+/**
+ * Tests of {@link RawSurf}.
+ *
+ * @author Garret Wilson
+ */
+public class RawSurfTest {
+
+	private static final String THING_SURF = "*Thing:foo=\"x\";";
+
+	/**
+	 * Writes an entity using a new SURF message body writer.
+	 * @param entity The entity to write.
+	 * @param httpHeaders The response headers, or <code>null</code> if none should be set.
+	 * @return The SURF document written.
+	 * @throws IOException if there was an error writing the entity.
+	 */
+	private static String write(final Object entity, final MultivaluedMap<String, Object> httpHeaders) throws IOException {
+		try (final ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+			new SurfMessageBodyWriter().writeTo(entity, null, null, null, null, httpHeaders, outputStream);
+			return outputStream.toString(SURF.CHARSET.name());
+		}
+	}
+
+	/** Tests that a raw entity is written as-is from each kind of source, along with its content length. */
+	@Test
+	public void testWriteEntity() throws IOException {
+		final byte[] bytes = THING_SURF.getBytes(SURF.CHARSET);
+		final ByteBuffer directBuffer = ByteBuffer.allocateDirect(bytes.length + 2);
+		directBuffer.put((byte)' ').put(bytes).put((byte)' ');
+		((Buffer)directBuffer).position(1);
+		((Buffer)directBuffer).limit(1 + bytes.length);
+		final Path file = Files.createTempFile("raw", ".surf");
+		try {
+			Files.write(file, ("# header\n" + THING_SURF + "\n").getBytes(SURF.CHARSET));
+			for(final RawSurf rawSurf : asList(RawSurf.of(bytes), RawSurf.of(ByteBuffer.wrap(bytes)), RawSurf.of(directBuffer),
+					RawSurf.of(file, "# header\n".length(), bytes.length))) {
+				final MultivaluedMap<String, Object> httpHeaders = new MultivaluedHashMap<>();
+				assertThat(write(rawSurf, httpHeaders), is(THING_SURF));
+				assertThat(write(rawSurf, null), is(THING_SURF)); //may be written again
+				assertThat(httpHeaders.getFirst(HttpHeaders.CONTENT_LENGTH), is((Object)(long)bytes.length));
+			}
+			assertThat(RawSurf.of(file).getLength(), is(Files.size(file)));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	/** Tests that a file region larger than the copy buffer is written in full, and that a region extending past the end of the file is reported. */
+	@Test
+	public void testWriteFileRegion() throws IOException {
+		final StringBuilder content = new StringBuilder();
+		while(content.length() < 20_000) {
+			content.append(THING_SURF);
+		}
+		final byte[] bytes = content.toString().getBytes(SURF.CHARSET);
+		final Path file = Files.createTempFile("raw", ".surf");
+		try {
+			Files.write(file, bytes);
+			try (final ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+				RawSurf.of(file, 1, bytes.length - 2).writeTo(outputStream);
+				assertThat(outputStream.toByteArray(), is(Arrays.copyOfRange(bytes, 1, bytes.length - 1)));
+			}
+			try (final ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+				RawSurf.of(file, 1, bytes.length).writeTo(outputStream);
+				fail("Expected the end of the file to be reported.");
+			} catch(final EOFException eofException) {
+				//expected
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	/** Tests that a raw resource embedded in an entity is spliced into the document in place of its value. */
+	@Test
+	public void testWriteEmbedded() throws IOException {
+		final SurfObject thing = new SurfObject("Thing");
+		thing.setPropertyValue("foo", "x");
+		final SurfSerializer serializer = new SurfSerializer();
+		serializer.setFormatted(false);
+		final RawSurf rawSurf = RawSurf.of(serializer.serialize(thing).getBytes(SURF.CHARSET));
+		assertThat(write(asList("before", rawSurf, "after"), null), is(serializer.serialize(asList("before", thing, "after"))));
+
+		final StringBuilder stringBuilder = new StringBuilder();
+		rawSurf.appendTo(stringBuilder);
+		assertThat(stringBuilder.toString(), is(THING_SURF));
+	}
+
+	/** Tests validation of raw content. */
+	@Test
+	public void testValidate() throws IOException {
+		final RawSurf rawSurf = RawSurf.of(THING_SURF.getBytes(SURF.CHARSET));
+		assertThat(rawSurf.validate(), is(sameInstance(rawSurf)));
+	}
+
+	/** Tests that malformed raw content is rejected by validation. */
+	@Test(expected = ParseIOException.class)
+	public void testValidateMalformed() throws IOException {
+		RawSurf.of("*Thing:foo=\"x\"".getBytes(SURF.CHARSET)).validate();
+	}
+
+	/** Tests that empty raw content is rejected by validation. */
+	@Test(expected = ParseIOException.class)
+	public void testValidateEmpty() throws IOException {
+		RawSurf.of(new byte[0]).validate();
+	}
+
+}
@@ -0,0 +1,590 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static java.util.Arrays.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.*;
+
+import io.ploop.introspection.*;
+import io.urf.surf.*;
+
+/**
+ * Tests of {@link SurfBeanSerializer}, verifying that beans serialized directly produce the same output as first converting them to {@link SurfObject}
+ * instances.
+ *
+ * @author Garret Wilson
+ */
+public class SurfBeanSerializerTest {
+
+	/**
+	 * Converts an object graph to one containing only types supported by {@link SurfSerializer}, converting beans to {@link SurfObject} instances. Each bean
+	 * instance is converted to a single SURF object, so that shared and cyclic references are preserved.
+	 * @param object The object to convert.
+	 * @param surfObjects The SURF objects to which beans have already been converted.
+	 * @return The converted object.
+	 * @throws Exception if a bean property could not be read.
+	 */
+	private static Object toSurfGraph(final Object object, final Map<Object, SurfObject> surfObjects) throws Exception {
+		if(object instanceof List) {
+			final List<Object> list = new LinkedList<>();
+			for(final Object element : (List<?>)object) {
+				list.add(toSurfGraph(element, surfObjects));
+			}
+			return list;
+		}
+		if(object instanceof Set) {
+			final Set<Object> set = new HashSet<>();
+			for(final Object element : (Set<?>)object) {
+				set.add(toSurfGraph(element, surfObjects));
+			}
+			return set;
+		}
+		if(object instanceof Map) {
+			final Map<Object, Object> map = new HashMap<>();
+			for(final Map.Entry<?, ?> entry : ((Map<?, ?>)object).entrySet()) {
+				map.put(entry.getKey(), toSurfGraph(entry.getValue(), surfObjects));
+			}
+			return map;
+		}
+		if(object.getClass().isArray() && !(object instanceof byte[])) {
+			final List<Object> list = new LinkedList<>();
+			for(int i = 0; i < Array.getLength(object); i++) {
+				list.add(toSurfGraph(Array.get(object, i), surfObjects));
+			}
+			return list;
+		}
+		if(object instanceof Enum) {
+			return ((Enum<?>)object).name();
+		}
+		if(new SurfMessageBodyWriter().getTypeCategory(object.getClass()) == SurfTypeCategory.NATIVE) {
+			return object;
+		}
+		final SurfObject surfObject = surfObjects.get(object);
+		return surfObject != null ? surfObject : toSurfObject(object, surfObjects);
+	}
+
+	/**
+	 * Converts a bean to a {@link SurfObject}, setting its properties in introspection order.
+	 * @param <T> The type of bean.
+	 * @param bean The bean to convert.
+	 * @param surfObjects The SURF objects to which beans have already been converted.
+	 * @return The SURF object representing the bean.
+	 * @throws Exception if a bean property could not be read.
+	 */
+	private static <T> SurfObject toSurfObject(final T bean, final Map<Object, SurfObject> surfObjects) throws Exception {
+		@SuppressWarnings("unchecked")
+		final Introspection<T> introspection = Introspection.of((Class<T>)bean.getClass());
+		final SurfObject surfObject = new SurfObject(introspection.getObjectType().getErasedType().getSimpleName());
+		surfObjects.put(bean, surfObject);
+		for(final Property<T, ?> property : introspection.getProperties()) {
+			final Object value = property.getValue(bean);
+			if(value != null) {
+				surfObject.setPropertyValue(property.getName(), toSurfGraph(value, surfObjects));
+			}
+		}
+		return surfObject;
+	}
+
+	/**
+	 * Asserts that serializing the given object with {@link SurfBeanSerializer} results in the same output as serializing its converted SURF graph with
+	 * {@link SurfSerializer}, both formatted and unformatted. The aliases {@link SurfSerializer} generates for shared SURF objects are expected to be generated
+	 * for the shared beans instead, using {@link SurfBeanSerializer#GENERATED_BEAN_ALIAS_PREFIX}.
+	 * @param object The object to serialize.
+	 * @throws Exception if there was an error serializing the object.
+	 */
+	private static void assertSerializedAsSurfGraph(final Object object) throws Exception {
+		for(final boolean formatted : asList(true, false)) {
+			final SurfSerializer surfSerializer = new SurfSerializer();
+			surfSerializer.setFormatted(formatted);
+			final Map<Object, SurfObject> surfObjects = new IdentityHashMap<>();
+			final String surfGraphSerialization = surfSerializer.serialize(toSurfGraph(object, surfObjects));
+			final String expected = surfObjects.isEmpty() ? surfGraphSerialization
+					: surfGraphSerialization.replace(SURF.LABEL_DELIMITER + SurfSerializer.GENERATED_ALIAS_PREFIX,
+							SURF.LABEL_DELIMITER + SurfBeanSerializer.GENERATED_BEAN_ALIAS_PREFIX); //the graph was converted from beans
+
+			final SurfBeanSerializer beanSerializer = new SurfBeanSerializer(new SurfMessageBodyWriter());
+			beanSerializer.setFormatted(formatted);
+			try (final ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+				beanSerializer.serialize(outputStream, object);
+				assertThat(outputStream.toString(SURF.CHARSET.name()), equalTo(expected));
+			}
+		}
+	}
+
+	/** Tests a bean with few enough properties to fit in the initial description table. */
+	@Test
+	public void testSimpleBean() throws Exception {
+		final SimpleFooBarBean simpleFooBarBean = new SimpleFooBarBean();
+		simpleFooBarBean.setFoo("foo");
+		simpleFooBarBean.setBar("bar");
+		assertSerializedAsSurfGraph(simpleFooBarBean);
+		assertSerializedAsSurfGraph(new SimpleFooBarBean());
+	}
+
+	/** Tests beans with more properties than fit in the initial description table, with varying numbers of properties present. */
+	@Test
+	public void testWideBean() throws Exception {
+		final WideFooBarBean wideFooBarBean = new WideFooBarBean();
+		assertSerializedAsSurfGraph(wideFooBarBean);
+		wideFooBarBean.setFoo("foo");
+		wideFooBarBean.setBar("bar");
+		wideFooBarBean.setBaz("baz");
+		wideFooBarBean.setQux("qux");
+		wideFooBarBean.setQuux("quux");
+		wideFooBarBean.setCorge("corge");
+		wideFooBarBean.setGrault("grault");
+		assertSerializedAsSurfGraph(wideFooBarBean);
+		wideFooBarBean.setGarply("garply");
+		wideFooBarBean.setWaldo("waldo");
+		wideFooBarBean.setFred("fred");
+		wideFooBarBean.setPlugh("plugh");
+		wideFooBarBean.setXyzzy("xyzzy");
+		assertSerializedAsSurfGraph(wideFooBarBean);
+		wideFooBarBean.setThud("thud");
+		wideFooBarBean.setWibble("wibble");
+		assertSerializedAsSurfGraph(wideFooBarBean);
+	}
+
+	/** Tests nested beans inside lists, sets and maps. */
+	@Test
+	public void testCollections() throws Exception {
+		final SimpleFooBarBean simpleFooBarBean = new SimpleFooBarBean();
+		simpleFooBarBean.setFoo("foo");
+		final ComplexFooBarBean complexFooBarBean = new ComplexFooBarBean();
+		complexFooBarBean.setFoo("complex");
+		complexFooBarBean.setBar(simpleFooBarBean);
+
+		assertSerializedAsSurfGraph(asList(simpleFooBarBean, complexFooBarBean, "text", 123, new BigDecimal("1.5"), LocalDate.of(2017, 12, 25)));
+		assertSerializedAsSurfGraph(new HashSet<>(asList("one", "two", "three")));
+		final Map<Object, Object> map = new HashMap<>();
+		map.put("simple", simpleFooBarBean);
+		map.put(1, asList(complexFooBarBean, new ArrayList<>()));
+		map.put(true, new HashMap<>());
+		assertSerializedAsSurfGraph(map);
+		assertSerializedAsSurfGraph(new ArrayList<>());
+	}
+
+	/** Tests that a shared {@link SurfObject} in a converted list is still given an alias. */
+	@Test
+	public void testSharedSurfObject() throws Exception {
+		final SurfObject surfObject = new SurfObject("Shared");
+		surfObject.setPropertyValue("foo", "bar");
+		assertSerializedAsSurfGraph(asList(surfObject, surfObject));
+	}
+
+	/** Tests that a bean referenced several times is written once and then referred to by its alias. */
+	@Test
+	public void testSharedBean() throws Exception {
+		final SimpleFooBarBean simpleFooBarBean = new SimpleFooBarBean();
+		simpleFooBarBean.setFoo("shared");
+		final ComplexFooBarBean complexFooBarBean = new ComplexFooBarBean();
+		complexFooBarBean.setBar(simpleFooBarBean);
+		assertSerializedAsSurfGraph(asList(simpleFooBarBean, complexFooBarBean, simpleFooBarBean));
+
+		final SurfBeanSerializer beanSerializer = new SurfBeanSerializer(new SurfMessageBodyWriter());
+		assertThat(beanSerializer.serialize(asList(simpleFooBarBean, simpleFooBarBean)), startsWith("[|bean1|*SimpleFooBarBean"));
+	}
+
+	/** Tests that cyclic references between beans are written as aliases, and that each getter is still invoked only once. */
+	@Test
+	public void testCyclicBeans() throws Exception {
+		final CountingFooBarBean selfReferencingBean = new CountingFooBarBean();
+		selfReferencingBean.setFoo("self");
+		selfReferencingBean.setBar(selfReferencingBean);
+		final SurfBeanSerializer beanSerializer = new SurfBeanSerializer(new SurfMessageBodyWriter());
+		beanSerializer.setFormatted(false);
+		assertThat(beanSerializer.serialize(selfReferencingBean), equalTo("|bean1|*CountingFooBarBean:bar=|bean1|,barGetCount=1,foo=\"self\",fooGetCount=1;"));
+		assertThat(selfReferencingBean.getBarGetCount(), is(1));
+
+		final CountingFooBarBean bean1 = new CountingFooBarBean();
+		bean1.setFoo("one");
+		final CountingFooBarBean bean2 = new CountingFooBarBean();
+		bean2.setFoo("two");
+		bean1.setBar(bean2);
+		bean2.setBar(bean1);
+		assertThat(beanSerializer.serialize(bean1), equalTo(
+				"|bean1|*CountingFooBarBean:bar=*CountingFooBarBean:bar=|bean1|,barGetCount=1,foo=\"two\",fooGetCount=1;,barGetCount=1,foo=\"one\",fooGetCount=1;"));
+		assertThat(bean1.getBarGetCount(), is(1));
+		assertThat(bean2.getBarGetCount(), is(1));
+	}
+
+	/** Tests that collections and maps are written in their own iteration order, and that map keys are converted like values. */
+	@Test
+	public void testCollectionsAndMapKeys() throws Exception {
+		final SurfBeanSerializer beanSerializer = new SurfBeanSerializer(new SurfMessageBodyWriter());
+		beanSerializer.setFormatted(false);
+		final Map<String, Integer> linkedHashMap = new LinkedHashMap<>();
+		linkedHashMap.put("b", 1);
+		linkedHashMap.put("a", 2);
+		assertThat(beanSerializer.serialize(linkedHashMap), equalTo("{\"b\":1,\"a\":2}"));
+		assertThat(beanSerializer.serialize(new TreeMap<>(linkedHashMap)), equalTo("{\"a\":2,\"b\":1}"));
+		assertThat(beanSerializer.serialize(new ArrayDeque<>(asList("x", "y"))), equalTo("[\"x\",\"y\"]"));
+		assertThat(beanSerializer.serialize(linkedHashMap.values()), equalTo("[1,2]"));
+
+		final SimpleFooBarBean keyBean = new SimpleFooBarBean();
+		keyBean.setFoo("key");
+		final Map<Object, Object> beanKeyMap = new LinkedHashMap<>();
+		beanKeyMap.put(TimeUnit.SECONDS, 1);
+		beanKeyMap.put(keyBean, keyBean);
+		beanKeyMap.put(new SimpleFooBarBean(), 2);
+		final String surf = beanSerializer.serialize(beanKeyMap);
+		assertThat(surf, equalTo("{\"SECONDS\":1,\\|bean1|*SimpleFooBarBean:foo=\"key\";\\:|bean1|,*SimpleFooBarBean:2}"));
+		final Map<?, ?> parsedMap = (Map<?, ?>)new SurfParser().parse(surf).get();
+		assertThat(parsedMap.get("SECONDS"), is((Object)1));
+		final SurfObject parsedKey = (SurfObject)parsedMap.keySet().stream()
+				.filter(key -> key instanceof SurfObject && ((SurfObject)key).hasDescription()).findFirst().get();
+		assertThat(parsedKey.getPropertyValue("foo"), is(Optional.of("key")));
+		assertThat(parsedMap.get(parsedKey), is(sameInstance(parsedKey)));
+	}
+
+	/** Tests that serializing large lists in parallel produces the same output as serializing them sequentially. */
+	@Test
+	public void testParallelSerialization() throws Exception {
+		final List<Object> list = new ArrayList<>();
+		for(int i = 0; i < 1000; i++) {
+			final ComplexFooBarBean complexFooBarBean = new ComplexFooBarBean();
+			complexFooBarBean.setFoo("complex" + i);
+			if(i % 3 == 0) {
+				final SimpleFooBarBean simpleFooBarBean = new SimpleFooBarBean();
+				simpleFooBarBean.setBar("simple" + i);
+				complexFooBarBean.setBar(simpleFooBarBean);
+			}
+			list.add(i % 10 == 0 ? asList(i, complexFooBarBean) : complexFooBarBean);
+		}
+		final ExecutorService executorService = Executors.newFixedThreadPool(4);
+		try {
+			for(final Executor executor : asList(executorService, (Executor)command -> {
+				throw new RejectedExecutionException();
+			})) {
+				for(final boolean formatted : asList(false, true)) {
+					final SurfBeanSerializer sequentialSerializer = new SurfBeanSerializer(new SurfMessageBodyWriter());
+					sequentialSerializer.setFormatted(formatted);
+					final StringBuilder expected = new StringBuilder();
+					sequentialSerializer.serializeDocument(expected, Collections.singletonMap("list", list));
+
+					final SurfBeanSerializer parallelSerializer = new SurfBeanSerializer(new SurfMessageBodyWriter());
+					parallelSerializer.setFormatted(formatted);
+					parallelSerializer.setParallelSerialization(new SurfParallelSerialization(executor, 10, 7, 3));
+					final StringBuilder output = new StringBuilder();
+					parallelSerializer.serializeDocument(output, Collections.singletonMap("list", list));
+					assertThat(output.toString(), equalTo(expected.toString()));
+					assertThat(parallelSerializer.getObjectCount(), is(sequentialSerializer.getObjectCount()));
+					assertThat(parallelSerializer.getPropertyCount(), is(sequentialSerializer.getPropertyCount()));
+				}
+			}
+
+			final SurfBeanSerializer parallelSerializer = new SurfBeanSerializer(new SurfMessageBodyWriter());
+			parallelSerializer.setParallelSerialization(new SurfParallelSerialization(executorService, 10, 7, 3));
+			final List<Object> sharingList = new ArrayList<>(list);
+			sharingList.add(list.get(1)); //shared beans are labeled in document order
+			assertThat(parallelSerializer.serialize(sharingList), equalTo(new SurfBeanSerializer(new SurfMessageBodyWriter()).serialize(sharingList)));
+		} finally {
+			executorService.shutdown();
+		}
+	}
+
+	/** Tests that a list in which a natively supported resource is shared is serialized sequentially, so that the resource is labeled. */
+	@Test
+	public void testParallelSerializationSharedObject() throws Exception {
+		final SurfObject shared = new SurfObject("Thing");
+		shared.setPropertyValue("x", 1);
+		final List<Object> list = new ArrayList<>();
+		list.add(shared);
+		for(int i = 1; i < 9; i++) {
+			list.add(i);
+		}
+		list.add(shared);
+		final SurfBeanSerializer parallelSerializer = new SurfBeanSerializer(new SurfMessageBodyWriter());
+		parallelSerializer.setFormatted(false);
+		parallelSerializer.setParallelSerialization(new SurfParallelSerialization(command -> new Thread(command).start(), 4, 2, 3));
+		final String surf = parallelSerializer.serialize(list);
+		assertThat(surf, equalTo("[|resource1|*Thing:x=1;,1,2,3,4,5,6,7,8,|resource1|]"));
+		final List<?> parsedList = (List<?>)new SurfParser().parse(surf).get();
+		assertThat(parsedList.get(9), is(sameInstance(parsedList.get(0))));
+	}
+
+	/** Tests that a graph deeper than the maximum depth is rejected before anything is written, without exhausting the stack. */
+	@Test
+	public void testMaxDepth() throws Exception {
+		final SurfBeanSerializer beanSerializer = new SurfBeanSerializer(new SurfMessageBodyWriter());
+		beanSerializer.setFormatted(false);
+		beanSerializer.setMaxDepth(3);
+		assertThat(beanSerializer.serialize(asList(asList("x"))), equalTo("[[\"x\"]]"));
+		final StringBuilder output = new StringBuilder();
+		try {
+			beanSerializer.serializeDocument(output, asList(asList(asList("x"))));
+			fail("Expected the maximum depth to be exceeded.");
+		} catch(final SurfLimitExceededException limitExceededException) {
+			assertThat(output.length(), is(0));
+		}
+
+		List<Object> deepList = new ArrayList<>();
+		for(int i = 0; i < 100_000; i++) {
+			deepList = new ArrayList<>(Collections.singletonList(deepList));
+		}
+		beanSerializer.setMaxDepth(Integer.MAX_VALUE);
+		beanSerializer.discoverDocument(deepList); //discovery does not recurse
+		beanSerializer.setMaxDepth(new SurfMessageBodyWriter().getMaxDepth());
+		try {
+			beanSerializer.serializeDocument(output, deepList);
+			fail("Expected the maximum depth to be exceeded.");
+		} catch(final SurfLimitExceededException limitExceededException) {
+			assertThat(output.length(), is(0));
+		}
+
+		final CountingFooBarBean selfReferencingBean = new CountingFooBarBean();
+		selfReferencingBean.setBar(selfReferencingBean);
+		beanSerializer.setMaxDepth(2);
+		assertThat(beanSerializer.serialize(selfReferencingBean), startsWith("|bean1|")); //a cycle is as deep as the alias
+	}
+
+	/** Tests that a graph with more than the maximum number of elements is rejected, and that streamed elements are counted as they are written. */
+	@Test
+	public void testMaxElementCount() throws Exception {
+		final SurfBeanSerializer beanSerializer = new SurfBeanSerializer(new SurfMessageBodyWriter());
+		beanSerializer.setFormatted(false);
+		beanSerializer.setMaxElementCount(4);
+		assertThat(beanSerializer.serialize(asList("a", "b", "c")), equalTo("[\"a\",\"b\",\"c\"]"));
+		assertThat(beanSerializer.serialize(new int[] {1, 2, 3}), equalTo("[1,2,3]"));
+		assertThat(beanSerializer.serialize(Collections.singletonMap("a", "b")), equalTo("{\"a\":\"b\"}"));
+		for(final Object tooLarge : asList(asList("a", "b", "c", "d"), new int[] {1, 2, 3, 4}, new String[] {"a", "b", "c", "d"})) {
+			final StringBuilder output = new StringBuilder();
+			try {
+				beanSerializer.serializeDocument(output, tooLarge);
+				fail("Expected the maximum element count to be exceeded.");
+			} catch(final SurfLimitExceededException limitExceededException) {
+				assertThat(output.length(), is(0));
+			}
+		}
+
+		final StringBuilder output = new StringBuilder();
+		try {
+			beanSerializer.serializeDocument(output, asList("a", "b", "c", "d").iterator());
+			fail("Expected the maximum element count to be exceeded.");
+		} catch(final SurfLimitExceededException limitExceededException) {
+			assertThat(output.toString(), equalTo("[\"a\",\"b\",\"c\","));
+		}
+	}
+
+	/** Tests that a bean with a writer generated at compile time is serialized through the generated writer, with output identical to introspection. */
+	@Test
+	public void testGeneratedWriter() throws Exception {
+		final SurfGeneratedWriter<GeneratedFooBarBean> generatedWriter = SerializationPlan.findGeneratedWriter(GeneratedFooBarBean.class).get();
+		assertThat(generatedWriter.getClass().getName(), is(SurfBeanSerializerTest.class.getName() + "_GeneratedFooBarBean_SurfWriter"));
+		assertThat(generatedWriter.getPropertyNames(), contains("URL", "active", "bar", "foo"));
+		assertThat(SerializationPlan.findGeneratedWriter(SimpleFooBarBean.class).isPresent(), is(false));
+
+		final GeneratedFooBarBean bean = new GeneratedFooBarBean();
+		bean.setFoo("generated");
+		bean.setActive(true);
+		bean.setURL("https://example.com/");
+		assertThat(generatedWriter.getPropertyValue(bean, 1), is((Object)true));
+		assertSerializedAsSurfGraph(asList(bean, new GeneratedFooBarBean()));
+	}
+
+	/** A bean for which a SURF writer is generated at compile time. */
+	@SurfSerializable
+	public static class GeneratedFooBarBean extends SimpleFooBarBean {
+
+		private boolean active;
+
+		public boolean isActive() {
+			return active;
+		}
+
+		public void setActive(final boolean active) {
+			this.active = active;
+		}
+
+		private String url;
+
+		public String getURL() {
+			return url;
+		}
+
+		public void setURL(final String url) {
+			this.url = url;
+		}
+
+	}
+
+	/** Tests that a checked exception thrown by a getter read through a generated writer is wrapped, as it is when the property is read by introspection. */
+	@Test
+	public void testGeneratedWriterCheckedException() throws Exception {
+		final SurfGeneratedWriter<GeneratedThrowingBean> generatedWriter = SerializationPlan.findGeneratedWriter(GeneratedThrowingBean.class).get();
+		assertThat(generatedWriter.getPropertyNames(), contains("checked", "foo", "unchecked"));
+		final GeneratedThrowingBean bean = new GeneratedThrowingBean();
+		assertThat(generatedWriter.getPropertyValue(bean, 1), is((Object)"foo"));
+		try {
+			generatedWriter.getPropertyValue(bean, 0);
+			fail("Expected the checked exception to be wrapped.");
+		} catch(final IllegalStateException illegalStateException) {
+			assertThat(illegalStateException.getCause(), is(instanceOf(IOException.class)));
+		}
+		try {
+			generatedWriter.getPropertyValue(bean, 2);
+			fail("Expected the unchecked exception to be thrown.");
+		} catch(final UnsupportedOperationException unsupportedOperationException) {
+			//unchecked exceptions are not wrapped
+		}
+	}
+
+	/** A bean for which a SURF writer is generated at compile time, with getters declaring exceptions. */
+	@SurfSerializable
+	public static class GeneratedThrowingBean {
+
+		public String getFoo() throws UnsupportedOperationException {
+			return "foo";
+		}
+
+		public String getChecked() throws IOException {
+			throw new IOException("Not available.");
+		}
+
+		public String getUnchecked() throws UnsupportedOperationException {
+			throw new UnsupportedOperationException("Not available.");
+		}
+
+	}
+
+	/** Tests that arrays are written as lists, and enums as the strings of their names. */
+	@Test
+	public void testArraysAndEnums() throws Exception {
+		final TelemetryBean telemetryBean = new TelemetryBean();
+		telemetryBean.setCounts(new int[] {0, 1, -42, Integer.MAX_VALUE, Integer.MIN_VALUE});
+		telemetryBean.setTimestamps(new long[] {Long.MAX_VALUE, Long.MIN_VALUE, 1234567890123L});
+		telemetryBean.setReadings(new double[] {0.0, -1.5, 1e-10, Double.MAX_VALUE});
+		telemetryBean.setFlags(new boolean[] {true, false});
+		telemetryBean.setCodes(new char[] {'a', '\'', '\n'});
+		telemetryBean.setLabels(new String[] {"x", "y"});
+		telemetryBean.setEmpty(new float[0]);
+		telemetryBean.setUnit(TimeUnit.SECONDS);
+		telemetryBean.setSamples(new SimpleFooBarBean[] {new SimpleFooBarBean()});
+		assertSerializedAsSurfGraph(telemetryBean);
+
+		final SurfBeanSerializer beanSerializer = new SurfBeanSerializer(new SurfMessageBodyWriter());
+		beanSerializer.setFormatted(false);
+		assertThat(beanSerializer.serialize(new int[] {1, 2, 3}), is("[1,2,3]"));
+		assertThat(beanSerializer.serialize(TimeUnit.DAYS), is("\"DAYS\""));
+	}
+
+	/** A bean with array and enum properties. */
+	public static class TelemetryBean {
+
+		private int[] counts;
+
+		public int[] getCounts() {
+			return counts;
+		}
+
+		public void setCounts(final int[] counts) {
+			this.counts = counts;
+		}
+
+		private long[] timestamps;
+
+		public long[] getTimestamps() {
+			return timestamps;
+		}
+
+		public void setTimestamps(final long[] timestamps) {
+			this.timestamps = timestamps;
+		}
+
+		private double[] readings;
+
+		public double[] getReadings() {
+			return readings;
+		}
+
+		public void setReadings(final double[] readings) {
+			this.readings = readings;
+		}
+
+		private boolean[] flags;
+
+		public boolean[] getFlags() {
+			return flags;
+		}
+
+		public void setFlags(final boolean[] flags) {
+			this.flags = flags;
+		}
+
+		private char[] codes;
+
+		public char[] getCodes() {
+			return codes;
+		}
+
+		public void setCodes(final char[] codes) {
+			this.codes = codes;
+		}
+
+		private String[] labels;
+
+		public String[] getLabels() {
+			return labels;
+		}
+
+		public void setLabels(final String[] labels) {
+			this.labels = labels;
+		}
+
+		private float[] empty;
+
+		public float[] getEmpty() {
+			return empty;
+		}
+
+		public void setEmpty(final float[] empty) {
+			this.empty = empty;
+		}
+
+		private TimeUnit unit;
+
+		public TimeUnit getUnit() {
+			return unit;
+		}
+
+		public void setUnit(final TimeUnit unit) {
+			this.unit = unit;
+		}
+
+		private SimpleFooBarBean[] samples;
+
+		public SimpleFooBarBean[] getSamples() {
+			return samples;
+		}
+
+		public void setSamples(final SimpleFooBarBean[] samples) {
+			this.samples = samples;
+		}
+
+	}
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static io.urf.surf.jaxrs.SurfConditionalResponseFilter.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+/**
+ * Tests of {@link SurfConditionalResponseFilter}.
+ *
+ * @author Garret Wilson
+ */
+public class SurfConditionalResponseFilterTest {
+
+	/** Tests matching an entity tag against the tags listed in an <code>If-None-Match</code> header. */
+	@Test
+	public void testMatchesAny() {
+		assertThat(matchesAny(null, "\"abc\""), is(false));
+		assertThat(matchesAny("\"abc\"", "\"abc\""), is(true));
+		assertThat(matchesAny("\"xyz\", \"abc\"", "\"abc\""), is(true));
+		assertThat(matchesAny("W/\"abc\"", "\"abc\""), is(true));
+		assertThat(matchesAny("*", "\"abc\""), is(true));
+		assertThat(matchesAny("\"xyz\"", "\"abc\""), is(false));
+		assertThat(matchesAny("abc", "\"abc\""), is(false)); //unquoted tags are not the same tag
+	}
+
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static java.util.Arrays.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.*;
+
+import io.urf.surf.*;
+
+/**
+ * Tests of {@link SurfDocumentSequenceWriter}.
+ *
+ * @author Garret Wilson
+ */
+public class SurfDocumentSequenceWriterTest {
+
+	/**
+	 * Serializes an entity as a compact SURF document.
+	 * @param entity The entity to serialize.
+	 * @return The serialized document.
+	 * @throws IOException if there was an error serializing the entity.
+	 */
+	private static String serialize(final Object entity) throws IOException {
+		final SurfBeanSerializer serializer = new SurfBeanSerializer(new SurfMessageBodyWriter());
+		serializer.setFormatted(false);
+		return serializer.serialize(entity);
+	}
+
+	/** Tests that a document sequence entity is written as one document per line, each parseable on its own. */
+	@Test
+	public void testWriteSequence() throws IOException {
+		final SimpleFooBarBean simpleFooBarBean = new SimpleFooBarBean();
+		simpleFooBarBean.setFoo("line\nbreak");
+		final ComplexFooBarBean complexFooBarBean = new ComplexFooBarBean();
+		complexFooBarBean.setBar(simpleFooBarBean);
+		final List<Object> entities = asList(simpleFooBarBean, complexFooBarBean, asList(simpleFooBarBean, simpleFooBarBean),
+				Collections.singletonMap("count", 3));
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		new SurfMessageBodyWriter().writeTo((SurfDocumentSequence)sequenceWriter -> {
+			for(final Object entity : entities) {
+				sequenceWriter.write(entity);
+			}
+		}, null, null, null, null, null, outputStream);
+
+		final String[] lines = outputStream.toString(SURF.CHARSET.name()).split("\n", -1);
+		assertThat(lines.length, is(entities.size() + 1));
+		assertThat(lines[entities.size()], is(""));
+		for(int i = 0; i < entities.size(); i++) {
+			assertThat(lines[i], equalTo(serialize(entities.get(i)))); //aliases are generated anew for each document
+			assertThat(new SurfParser().parse(lines[i]).isPresent(), is(true));
+		}
+	}
+
+	/** Tests that the output is flushed after every document by default, and after each batch if batching is configured. */
+	@Test
+	public void testBatching() throws IOException {
+		final FlushCountingOutputStream outputStream = new FlushCountingOutputStream();
+		try (final SurfDocumentSequenceWriter sequenceWriter = new SurfMessageBodyWriter().openDocumentSequence(outputStream)) {
+			sequenceWriter.write("one");
+			assertThat(outputStream.flushCount, is(1));
+			assertThat(outputStream.toString(SURF.CHARSET.name()), is("\"one\"\n"));
+
+			sequenceWriter.setBatching(3, 1, TimeUnit.HOURS);
+			sequenceWriter.write("two");
+			sequenceWriter.write("three");
+			assertThat(outputStream.flushCount, is(1));
+			assertThat(outputStream.size(), is("\"one\"\n".length()));
+			sequenceWriter.write("four");
+			assertThat(outputStream.flushCount, is(2));
+			assertThat(outputStream.toString(SURF.CHARSET.name()), is("\"one\"\n\"two\"\n\"three\"\n\"four\"\n"));
+
+			sequenceWriter.write("five");
+			sequenceWriter.flush();
+			assertThat(outputStream.flushCount, is(3));
+			assertThat(sequenceWriter.getDocumentCount(), is(5L));
+		}
+		assertThat(outputStream.closed, is(false));
+	}
+
+	/** Tests that a document that fails to serialize leaves no partial output, and that the sequence may continue. */
+	@Test
+	public void testFailedDocument() throws IOException {
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		final SurfMessageBodyWriter surfMessageBodyWriter = new SurfMessageBodyWriter();
+		surfMessageBodyWriter.setMaxElementCount(3);
+		try (final SurfDocumentSequenceWriter sequenceWriter = surfMessageBodyWriter.openDocumentSequence(outputStream)) {
+			sequenceWriter.write(asList(1, 2));
+			try {
+				sequenceWriter.write(asList(1, 2, 3, 4).iterator()); //streamed elements are counted as they are serialized
+				fail("Expected the maximum element count to be exceeded.");
+			} catch(final SurfLimitExceededException limitExceededException) {
+				//the document is discarded
+			}
+			sequenceWriter.write(asList(3, 4));
+		}
+		assertThat(outputStream.toString(SURF.CHARSET.name()), is("[1,2]\n[3,4]\n"));
+	}
+
+	/** Tests that aliases of resources shared within a document are generated anew for each document, so that every document stands alone. */
+	@Test
+	public void testSharedResourcesAcrossDocuments() throws IOException {
+		final SurfObject shared = new SurfObject("Thing");
+		shared.setPropertyValue("x", 1);
+		final SurfObject other = new SurfObject("Other");
+		other.setPropertyValue("y", 2);
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try (final SurfDocumentSequenceWriter sequenceWriter = new SurfMessageBodyWriter().openDocumentSequence(outputStream)) {
+			sequenceWriter.write(asList(shared, shared));
+			sequenceWriter.write(asList(other, other));
+			sequenceWriter.write(shared);
+		}
+		final String[] lines = outputStream.toString(SURF.CHARSET.name()).split("\n");
+		assertThat(lines, is(new String[] {"[|resource1|*Thing:x=1;,|resource1|]", "[|resource1|*Other:y=2;,|resource1|]", "*Thing:x=1;"}));
+		final List<?> list = (List<?>)new SurfParser().parse(lines[0]).get();
+		assertThat(list.get(0), is(sameInstance(list.get(1))));
+		final SurfObject parsedShared = (SurfObject)new SurfParser().parse(lines[2]).get();
+		assertThat(parsedShared.getPropertyValue("x"), is(Optional.of(1)));
+	}
+
+	/** Tests that a document exceeding the maximum byte count is rejected without writing any of it, and that the sequence may continue. */
+	@Test
+	public void testMaxByteCount() throws IOException {
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		final SurfMessageBodyWriter surfMessageBodyWriter = new SurfMessageBodyWriter();
+		surfMessageBodyWriter.setMaxByteCount(10);
+		try (final SurfDocumentSequenceWriter sequenceWriter = surfMessageBodyWriter.openDocumentSequence(outputStream)) {
+			sequenceWriter.write("ten-byte"); //8 characters plus quotes, not counting the delimiter
+			try {
+				sequenceWriter.write("more than ten bytes");
+				fail("Expected the maximum byte count to be exceeded.");
+			} catch(final SurfLimitExceededException limitExceededException) {
+				//the document is discarded
+			}
+			try {
+				sequenceWriter.write("\u00E9\u00E9\u00E9\u00E9\u00E9"); //5 characters encoded as 10 bytes, plus quotes
+				fail("Expected the maximum byte count to be exceeded.");
+			} catch(final SurfLimitExceededException limitExceededException) {
+				//the document is discarded
+			}
+			sequenceWriter.write(1);
+			assertThat(sequenceWriter.getDocumentCount(), is(2L));
+		}
+		assertThat(outputStream.toString(SURF.CHARSET.name()), is("\"ten-byte\"\n1\n"));
+	}
+
+	/** Tests that embedded raw SURF is written as-is if compact, and that a document with raw SURF containing line breaks is rejected without writing it. */
+	@Test
+	public void testEmbeddedRawSurf() throws IOException {
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try (final SurfDocumentSequenceWriter sequenceWriter = new SurfMessageBodyWriter().openDocumentSequence(outputStream)) {
+			sequenceWriter.write(Collections.singletonMap("raw", RawSurf.of("*Thing:foo=\"x\";".getBytes(SURF.CHARSET))));
+			try {
+				sequenceWriter.write(Collections.singletonMap("raw", RawSurf.of("*Thing:\n  foo=\"x\"\n;".getBytes(SURF.CHARSET))));
+				fail("Expected raw SURF with line breaks to be rejected.");
+			} catch(final IllegalArgumentException illegalArgumentException) {
+				//the document is discarded
+			}
+			sequenceWriter.write(2);
+			assertThat(sequenceWriter.getDocumentCount(), is(2L));
+		}
+		final String[] lines = outputStream.toString(SURF.CHARSET.name()).split("\n");
+		assertThat(lines, is(new String[] {"{\"raw\":*Thing:foo=\"x\";}", "2"}));
+		assertThat(new SurfParser().parse(lines[0]).isPresent(), is(true));
+	}
+
+	/** Tests the determination of the encoded length of a document. */
+	@Test
+	public void testGetEncodedLength() {
+		assertThat(SurfDocumentSequenceWriter.getEncodedLength(""), is(0L));
+		assertThat(SurfDocumentSequenceWriter.getEncodedLength("abc"), is(3L));
+		assertThat(SurfDocumentSequenceWriter.getEncodedLength("\u00E9\u20AC\uD83D\uDE00"), is(9L));
+	}
+
+	/** Tests that documents cannot be written after the writer is closed. */
+	@Test(expected = IOException.class)
+	public void testWriteAfterClose() throws IOException {
+		final SurfDocumentSequenceWriter sequenceWriter = new SurfMessageBodyWriter().openDocumentSequence(new ByteArrayOutputStream());
+		sequenceWriter.close();
+		sequenceWriter.close(); //closing again has no effect
+		sequenceWriter.write("late");
+	}
+
+	/** An output stream that counts how many times it is flushed, and records whether it was closed. */
+	private static class FlushCountingOutputStream extends ByteArrayOutputStream {
+
+		private int flushCount = 0;
+
+		private boolean closed = false;
+
+		@Override
+		public void flush() {
+			flushCount++;
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+
+	}
+
+}
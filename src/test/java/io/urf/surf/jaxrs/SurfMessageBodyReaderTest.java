@@ -0,0 +1,269 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static java.util.Arrays.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.*;
+
+import org.junit.*;
+
+import com.globalmentor.io.ParseIOException;
+
+import io.urf.surf.*;
+
+/**
+ * Tests of {@link SurfMessageBodyReader}.
+ *
+ * @author Garret Wilson
+ */
+public class SurfMessageBodyReaderTest {
+
+	/**
+	 * Reads an entity using a new SURF message body reader.
+	 * @param surf The SURF document of the entity.
+	 * @param type The class of entity.
+	 * @param genericType The generic type of entity.
+	 * @return The entity read.
+	 * @throws IOException if there was an error reading the entity.
+	 */
+	@SuppressWarnings("unchecked")
+	private static Object read(final String surf, final Class<?> type, final Type genericType) throws IOException {
+		try (final InputStream inputStream = new ByteArrayInputStream(surf.getBytes(SURF.CHARSET))) {
+			return new SurfMessageBodyReader().readFrom((Class<Object>)type, genericType, null, null, null, inputStream);
+		}
+	}
+
+	/** Tests that only the SURF media type is readable. */
+	@Test
+	public void testIsReadable() {
+		final SurfMessageBodyReader surfMessageBodyReader = new SurfMessageBodyReader();
+		assertThat(surfMessageBodyReader.isReadable(SimpleFooBarBean.class, null, null, new MediaType("text", "surf")), is(true));
+		assertThat(surfMessageBodyReader.isReadable(SimpleFooBarBean.class, null, null, MediaType.APPLICATION_JSON_TYPE), is(false));
+	}
+
+	/** Tests reading what {@link SurfMessageBodyWriter} writes for a nested bean. */
+	@Test
+	public void testReadWrittenBean() throws IOException {
+		final SimpleFooBarBean simpleFooBarBean = new SimpleFooBarBean();
+		simpleFooBarBean.setFoo("simple");
+		final ComplexFooBarBean complexFooBarBean = new ComplexFooBarBean();
+		complexFooBarBean.setFoo("complex");
+		complexFooBarBean.setBar(simpleFooBarBean);
+		final String surf;
+		try (final ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+			new SurfMessageBodyWriter().writeTo(complexFooBarBean, null, null, null, null, null, outputStream);
+			surf = outputStream.toString(SURF.CHARSET.name());
+		}
+
+		final ComplexFooBarBean readBean = (ComplexFooBarBean)read(surf, ComplexFooBarBean.class, ComplexFooBarBean.class);
+		assertThat(readBean.getFoo(), is("complex"));
+		assertThat(readBean.getBar().getFoo(), is("simple"));
+		assertThat(readBean.getBar().getBar(), is(nullValue()));
+	}
+
+	/** Tests that properties are converted to their declared types, including the elements of generic collections and maps. */
+	@Test
+	public void testReadTypedProperties() throws IOException {
+		final TypedBean typedBean = (TypedBean)read(
+				"*TypedBean:\n  count = 3\n  amount = 2.5\n  names = [\"a\", \"b\"]\n  beans = [*SimpleFooBarBean:foo=\"x\";]\n  scores = {\"one\": 1}\n  unknown = *Whatever:foo=\"ignored\";\n;",
+				TypedBean.class, TypedBean.class);
+		assertThat(typedBean.getCount(), is(3));
+		assertThat(typedBean.getAmount(), is(2.5));
+		assertThat(typedBean.getNames(), is(asList("a", "b")));
+		assertThat(typedBean.getBeans(), hasSize(1));
+		assertThat(typedBean.getBeans().get(0).getFoo(), is("x"));
+		assertThat(typedBean.getScores(), is(Collections.singletonMap("one", 1L)));
+	}
+
+	/** Tests that an object written once and referenced by its alias is bound to a single bean, even when it refers to itself. */
+	@Test
+	public void testReadSharedAndCyclicBeans() throws IOException {
+		final CountingFooBarBean bean = new CountingFooBarBean();
+		bean.setFoo("self");
+		bean.setBar(bean);
+		final String surf;
+		try (final ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+			new SurfMessageBodyWriter().writeTo(asList(bean, bean), null, null, null, null, null, outputStream);
+			surf = outputStream.toString(SURF.CHARSET.name());
+		}
+
+		final Type listType = new GenericType<List<CountingFooBarBean>>() {}.getType();
+		final List<?> list = (List<?>)read(surf, List.class, listType);
+		assertThat(list, hasSize(2));
+		final CountingFooBarBean readBean = (CountingFooBarBean)list.get(0);
+		assertThat(readBean.getFoo(), is("self"));
+		assertThat(list.get(1), is(sameInstance(readBean)));
+		assertThat(readBean.getBar(), is(sameInstance(readBean)));
+	}
+
+	/** Tests that arrays and enums written by {@link SurfMessageBodyWriter} are read back into array and enum properties. */
+	@Test
+	public void testReadArraysAndEnums() throws IOException {
+		final SurfBeanSerializerTest.TelemetryBean telemetryBean = new SurfBeanSerializerTest.TelemetryBean();
+		telemetryBean.setCounts(new int[] {1, -2, 3});
+		telemetryBean.setReadings(new double[] {1.5, -0.25});
+		telemetryBean.setLabels(new String[] {"x", "y"});
+		telemetryBean.setUnit(TimeUnit.MINUTES);
+		final String surf;
+		try (final ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+			new SurfMessageBodyWriter().writeTo(telemetryBean, null, null, null, null, null, outputStream);
+			surf = outputStream.toString(SURF.CHARSET.name());
+		}
+
+		final SurfBeanSerializerTest.TelemetryBean readBean = (SurfBeanSerializerTest.TelemetryBean)read(surf, SurfBeanSerializerTest.TelemetryBean.class,
+				SurfBeanSerializerTest.TelemetryBean.class);
+		assertThat(readBean.getCounts(), is(new int[] {1, -2, 3}));
+		assertThat(readBean.getReadings(), is(new double[] {1.5, -0.25}));
+		assertThat(readBean.getLabels(), is(new String[] {"x", "y"}));
+		assertThat(readBean.getUnit(), is(TimeUnit.MINUTES));
+	}
+
+	/** Tests reading a list of beans using the generic entity type. */
+	@Test
+	public void testReadGenericList() throws IOException {
+		final Type listType = new GenericType<List<SimpleFooBarBean>>() {}.getType();
+		final List<?> list = (List<?>)read("[*SimpleFooBarBean:foo=\"1\";, *SimpleFooBarBean:bar=\"2\";]", List.class, listType);
+		assertThat(list, hasSize(2));
+		assertThat(((SimpleFooBarBean)list.get(0)).getFoo(), is("1"));
+		assertThat(((SimpleFooBarBean)list.get(1)).getBar(), is("2"));
+	}
+
+	/** Tests that an untyped entity is read as general SURF resources. */
+	@Test
+	public void testReadObject() throws IOException {
+		final Object object = read("*Thing:foo=\"bar\";", Object.class, Object.class);
+		assertThat(object, is(instanceOf(SurfObject.class)));
+		assertThat(((SurfObject)object).getPropertyValue("foo"), is(Optional.of("bar")));
+	}
+
+	/** Tests that an empty entity is reported as having no content. */
+	@Test(expected = NoContentException.class)
+	public void testReadEmpty() throws IOException {
+		read("\n", SimpleFooBarBean.class, SimpleFooBarBean.class);
+	}
+
+	/** Tests that a value that cannot be bound to its property is reported as a parse error, which the reader reports as a bad request. */
+	@Test(expected = ParseIOException.class)
+	public void testParseMismatchedValue() throws IOException {
+		new SurfBeanParser(new SurfMessageBodyReader()).parse(new LineNumberReader(new StringReader("*TypedBean:count=\"three\";")), TypedBean.class);
+	}
+
+	/** Tests that numbers are converted to integral properties only if they can be represented exactly. */
+	@Test
+	public void testParseInexactNumbers() throws IOException {
+		final SurfBeanParser parser = new SurfBeanParser(new SurfMessageBodyReader());
+		final TypedBean typedBean = (TypedBean)parser.parse(new LineNumberReader(new StringReader("*TypedBean:count=2.0,level=-32768,flag=127,scores={\"one\":1.0};")),
+				TypedBean.class).get();
+		assertThat(typedBean.getCount(), is(2));
+		assertThat(typedBean.getLevel(), is(Short.MIN_VALUE));
+		assertThat(typedBean.getFlag(), is(Byte.MAX_VALUE));
+		assertThat(typedBean.getScores(), is(Collections.singletonMap("one", 1L)));
+		for(final String property : new String[] {"level=70000", "level=32768", "flag=128", "flag=-129", "count=1.5", "count=3000000000",
+				"scores={\"one\":1.5}", "scores={\"one\":9223372036854775808}"}) {
+			try {
+				parser.parse(new LineNumberReader(new StringReader("*TypedBean:" + property + ";")), TypedBean.class);
+				fail(String.format("Expected %s to be rejected.", property));
+			} catch(final ParseIOException parseIOException) {
+				//the reader reports this as a bad request
+			}
+		}
+	}
+
+	/** A bean with properties of various types. */
+	public static class TypedBean {
+
+		private int count;
+
+		public int getCount() {
+			return count;
+		}
+
+		public void setCount(final int count) {
+			this.count = count;
+		}
+
+		private short level;
+
+		public short getLevel() {
+			return level;
+		}
+
+		public void setLevel(final short level) {
+			this.level = level;
+		}
+
+		private byte flag;
+
+		public byte getFlag() {
+			return flag;
+		}
+
+		public void setFlag(final byte flag) {
+			this.flag = flag;
+		}
+
+		private double amount;
+
+		public double getAmount() {
+			return amount;
+		}
+
+		public void setAmount(final double amount) {
+			this.amount = amount;
+		}
+
+		private List<String> names;
+
+		public List<String> getNames() {
+			return names;
+		}
+
+		public void setNames(final List<String> names) {
+			this.names = names;
+		}
+
+		private List<SimpleFooBarBean> beans;
+
+		public List<SimpleFooBarBean> getBeans() {
+			return beans;
+		}
+
+		public void setBeans(final List<SimpleFooBarBean> beans) {
+			this.beans = beans;
+		}
+
+		private Map<String, Long> scores;
+
+		public Map<String, Long> getScores() {
+			return scores;
+		}
+
+		public void setScores(final Map<String, Long> scores) {
+			this.scores = scores;
+		}
+
+	}
+
+}
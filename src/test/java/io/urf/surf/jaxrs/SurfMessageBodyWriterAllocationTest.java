@@ -0,0 +1,205 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.lang.annotation.Annotation;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+import javax.ws.rs.core.*;
+
+import org.junit.*;
+
+/**
+ * Allocation budget tests of {@link SurfMessageBodyWriter}, guarding against regressions in the number of bytes allocated when writing entities. Each payload
+ * is written repeatedly until the writer is warmed up, and then the bytes allocated by the writing thread are measured over further writes and divided by the
+ * number of beans, elements or entries written. Entities are written as JAX-RS writes them, with the SURF media type and mutable response headers.
+ * <p>
+ * Budgets may be overridden with system properties, e.g. <code>-Dio.urf.surf.jaxrs.allocationBudget.listElement=512</code>. The tests are skipped on JVMs that
+ * cannot measure the bytes allocated by a thread.
+ * </p>
+ * @author Garret Wilson
+ */
+public class SurfMessageBodyWriterAllocationTest {
+
+	/** The prefix of the system properties overriding the budgets, followed by the name of the budget. */
+	public static final String BUDGET_PROPERTY_PREFIX = "io.urf.surf.jaxrs.allocationBudget.";
+
+	/** The number of beans, elements or entries written to warm up the writer for each payload. */
+	private static final int WARMUP_UNIT_COUNT = 200_000;
+
+	/** The number of beans, elements or entries written while measuring allocation for each payload. */
+	private static final int MEASURED_UNIT_COUNT = 200_000;
+
+	private static final int LARGE_COLLECTION_SIZE = 1000;
+
+	private com.sun.management.ThreadMXBean threadMXBean;
+
+	private SurfMessageBodyWriter surfMessageBodyWriter;
+
+	private final MediaType surfMediaType = new MediaType("text", "surf");
+
+	private final Annotation[] annotations = new Annotation[0];
+
+	private final MultivaluedMap<String, Object> httpHeaders = new MultivaluedHashMap<>();
+
+	/** Ensures that allocation can be measured, and creates the writer. */
+	@Before
+	public void setUp() {
+		final java.lang.management.ThreadMXBean platformThreadMXBean = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue("Thread allocation cannot be measured by this JVM.", platformThreadMXBean instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean)platformThreadMXBean).isThreadAllocatedMemorySupported());
+		threadMXBean = (com.sun.management.ThreadMXBean)platformThreadMXBean;
+		threadMXBean.setThreadAllocatedMemoryEnabled(true);
+		surfMessageBodyWriter = new SurfMessageBodyWriter();
+	}
+
+	/** Tests the bytes allocated per bean writing a {@link SimpleFooBarBean}, which includes the allocation for the entire document. */
+	@Test
+	public void testSimpleBean() throws IOException {
+		final SimpleFooBarBean simpleFooBarBean = new SimpleFooBarBean();
+		simpleFooBarBean.setFoo("foo");
+		simpleFooBarBean.setBar("bar");
+		assertWithinBudget("simpleFooBarBean", simpleFooBarBean, 1);
+	}
+
+	/** Tests the bytes allocated per bean writing a {@link ComplexFooBarBean} containing a {@link SimpleFooBarBean}. */
+	@Test
+	public void testComplexBean() throws IOException {
+		final SimpleFooBarBean simpleFooBarBean = new SimpleFooBarBean();
+		simpleFooBarBean.setFoo("foo");
+		simpleFooBarBean.setBar("bar");
+		final ComplexFooBarBean complexFooBarBean = new ComplexFooBarBean();
+		complexFooBarBean.setFoo("complex");
+		complexFooBarBean.setBar(simpleFooBarBean);
+		assertWithinBudget("complexFooBarBean", complexFooBarBean, 2);
+	}
+
+	/** Tests the bytes allocated per element writing a large list of beans. */
+	@Test
+	public void testListOfBeans() throws IOException {
+		final List<SimpleFooBarBean> list = new ArrayList<>(LARGE_COLLECTION_SIZE);
+		for(int i = 0; i < LARGE_COLLECTION_SIZE; i++) {
+			final SimpleFooBarBean simpleFooBarBean = new SimpleFooBarBean();
+			simpleFooBarBean.setFoo("foo" + i);
+			list.add(simpleFooBarBean);
+		}
+		assertWithinBudget("listElement", list, LARGE_COLLECTION_SIZE);
+	}
+
+	/** Tests the bytes allocated per entry writing a large map. */
+	@Test
+	public void testMap() throws IOException {
+		final Map<String, Integer> map = new LinkedHashMap<>(LARGE_COLLECTION_SIZE * 2);
+		for(int i = 0; i < LARGE_COLLECTION_SIZE; i++) {
+			map.put("key" + i, i);
+		}
+		assertWithinBudget("mapEntry", map, LARGE_COLLECTION_SIZE);
+	}
+
+	/** Tests the bytes allocated per element writing a large primitive array. */
+	@Test
+	public void testPrimitiveArray() throws IOException {
+		final long[] array = new long[LARGE_COLLECTION_SIZE];
+		for(int i = 0; i < LARGE_COLLECTION_SIZE; i++) {
+			array[i] = i * 1_000_003L;
+		}
+		assertWithinBudget("arrayElement", array, LARGE_COLLECTION_SIZE);
+	}
+
+	/**
+	 * Determines the budget of bytes allocated per unit written.
+	 * @param name The name of the budget.
+	 * @return The budget, which may be overridden by the system property {@value #BUDGET_PROPERTY_PREFIX} followed by the name.
+	 * @throws IllegalArgumentException if no default budget exists with the given name.
+	 */
+	private static long getBudget(final String name) {
+		final long defaultBudget;
+		switch(name) {
+			case "simpleFooBarBean": //mostly the fixed cost of each document: about 1.2 KB for the identity maps SurfSerializer creates, plus the response header
+				defaultBudget = 2560;
+				break;
+			case "complexFooBarBean": //the fixed cost of each document shared by two beans
+				defaultBudget = 1408;
+				break;
+			case "listElement":
+				defaultBudget = 384;
+				break;
+			case "mapEntry":
+				defaultBudget = 256;
+				break;
+			case "arrayElement":
+				defaultBudget = 8;
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown allocation budget: " + name);
+		}
+		return Long.getLong(BUDGET_PROPERTY_PREFIX + name, defaultBudget);
+	}
+
+	/**
+	 * Writes an entity repeatedly and asserts that the bytes allocated per unit written are within budget.
+	 * @param budgetName The name of the budget.
+	 * @param entity The entity to write.
+	 * @param unitCount The number of units, such as beans, elements or entries, in the entity.
+	 * @throws IOException if there was an error writing the entity.
+	 */
+	private void assertWithinBudget(final String budgetName, final Object entity, final int unitCount) throws IOException {
+		final OutputStream outputStream = new DiscardingOutputStream();
+		for(int i = 0; i < Math.max(1, WARMUP_UNIT_COUNT / unitCount); i++) {
+			write(entity, outputStream);
+		}
+		final long threadId = Thread.currentThread().getId();
+		final int writeCount = Math.max(1, MEASURED_UNIT_COUNT / unitCount);
+		final long startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+		for(int i = 0; i < writeCount; i++) {
+			write(entity, outputStream);
+		}
+		final long bytesPerUnit = (threadMXBean.getThreadAllocatedBytes(threadId) - startBytes) / ((long)writeCount * unitCount);
+		assertThat(String.format("Bytes allocated per %s writing %s: %d.", budgetName, entity.getClass().getSimpleName(), bytesPerUnit), bytesPerUnit,
+				lessThanOrEqualTo(getBudget(budgetName)));
+	}
+
+	/**
+	 * Writes an entity as JAX-RS would, reusing the response headers.
+	 * @param entity The entity to write.
+	 * @param outputStream The stream to which to write the entity.
+	 * @throws IOException if there was an error writing the entity.
+	 */
+	private void write(final Object entity, final OutputStream outputStream) throws IOException {
+		httpHeaders.clear();
+		surfMessageBodyWriter.writeTo(entity, entity.getClass(), entity.getClass(), annotations, surfMediaType, httpHeaders, outputStream);
+	}
+
+	/** An output stream that discards everything written to it, so that only the allocation of the writer is measured. */
+	private static final class DiscardingOutputStream extends OutputStream {
+
+		@Override
+		public void write(final int b) {
+		}
+
+		@Override
+		public void write(final byte[] bytes, final int offset, final int length) {
+		}
+
+	}
+
+}
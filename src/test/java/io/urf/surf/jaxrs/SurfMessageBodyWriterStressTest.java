@@ -0,0 +1,242 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static java.util.Arrays.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+import java.util.stream.*;
+
+import javax.ws.rs.core.*;
+
+import org.junit.*;
+
+import io.urf.surf.SURF;
+
+/**
+ * Stress tests of a single {@link SurfMessageBodyWriter} shared by many threads, as a JAX-RS provider is, with its representation cache and instrumentation
+ * enabled. A mix of entities is written concurrently by increasing numbers of platform threads and, if the JVM supports them, virtual threads; every
+ * representation is compared to the one written by a fresh writer on a single thread.
+ * <p>
+ * The throughput at each thread count is reported if the system property {@value #REPORT_PROPERTY} is <code>true</code>, e.g.
+ * <code>-Dio.urf.surf.jaxrs.stressTest.report=true</code>.
+ * </p>
+ * @author Garret Wilson
+ */
+public class SurfMessageBodyWriterStressTest {
+
+	/** The system property which, if <code>true</code>, enables reporting the throughput at each thread count. */
+	public static final String REPORT_PROPERTY = "io.urf.surf.jaxrs.stressTest.report";
+
+	/** The number of entities written at each thread count, divided evenly among the threads. */
+	private static final int WRITE_COUNT = 3200;
+
+	private static final int[] PLATFORM_THREAD_COUNTS = {1, 2, 4, 8, 16, 32};
+
+	private static final int[] VIRTUAL_THREAD_COUNTS = {1, 4, 16, 64, 256, 1600};
+
+	private SurfMessageBodyWriter surfMessageBodyWriter;
+
+	private InMemorySurfWriterInstrumentation instrumentation;
+
+	private List<Payload> payloads;
+
+	/** Creates the shared writer and the payloads, along with their expected representations. */
+	@Before
+	public void setUp() throws Exception {
+		surfMessageBodyWriter = new SurfMessageBodyWriter();
+		surfMessageBodyWriter.setRepresentationCache(new SurfRepresentationCache());
+		instrumentation = new InMemorySurfWriterInstrumentation();
+		surfMessageBodyWriter.setInstrumentation(instrumentation);
+
+		final SimpleFooBarBean simpleFooBarBean = new SimpleFooBarBean();
+		simpleFooBarBean.setFoo("foo");
+		simpleFooBarBean.setBar("bar");
+		final ComplexFooBarBean complexFooBarBean = new ComplexFooBarBean();
+		complexFooBarBean.setFoo("complex");
+		complexFooBarBean.setBar(simpleFooBarBean);
+		final SurfBeanSerializerTest.TelemetryBean telemetryBean = new SurfBeanSerializerTest.TelemetryBean();
+		telemetryBean.setCounts(new int[] {1, -2, 3});
+		telemetryBean.setReadings(new double[] {1.5, -0.25});
+		telemetryBean.setLabels(new String[] {"x", "y"});
+		telemetryBean.setUnit(TimeUnit.SECONDS);
+		final Map<String, Object> map = new LinkedHashMap<>();
+		map.put("simple", simpleFooBarBean);
+		map.put("numbers", asList(1, 2, 3));
+		final List<SimpleFooBarBean> largeList = IntStream.range(0, 500).mapToObj(i -> {
+			final SimpleFooBarBean bean = new SimpleFooBarBean();
+			bean.setFoo("foo" + i);
+			return bean;
+		}).collect(Collectors.toList()); //larger than the content length threshold, so that it is streamed
+		final SurfMessageBodyWriterTest.CacheableFooBarBean cacheableBean = new SurfMessageBodyWriterTest.CacheableFooBarBean();
+		cacheableBean.setFoo("cached");
+		final Method projectedMethod = SurfMessageBodyWriterTest.ProjectedResource.class.getMethod("getFoo");
+		final MediaType formattedMediaType = new MediaType("text", "surf", Collections.singletonMap(SurfMessageBodyWriter.FORMATTED_PARAMETER, "true"));
+
+		payloads = asList(new Payload(() -> simpleFooBarBean), new Payload(() -> complexFooBarBean),
+				new Payload(() -> asList(simpleFooBarBean, complexFooBarBean, simpleFooBarBean)), new Payload(() -> telemetryBean), new Payload(() -> map),
+				new Payload(() -> largeList), new Payload(() -> Stream.of(simpleFooBarBean, complexFooBarBean)), new Payload(() -> cacheableBean),
+				new Payload(() -> complexFooBarBean, null, formattedMediaType),
+				new Payload(() -> complexFooBarBean, projectedMethod.getAnnotations(), null),
+				new Payload(() -> RawSurf.of("*Thing:foo=\"raw\";".getBytes(SURF.CHARSET))));
+		for(final Payload payload : payloads) {
+			payload.expected = write(new SurfMessageBodyWriter(), payload);
+		}
+	}
+
+	/** Tests writing concurrently from platform threads. */
+	@Test
+	public void testPlatformThreads() throws Exception {
+		for(final int threadCount : PLATFORM_THREAD_COUNTS) {
+			final ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+			try {
+				stress("platform", threadCount, executorService);
+			} finally {
+				executorService.shutdown();
+			}
+		}
+		assertNoFailures();
+	}
+
+	/** Tests writing concurrently from virtual threads; skipped if the JVM does not support virtual threads. */
+	@Test
+	public void testVirtualThreads() throws Exception {
+		final Method newVirtualThreadPerTaskExecutor;
+		try {
+			newVirtualThreadPerTaskExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		} catch(final NoSuchMethodException noSuchMethodException) {
+			Assume.assumeNoException("Virtual threads are not supported by this JVM.", noSuchMethodException);
+			return;
+		}
+		for(final int threadCount : VIRTUAL_THREAD_COUNTS) {
+			final ExecutorService executorService = (ExecutorService)newVirtualThreadPerTaskExecutor.invoke(null);
+			try {
+				stress("virtual", threadCount, executorService);
+			} finally {
+				executorService.shutdown();
+			}
+		}
+		assertNoFailures();
+	}
+
+	/**
+	 * Writes {@value #WRITE_COUNT} entities from the given number of threads at once, checking each representation and reporting the throughput.
+	 * @param threadKind The kind of thread, for reporting.
+	 * @param threadCount The number of threads to write from.
+	 * @param executorService The executor providing at least the given number of threads.
+	 * @throws Exception if a representation was not as expected, or if an entity could not be written.
+	 */
+	private void stress(final String threadKind, final int threadCount, final ExecutorService executorService) throws Exception {
+		final int writesPerThread = WRITE_COUNT / threadCount;
+		final CountDownLatch readyLatch = new CountDownLatch(threadCount);
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		final List<Future<?>> futures = new ArrayList<>(threadCount);
+		for(int thread = 0; thread < threadCount; thread++) {
+			final int firstPayloadIndex = thread; //start each thread on a different payload
+			futures.add(executorService.submit(() -> {
+				readyLatch.countDown();
+				startLatch.await();
+				for(int i = 0; i < writesPerThread; i++) {
+					final Payload payload = payloads.get((firstPayloadIndex + i) % payloads.size());
+					assertThat(write(surfMessageBodyWriter, payload), equalTo(payload.expected));
+				}
+				return null;
+			}));
+		}
+		readyLatch.await();
+		final long startNanos = System.nanoTime();
+		startLatch.countDown();
+		for(final Future<?> future : futures) {
+			try {
+				future.get(1, TimeUnit.MINUTES);
+			} catch(final ExecutionException executionException) {
+				final Throwable cause = executionException.getCause();
+				throw cause instanceof Exception ? (Exception)cause : executionException;
+			}
+		}
+		final long elapsedNanos = System.nanoTime() - startNanos;
+		if(Boolean.getBoolean(REPORT_PROPERTY)) {
+			System.out.println(String.format("%s: %d %s threads wrote %d entities at %.0f entities/s.", getClass().getSimpleName(), threadCount, threadKind,
+					writesPerThread * threadCount, writesPerThread * threadCount * 1e9 / elapsedNanos));
+		}
+	}
+
+	/** Asserts that the instrumentation recorded no failed writes. */
+	private void assertNoFailures() {
+		for(final InMemorySurfWriterInstrumentation.Statistics statistics : instrumentation.getStatistics().values()) {
+			assertThat(statistics.toString(), statistics.getFailureCount(), is(0L));
+		}
+	}
+
+	/**
+	 * Writes a payload with a writer, as JAX-RS would.
+	 * @param writer The writer to use.
+	 * @param payload The payload to write.
+	 * @return The representation written.
+	 * @throws IOException if there was an error writing the representation.
+	 */
+	private static String write(final SurfMessageBodyWriter writer, final Payload payload) throws IOException {
+		final Object entity = payload.entity.get();
+		try (final ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+			writer.writeTo(entity, entity.getClass(), entity.getClass(), payload.annotations, payload.mediaType, new MultivaluedHashMap<>(), outputStream);
+			return outputStream.toString(SURF.CHARSET.name());
+		}
+	}
+
+	/** An entity to write, along with the way it is written and its expected representation. */
+	private static final class Payload {
+
+		/** The supplier of the entity, which supplies a new instance of any entity that can only be written once. */
+		private final Supplier<?> entity;
+
+		private final Annotation[] annotations;
+
+		private final MediaType mediaType;
+
+		/** The representation written by a fresh writer on a single thread. */
+		private String expected;
+
+		/**
+		 * Entity constructor.
+		 * @param entity The supplier of the entity.
+		 */
+		public Payload(final Supplier<?> entity) {
+			this(entity, null, null);
+		}
+
+		/**
+		 * Constructor.
+		 * @param entity The supplier of the entity.
+		 * @param annotations The annotations of the resource method, or <code>null</code> if none.
+		 * @param mediaType The media type of the representation, or <code>null</code> if not known.
+		 */
+		public Payload(final Supplier<?> entity, final Annotation[] annotations, final MediaType mediaType) {
+			this.entity = entity;
+			this.annotations = annotations;
+			this.mediaType = mediaType;
+		}
+
+	}
+
+}
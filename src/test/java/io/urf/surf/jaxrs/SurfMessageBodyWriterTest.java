@@ -16,12 +16,16 @@
 
 package io.urf.surf.jaxrs;
 
+import static java.util.Arrays.*;
 import static org.junit.Assert.*;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import java.util.stream.*;
 
-import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.*;
 
 import static org.hamcrest.Matchers.*;
 
@@ -48,7 +52,7 @@ public class SurfMessageBodyWriterTest {
 	public void testWriteToWithEmptyJavaBean() throws IOException {
 
 		final SurfSerializer serializer = new SurfSerializer();
-		serializer.setFormatted(true);
+		serializer.setFormatted(false);
 
 		final SurfMessageBodyWriter surfMessageBodyWriter = new SurfMessageBodyWriter();
 
@@ -74,7 +78,7 @@ public void testWriteToWithEmptyJavaBean() throws IOException {
 	public void testWriteToWithSimpleJavaBean() throws IOException {
 
 		final SurfSerializer serializer = new SurfSerializer();
-		serializer.setFormatted(true);
+		serializer.setFormatted(false);
 
 		final SurfMessageBodyWriter surfMessageBodyWriter = new SurfMessageBodyWriter();
 
@@ -107,7 +111,7 @@ public void testWriteToWithSimpleJavaBean() throws IOException {
 	public void testWriteToWithJavaBeanOnlyWithFoo() throws IOException {
 
 		final SurfSerializer serializer = new SurfSerializer();
-		serializer.setFormatted(true);
+		serializer.setFormatted(false);
 
 		final SurfMessageBodyWriter surfMessageBodyWriter = new SurfMessageBodyWriter();
 
@@ -138,7 +142,7 @@ public void testWriteToWithJavaBeanOnlyWithFoo() throws IOException {
 	public void testWriteToWithComplexJavaBean() throws IOException {
 
 		final SurfSerializer serializer = new SurfSerializer();
-		serializer.setFormatted(true);
+		serializer.setFormatted(false);
 
 		final SurfMessageBodyWriter surfMessageBodyWriter = new SurfMessageBodyWriter();
 
@@ -187,6 +191,462 @@ public void testWriteToWithNullObject() throws IOException {
 
 	}
 
+	/**
+	 * Tests that the serialization plan of a bean class is compiled once and reused for later requests.
+	 */
+	@Test
+	public void testSerializationPlanCached() {
+		final SurfMessageBodyWriter surfMessageBodyWriter = new SurfMessageBodyWriter();
+
+		final SerializationPlan<SimpleFooBarBean> serializationPlan = surfMessageBodyWriter.getSerializationPlan(SimpleFooBarBean.class);
+		assertThat(serializationPlan.getTypeHandle(), is("SimpleFooBarBean"));
+		assertThat(surfMessageBodyWriter.getSerializationPlan(SimpleFooBarBean.class), is(sameInstance(serializationPlan)));
+	}
+
+	/**
+	 * Tests that each bean getter is invoked exactly once when a bean graph is written.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	@Test
+	public void testWriteToInvokesGettersOnce() throws IOException {
+		final SurfMessageBodyWriter surfMessageBodyWriter = new SurfMessageBodyWriter();
+
+		final CountingFooBarBean innerBean = new CountingFooBarBean();
+		innerBean.setFoo("inner");
+		final CountingFooBarBean outerBean = new CountingFooBarBean();
+		outerBean.setFoo("outer");
+		outerBean.setBar(innerBean);
+
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			surfMessageBodyWriter.writeTo(outerBean, null, null, null, null, null, baos);
+		}
+
+		assertThat(outerBean.getFooGetCount(), is(1));
+		assertThat(outerBean.getBarGetCount(), is(1));
+		assertThat(innerBean.getFooGetCount(), is(1));
+		assertThat(innerBean.getBarGetCount(), is(1));
+	}
+
+	/**
+	 * Tests that {@link SurfMessageBodyWriter#getTypeCategory(Class)} categorizes types correctly.
+	 */
+	@Test
+	public void testTypeCategory() {
+		final SurfMessageBodyWriter surfMessageBodyWriter = new SurfMessageBodyWriter();
+
+		assertThat(surfMessageBodyWriter.getTypeCategory(String.class), is(SurfTypeCategory.NATIVE));
+		assertThat(surfMessageBodyWriter.getTypeCategory(AtomicLong.class), is(SurfTypeCategory.NATIVE));
+		assertThat(surfMessageBodyWriter.getTypeCategory(SurfObject.class), is(SurfTypeCategory.NATIVE));
+		assertThat(surfMessageBodyWriter.getTypeCategory(ArrayList.class), is(SurfTypeCategory.LIST));
+		assertThat(surfMessageBodyWriter.getTypeCategory(ArrayDeque.class), is(SurfTypeCategory.LIST));
+		assertThat(surfMessageBodyWriter.getTypeCategory(TreeSet.class), is(SurfTypeCategory.SET));
+		assertThat(surfMessageBodyWriter.getTypeCategory(LinkedHashMap.class), is(SurfTypeCategory.MAP));
+		assertThat(surfMessageBodyWriter.getTypeCategory(SimpleFooBarBean.class), is(SurfTypeCategory.BEAN));
+	}
+
+	/**
+	 * Tests that objects with a registered converter are serialized as their converted values.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	@Test
+	public void testRegisterConverter() throws IOException {
+		final SurfMessageBodyWriter surfMessageBodyWriter = new SurfMessageBodyWriter();
+		assertThat(surfMessageBodyWriter.getTypeCategory(Currency.class), is(SurfTypeCategory.BEAN));
+		surfMessageBodyWriter.registerConverter(Currency.class, Currency::getCurrencyCode);
+		assertThat(surfMessageBodyWriter.getTypeCategory(Currency.class), is(SurfTypeCategory.CUSTOM));
+
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			surfMessageBodyWriter.writeTo(Arrays.asList(Currency.getInstance("USD")), null, null, null, null, null, baos);
+
+			final SurfSerializer serializer = new SurfSerializer();
+			serializer.setFormatted(false);
+			assertThat(baos.toString(SURF.CHARSET.name()), equalTo(serializer.serialize(new ArrayList<>(Arrays.asList("USD")))));
+		}
+
+		surfMessageBodyWriter.registerConverter(Currency.class, Currency::getSymbol);
+		assertThat(surfMessageBodyWriter.convert(Currency.getInstance("USD")), is((Object)"USD")); //the first converter registered is used
+		try {
+			surfMessageBodyWriter.convert(Locale.US);
+			fail("Expected no converter to be registered.");
+		} catch(final IllegalArgumentException illegalArgumentException) {
+			//expected
+		}
+		surfMessageBodyWriter.registerConverter(Locale.class, Locale::toLanguageTag);
+		assertThat(surfMessageBodyWriter.convert(Locale.US), is((Object)"en-US")); //converters are found anew after registration
+	}
+
+	/**
+	 * Tests that output is compact by default, and formatted when requested through the media type or an annotation.
+	 * 
+	 * @throws Exception If an error occurs.
+	 */
+	@Test
+	public void testFormattedOutput() throws Exception {
+		final SimpleFooBarBean simpleFooBarBean = new SimpleFooBarBean();
+		simpleFooBarBean.setFoo("fooValue");
+		final SurfObject surfObject = new SurfObject("SimpleFooBarBean");
+		surfObject.setPropertyValue("foo", "fooValue");
+		final SurfSerializer serializer = new SurfSerializer();
+		serializer.setFormatted(true);
+		final String formatted = serializer.serialize(surfObject);
+		serializer.setFormatted(false);
+		final String compact = serializer.serialize(surfObject);
+		assertThat(formatted, not(equalTo(compact)));
+
+		final SurfMessageBodyWriter surfMessageBodyWriter = new SurfMessageBodyWriter();
+		final MediaType surfMediaType = new MediaType("text", "surf");
+		final MediaType formattedSurfMediaType = new MediaType("text", "surf", Collections.singletonMap(SurfMessageBodyWriter.FORMATTED_PARAMETER, "true"));
+		final java.lang.annotation.Annotation[] formattedAnnotations = getClass().getDeclaredMethod("formattedResourceMethod").getAnnotations();
+
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			surfMessageBodyWriter.writeTo(simpleFooBarBean, null, null, null, surfMediaType, null, baos);
+			assertThat(baos.toString(SURF.CHARSET.name()), equalTo(compact));
+		}
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			surfMessageBodyWriter.writeTo(simpleFooBarBean, null, null, null, formattedSurfMediaType, null, baos);
+			assertThat(baos.toString(SURF.CHARSET.name()), equalTo(formatted));
+		}
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			surfMessageBodyWriter.writeTo(simpleFooBarBean, null, null, formattedAnnotations, surfMediaType, null, baos);
+			assertThat(baos.toString(SURF.CHARSET.name()), equalTo(formatted));
+		}
+	}
+
+	/** A resource method requesting formatted output, for retrieving its annotations. */
+	@SurfFormatted
+	private void formattedResourceMethod() {
+	}
+
+	/**
+	 * Tests that the content length of entities no larger than the threshold is reported, and that larger entities are streamed without it.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	@Test
+	public void testContentLength() throws IOException {
+		final SimpleFooBarBean simpleFooBarBean = new SimpleFooBarBean();
+		simpleFooBarBean.setFoo("fooValue");
+		simpleFooBarBean.setBar("barValue");
+
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			final MultivaluedMap<String, Object> httpHeaders = new MultivaluedHashMap<>();
+			new SurfMessageBodyWriter().writeTo(simpleFooBarBean, null, null, null, null, httpHeaders, baos);
+			assertThat(httpHeaders.getFirst(HttpHeaders.CONTENT_LENGTH), is((Object)baos.size()));
+		}
+
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			final MultivaluedMap<String, Object> httpHeaders = new MultivaluedHashMap<>();
+			new SurfMessageBodyWriter(SurfMessageBodyWriter.DEFAULT_MAX_SERIALIZATION_PLAN_COUNT, 10).writeTo(simpleFooBarBean, null, null, null, null, httpHeaders,
+					baos);
+			assertThat(httpHeaders.containsKey(HttpHeaders.CONTENT_LENGTH), is(false));
+
+			final SurfSerializer serializer = new SurfSerializer();
+			final SurfObject surfObject = new SurfObject("SimpleFooBarBean");
+			surfObject.setPropertyValue("foo", "fooValue");
+			surfObject.setPropertyValue("bar", "barValue");
+			assertThat(baos.toString(SURF.CHARSET.name()), equalTo(serializer.serialize(surfObject)));
+		}
+	}
+
+	/**
+	 * Tests that streams, iterators and iterables are written as SURF lists, and that a stream is closed after it is written.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	@Test
+	public void testWriteStream() throws IOException {
+		final SurfMessageBodyWriter surfMessageBodyWriter = new SurfMessageBodyWriter();
+		final SimpleFooBarBean simpleFooBarBean = new SimpleFooBarBean();
+		simpleFooBarBean.setFoo("fooValue");
+		final SurfObject surfObject = new SurfObject("SimpleFooBarBean");
+		surfObject.setPropertyValue("foo", "fooValue");
+		final SurfSerializer serializer = new SurfSerializer();
+		final String expected = serializer.serialize(new ArrayList<>(Arrays.asList(surfObject, "bar", 123)));
+
+		final AtomicBoolean closed = new AtomicBoolean(false);
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			surfMessageBodyWriter.writeTo(Stream.of(simpleFooBarBean, "bar", 123).onClose(() -> closed.set(true)), null, null, null, null, null, baos);
+			assertThat(baos.toString(SURF.CHARSET.name()), equalTo(expected));
+		}
+		assertThat(closed.get(), is(true));
+
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			surfMessageBodyWriter.writeTo(Arrays.asList(simpleFooBarBean, "bar", 123).iterator(), null, null, null, null, null, baos);
+			assertThat(baos.toString(SURF.CHARSET.name()), equalTo(expected));
+		}
+
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			final Iterable<Object> iterable = () -> Arrays.<Object>asList(simpleFooBarBean, "bar", 123).iterator();
+			surfMessageBodyWriter.writeTo(iterable, null, null, null, null, null, baos);
+			assertThat(baos.toString(SURF.CHARSET.name()), equalTo(expected));
+		}
+
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			surfMessageBodyWriter.writeTo(Stream.empty(), null, null, null, null, null, baos);
+			assertThat(baos.toString(SURF.CHARSET.name()), equalTo(serializer.serialize(new ArrayList<>())));
+		}
+	}
+
+	/**
+	 * Tests that a stream is closed even if no iterator could be obtained from it, and that a failure to close it does not replace the failure writing it.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	@Test
+	public void testWriteStreamFailure() throws IOException {
+		final SurfMessageBodyWriter surfMessageBodyWriter = new SurfMessageBodyWriter();
+		final AtomicBoolean closed = new AtomicBoolean(false);
+		final Stream<Object> consumedStream = Stream.<Object>of("foo").onClose(() -> closed.set(true));
+		consumedStream.count();
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			surfMessageBodyWriter.writeTo(consumedStream, null, null, null, null, null, baos);
+			fail("Expected an iterator not to be available from a consumed stream.");
+		} catch(final IllegalStateException illegalStateException) {
+			//expected
+		}
+		assertThat(closed.get(), is(true));
+
+		final Stream<Object> failingStream = Stream.<Object>of("foo").map(element -> {
+			throw new IllegalArgumentException("element");
+		}).onClose(() -> {
+			throw new IllegalStateException("close");
+		});
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			surfMessageBodyWriter.writeTo(failingStream, null, null, null, null, null, baos);
+			fail("Expected the stream not to be written.");
+		} catch(final IllegalArgumentException illegalArgumentException) {
+			assertThat(illegalArgumentException.getMessage(), is("element"));
+			assertThat(illegalArgumentException.getSuppressed().length, is(1));
+			assertThat(illegalArgumentException.getSuppressed()[0].getMessage(), is("close"));
+		}
+	}
+
+	/**
+	 * Tests that a long stream is flushed to the entity stream in batches as it is written.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	@Test
+	public void testWriteStreamFlushesInBatches() throws IOException {
+		final SurfMessageBodyWriter surfMessageBodyWriter = new SurfMessageBodyWriter(SurfMessageBodyWriter.DEFAULT_MAX_SERIALIZATION_PLAN_COUNT, 0);
+		final AtomicInteger flushCount = new AtomicInteger(0);
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream() {
+			@Override
+			public void flush() throws IOException {
+				flushCount.incrementAndGet();
+				super.flush();
+			}
+		}) {
+			surfMessageBodyWriter.writeTo(IntStream.range(0, SurfBeanSerializer.STREAMED_ELEMENTS_PER_FLUSH * 3), null, null, null, null, null, baos);
+			assertThat(flushCount.get(), greaterThanOrEqualTo(3));
+		}
+	}
+
+	/**
+	 * Tests that writes, failures and serialization plan cache use are recorded by the instrumentation.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	@Test
+	public void testInstrumentation() throws IOException {
+		final SurfMessageBodyWriter surfMessageBodyWriter = new SurfMessageBodyWriter();
+		final InMemorySurfWriterInstrumentation instrumentation = new InMemorySurfWriterInstrumentation();
+		surfMessageBodyWriter.setInstrumentation(instrumentation);
+
+		final SimpleFooBarBean simpleFooBarBean = new SimpleFooBarBean();
+		simpleFooBarBean.setFoo("fooValue");
+		final ComplexFooBarBean complexFooBarBean = new ComplexFooBarBean();
+		complexFooBarBean.setFoo("complex");
+		complexFooBarBean.setBar(simpleFooBarBean);
+		long byteCount = 0;
+		for(int i = 0; i < 2; i++) {
+			try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+				surfMessageBodyWriter.writeTo(complexFooBarBean, null, null, null, null, null, baos);
+				byteCount += baos.size();
+			}
+		}
+
+		final InMemorySurfWriterInstrumentation.Statistics complexStatistics = instrumentation.findStatistics(ComplexFooBarBean.class).get();
+		assertThat(complexStatistics.getWriteCount(), is(2L));
+		assertThat(complexStatistics.getFailureCount(), is(0L));
+		assertThat(complexStatistics.getByteCount(), is(byteCount));
+		assertThat(complexStatistics.getObjectCount(), is(4L));
+		assertThat(complexStatistics.getPropertyCount(), is(6L));
+		assertThat(complexStatistics.getSerializationPlanCacheMissCount(), is(1L));
+		assertThat(complexStatistics.getSerializationPlanCacheHitCount(), is(1L)); //the plan of each bean is looked up once per write
+		final InMemorySurfWriterInstrumentation.Statistics simpleStatistics = instrumentation.findStatistics(SimpleFooBarBean.class).get();
+		assertThat(simpleStatistics.getWriteCount(), is(0L));
+		assertThat(simpleStatistics.getSerializationPlanCacheMissCount(), is(1L));
+		assertThat(simpleStatistics.getSerializationPlanCacheHitCount(), is(1L));
+
+		surfMessageBodyWriter.registerConverter(Currency.class, currency -> null); //a converter may not return null
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			surfMessageBodyWriter.writeTo(Currency.getInstance("USD"), null, null, null, null, null, baos);
+			fail("Expected failure writing entity.");
+		} catch(final NullPointerException nullPointerException) {
+			//expected
+		}
+		assertThat(instrumentation.findStatistics(Currency.getInstance("USD").getClass()).get().getFailureCount(), is(1L));
+	}
+
+	/**
+	 * Tests that the representations of cacheable entities are written from the cache, with their length and entity tag, and that other entities are not
+	 * cached.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	@Test
+	public void testRepresentationCache() throws IOException {
+		final SurfMessageBodyWriter surfMessageBodyWriter = new SurfMessageBodyWriter();
+		final SurfRepresentationCache representationCache = new SurfRepresentationCache();
+		surfMessageBodyWriter.setRepresentationCache(representationCache);
+		final CacheableFooBarBean cacheableBean = new CacheableFooBarBean();
+		cacheableBean.setFoo("original");
+
+		final String surf;
+		final Object entityTag;
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			final MultivaluedMap<String, Object> httpHeaders = new MultivaluedHashMap<>();
+			surfMessageBodyWriter.writeTo(cacheableBean, null, null, null, null, httpHeaders, baos);
+			surf = baos.toString(SURF.CHARSET.name());
+			assertThat(httpHeaders.getFirst(HttpHeaders.CONTENT_LENGTH), is((Object)baos.size()));
+			entityTag = httpHeaders.getFirst(HttpHeaders.ETAG);
+			assertThat(entityTag, is(notNullValue()));
+		}
+		assertThat(surf, containsString("original"));
+		assertThat(representationCache.getSize(), is(1));
+
+		cacheableBean.setFoo("modified"); //cached entities are not expected to change, so the cached representation will be written
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			final MultivaluedMap<String, Object> httpHeaders = new MultivaluedHashMap<>();
+			surfMessageBodyWriter.writeTo(cacheableBean, null, null, null, null, httpHeaders, baos);
+			assertThat(baos.toString(SURF.CHARSET.name()), is(surf));
+			assertThat(httpHeaders.getFirst(HttpHeaders.ETAG), is(entityTag));
+		}
+
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) { //the formatted representation is cached separately
+			surfMessageBodyWriter.writeTo(cacheableBean, null, null, null, new MediaType("text", "surf", Collections.singletonMap("formatted", "true")), null,
+					baos);
+			assertThat(baos.toString(SURF.CHARSET.name()), containsString("modified"));
+		}
+		assertThat(representationCache.getSize(), is(2));
+
+		final SimpleFooBarBean simpleFooBarBean = new SimpleFooBarBean();
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			final MultivaluedMap<String, Object> httpHeaders = new MultivaluedHashMap<>();
+			surfMessageBodyWriter.writeTo(simpleFooBarBean, null, null, null, null, httpHeaders, baos);
+			assertThat(httpHeaders.containsKey(HttpHeaders.ETAG), is(false));
+		}
+		assertThat(surfMessageBodyWriter.findRepresentation(simpleFooBarBean, null, null, null).isPresent(), is(false));
+		assertThat(surfMessageBodyWriter.findRepresentation(cacheableBean, null, null, null).get().getEntityTag(), is(entityTag));
+		assertThat(representationCache.getSize(), is(2));
+	}
+
+	/** A bean the representations of which may be cached. */
+	@SurfCacheable
+	public static class CacheableFooBarBean extends SimpleFooBarBean {
+	}
+
+	/**
+	 * Tests that only the bean properties selected by a projection are read and written, including nested selections, and that projected entities are not
+	 * cached.
+	 * 
+	 * @throws Exception If an error occurs.
+	 */
+	@Test
+	public void testProjection() throws Exception {
+		final SurfMessageBodyWriter surfMessageBodyWriter = new SurfMessageBodyWriter();
+		surfMessageBodyWriter.setRepresentationCache(new SurfRepresentationCache());
+		final CountingFooBarBean countingBean = new CountingFooBarBean();
+		countingBean.setFoo("fooValue");
+		countingBean.setBar(new CountingFooBarBean());
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			surfMessageBodyWriter.writeTo(countingBean, null, null, ProjectedResource.class.getMethod("getFoo").getAnnotations(), null, null, baos);
+			assertThat(baos.toString(SURF.CHARSET.name()), equalTo("*CountingFooBarBean:foo=\"fooValue\";"));
+		}
+		assertThat(countingBean.getFooGetCount(), is(1));
+		assertThat(countingBean.getBarGetCount(), is(0)); //excluded getters are not called
+
+		final SimpleFooBarBean simpleFooBarBean = new SimpleFooBarBean();
+		simpleFooBarBean.setFoo("simpleFoo");
+		simpleFooBarBean.setBar("simpleBar");
+		final ComplexFooBarBean complexFooBarBean = new ComplexFooBarBean();
+		complexFooBarBean.setFoo("complexFoo");
+		complexFooBarBean.setBar(simpleFooBarBean);
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			surfMessageBodyWriter.writeTo(asList(complexFooBarBean), null, null, ProjectedResource.class.getMethod("getNested").getAnnotations(), null, null,
+					baos);
+			assertThat(baos.toString(SURF.CHARSET.name()), equalTo("[*ComplexFooBarBean:bar=*SimpleFooBarBean:foo=\"simpleFoo\";;]"));
+		}
+		assertThat(surfMessageBodyWriter.getRepresentationCache().get().getSize(), is(0));
+
+		final SerializationPlan<ComplexFooBarBean> serializationPlan = surfMessageBodyWriter.getSerializationPlan(ComplexFooBarBean.class);
+		assertThat(serializationPlan.project(SurfProjection.ALL), is(sameInstance(serializationPlan)));
+		assertThat(serializationPlan.project(SurfProjection.parse("foo")), is(sameInstance(serializationPlan.project(SurfProjection.parse("foo")))));
+	}
+
+	/**
+	 * Tests that the {@value SurfMessageBodyWriter#FIELDS_QUERY_PARAMETER} query parameter is ignored unless enabled, and that it may only narrow the selection
+	 * of an annotation.
+	 * 
+	 * @throws Exception If an error occurs.
+	 */
+	@Test
+	public void testProjectionQueryParameter() throws Exception {
+		final SurfMessageBodyWriter surfMessageBodyWriter = new SurfMessageBodyWriter();
+		final MultivaluedMap<String, String> queryParameters = new MultivaluedHashMap<>();
+		final UriInfo uriInfo = (UriInfo)java.lang.reflect.Proxy.newProxyInstance(UriInfo.class.getClassLoader(), new Class<?>[] {UriInfo.class},
+				(proxy, method, args) -> {
+					assertThat(method.getName(), is("getQueryParameters"));
+					return queryParameters;
+				});
+		final java.lang.reflect.Field uriInfoField = SurfMessageBodyWriter.class.getDeclaredField("uriInfo");
+		uriInfoField.setAccessible(true);
+		uriInfoField.set(surfMessageBodyWriter, uriInfo);
+		queryParameters.putSingle(SurfMessageBodyWriter.FIELDS_QUERY_PARAMETER, "bar");
+		final SimpleFooBarBean simpleFooBarBean = new SimpleFooBarBean();
+		simpleFooBarBean.setFoo("fooValue");
+		simpleFooBarBean.setBar("barValue");
+
+		assertThat(surfMessageBodyWriter.isFieldsQueryParameterEnabled(), is(false));
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			surfMessageBodyWriter.writeTo(simpleFooBarBean, null, null, null, null, null, baos);
+			assertThat(baos.toString(SURF.CHARSET.name()), equalTo("*SimpleFooBarBean:bar=\"barValue\",foo=\"fooValue\";"));
+		}
+
+		surfMessageBodyWriter.setFieldsQueryParameterEnabled(true);
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			surfMessageBodyWriter.writeTo(simpleFooBarBean, null, null, null, null, null, baos);
+			assertThat(baos.toString(SURF.CHARSET.name()), equalTo("*SimpleFooBarBean:bar=\"barValue\";"));
+		}
+		assertThat(surfMessageBodyWriter.getProjection(null, ProjectedResource.class.getMethod("getNested").getAnnotations()),
+				is(SurfProjection.parse("bar.foo")));
+		queryParameters.putSingle(SurfMessageBodyWriter.FIELDS_QUERY_PARAMETER, "foo,bar");
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) { //the annotation selection is not widened by the request
+			surfMessageBodyWriter.writeTo(simpleFooBarBean, null, null, ProjectedResource.class.getMethod("getFoo").getAnnotations(), null, null, baos);
+			assertThat(baos.toString(SURF.CHARSET.name()), equalTo("*SimpleFooBarBean:foo=\"fooValue\";"));
+		}
+	}
+
+	/** Resource methods selecting properties to write. */
+	public static class ProjectedResource {
+
+		@SurfCacheable
+		@SurfFields("foo")
+		public CountingFooBarBean getFoo() {
+			return null;
+		}
+
+		@SurfCacheable
+		@SurfFields("bar.foo")
+		public List<ComplexFooBarBean> getNested() {
+			return null;
+		}
+
+	}
+
 	/**
 	 * Tests whether the method
 	 * {@link SurfMessageBodyWriter#isWriteable(Class, java.lang.reflect.Type, java.lang.annotation.Annotation[], javax.ws.rs.core.MediaType)} is working
@@ -0,0 +1,107 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+/**
+ * Tests of {@link SurfProjection}.
+ *
+ * @author Garret Wilson
+ */
+public class SurfProjectionTest {
+
+	/** Tests parsing nested selections using parentheses and dotted paths. */
+	@Test
+	public void testParse() {
+		final SurfProjection projection = SurfProjection.parse("id, name, owner(name, address.city)");
+		assertThat(projection.isAll(), is(false));
+		assertThat(projection.includes("id"), is(true));
+		assertThat(projection.includes("email"), is(false));
+		assertThat(projection.getPropertyProjection("id"), is(SurfProjection.ALL));
+		assertThat(projection.getPropertyProjection("email"), is(SurfProjection.ALL));
+		final SurfProjection ownerProjection = projection.getPropertyProjection("owner");
+		assertThat(ownerProjection.includes("name"), is(true));
+		assertThat(ownerProjection.includes("email"), is(false));
+		assertThat(ownerProjection.getPropertyProjection("address").includes("city"), is(true));
+		assertThat(ownerProjection.getPropertyProjection("address").includes("street"), is(false));
+		assertThat(projection.toString(), is("id,name,owner(address(city),name)"));
+
+		assertThat(SurfProjection.parse(" "), is(SurfProjection.ALL));
+		assertThat(SurfProjection.parse("owner.name,owner.email,id"), is(SurfProjection.parse("id,owner(email,name)")));
+		assertThat(SurfProjection.parse("owner.name,owner"), is(SurfProjection.parse("owner"))); //selecting the whole property includes all nested properties
+	}
+
+	/** Tests that intersecting projections selects only the properties selected by both, at every level. */
+	@Test
+	public void testIntersect() {
+		final SurfProjection projection = SurfProjection.parse("id,name,owner(name,address.city)");
+		assertThat(projection.intersect(SurfProjection.ALL), is(sameInstance(projection)));
+		assertThat(SurfProjection.ALL.intersect(projection), is(sameInstance(projection)));
+		assertThat(SurfProjection.ALL.intersect(SurfProjection.ALL), is(SurfProjection.ALL));
+		assertThat(projection.intersect(SurfProjection.parse("name,email")), is(SurfProjection.parse("name")));
+		assertThat(projection.intersect(SurfProjection.parse("owner")), is(SurfProjection.parse("owner(name,address.city)")));
+		assertThat(projection.intersect(SurfProjection.parse("owner.address")), is(SurfProjection.parse("owner.address.city")));
+		assertThat(SurfProjection.parse("owner").intersect(projection), is(SurfProjection.parse("owner(name,address.city)")));
+
+		final SurfProjection noneProjection = projection.intersect(SurfProjection.parse("email"));
+		assertThat(noneProjection.isAll(), is(false));
+		assertThat(noneProjection.includes("id"), is(false));
+		assertThat(noneProjection.includes("email"), is(false));
+		assertThat(projection.intersect(SurfProjection.parse("owner.email")).getPropertyProjection("owner").includes("name"), is(false));
+	}
+
+	/** Tests that malformed selections are rejected. */
+	@Test
+	public void testParseInvalid() {
+		for(final String fields : new String[] {"id,", "owner(name", "owner()", "id)", ".name", "id name"}) {
+			try {
+				SurfProjection.parse(fields);
+				fail(String.format("Expected \"%s\" to be rejected.", fields));
+			} catch(final IllegalArgumentException illegalArgumentException) {
+				//expected
+			}
+		}
+	}
+
+	/** Tests that selections nested too deeply are rejected rather than exhausting the stack. */
+	@Test
+	public void testParseMaxDepth() {
+		final StringBuilder dotted = new StringBuilder("a");
+		final StringBuilder parenthesized = new StringBuilder("a");
+		for(int i = 1; i < SurfProjection.MAX_DEPTH; i++) {
+			dotted.append(".a");
+			parenthesized.insert(0, "a(").append(')');
+		}
+		assertThat(SurfProjection.parse(dotted.toString()), is(SurfProjection.parse(parenthesized.toString())));
+		for(final String fields : new String[] {dotted + ".a", "a(" + parenthesized + ")", String.join(".", Collections.nCopies(100_000, "a")),
+				String.join("", Collections.nCopies(100_000, "a(")) + "a" + String.join("", Collections.nCopies(100_000, ")"))}) {
+			try {
+				SurfProjection.parse(fields);
+				fail("Expected the maximum depth to be exceeded.");
+			} catch(final IllegalArgumentException illegalArgumentException) {
+				//expected
+			}
+		}
+	}
+
+}
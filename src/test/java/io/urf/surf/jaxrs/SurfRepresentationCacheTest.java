@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.lang.ref.WeakReference;
+import java.util.Optional;
+
+import org.junit.*;
+
+/**
+ * Tests of {@link SurfRepresentationCache}.
+ *
+ * @author Garret Wilson
+ */
+public class SurfRepresentationCacheTest {
+
+	/** Tests that representations are cached by entity identity and format, and that identical representations have identical entity tags. */
+	@Test
+	public void testFind() {
+		final SurfRepresentationCache cache = new SurfRepresentationCache();
+		final String entity = new String("entity");
+		final SurfRepresentation representation = new SurfRepresentation(new byte[] {1, 2, 3});
+		cache.put(entity, false, representation);
+		assertThat(cache.find(entity, false), is(Optional.of(representation)));
+		assertThat(cache.find(entity, true), is(Optional.empty()));
+		assertThat(cache.find(new String("entity"), false), is(Optional.empty())); //an equal entity is not the same entity
+		assertThat(cache.getByteCount(), is(3L + SurfRepresentationCache.ENTRY_OVERHEAD_BYTE_COUNT));
+
+		assertThat(new SurfRepresentation(new byte[] {1, 2, 3}).getEntityTag(), is(representation.getEntityTag()));
+		assertThat(new SurfRepresentation(new byte[] {1, 2, 4}).getEntityTag(), is(not(representation.getEntityTag())));
+		assertThat(representation.getEntityTag(), startsWith("\""));
+		assertThat(representation.getEntityTag(), endsWith("\""));
+	}
+
+	/** Tests that the least recently used representations are evicted to stay within the maximum byte count. */
+	@Test
+	public void testEviction() {
+		final long entryByteCount = 4 + SurfRepresentationCache.ENTRY_OVERHEAD_BYTE_COUNT;
+		final SurfRepresentationCache cache = new SurfRepresentationCache(entryByteCount * 2 + 2);
+		final Object entity1 = new Object();
+		final Object entity2 = new Object();
+		final Object entity3 = new Object();
+		cache.put(entity1, false, new SurfRepresentation(new byte[4]));
+		cache.put(entity2, false, new SurfRepresentation(new byte[4]));
+		cache.find(entity1, false); //entity2 is now the least recently used
+		cache.put(entity3, false, new SurfRepresentation(new byte[4]));
+		assertThat(cache.find(entity1, false).isPresent(), is(true));
+		assertThat(cache.find(entity2, false).isPresent(), is(false));
+		assertThat(cache.find(entity3, false).isPresent(), is(true));
+		assertThat(cache.getSize(), is(2));
+		assertThat(cache.getByteCount(), is(entryByteCount * 2));
+
+		final int tooLargeLength = (int)cache.getMaxByteCount() - SurfRepresentationCache.ENTRY_OVERHEAD_BYTE_COUNT + 1;
+		cache.put(new Object(), false, new SurfRepresentation(new byte[tooLargeLength])); //too large to cache with the overhead of its entry
+		assertThat(cache.getSize(), is(2));
+
+		cache.remove(entity1);
+		assertThat(cache.find(entity1, false).isPresent(), is(false));
+		assertThat(cache.getByteCount(), is(entryByteCount));
+		cache.clear();
+		assertThat(cache.getSize(), is(0));
+		assertThat(cache.getByteCount(), is(0L));
+	}
+
+	/** Tests that the cache does not keep entities from being garbage-collected, and discards the representations of collected entities. */
+	@Test
+	public void testCollectedEntities() throws InterruptedException {
+		final SurfRepresentationCache cache = new SurfRepresentationCache();
+		Object entity = new Object();
+		final WeakReference<Object> entityReference = new WeakReference<>(entity);
+		cache.put(entity, false, new SurfRepresentation(new byte[4]));
+		cache.put(entity, true, new SurfRepresentation(new byte[4]));
+		assertThat(cache.getSize(), is(2));
+		entity = null;
+		for(int i = 0; i < 100 && (entityReference.get() != null || cache.getSize() > 0); i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		Assume.assumeTrue("The entity was not garbage-collected.", entityReference.get() == null);
+		assertThat(cache.getSize(), is(0));
+		assertThat(cache.getByteCount(), is(0L));
+	}
+
+}
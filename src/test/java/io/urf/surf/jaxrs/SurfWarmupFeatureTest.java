@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Method;
+import java.util.*;
+
+import javax.ws.rs.*;
+import javax.ws.rs.container.ResourceInfo;
+
+import org.junit.*;
+
+/**
+ * Tests of {@link SurfWarmupFeature}.
+ *
+ * @author Garret Wilson
+ */
+public class SurfWarmupFeatureTest {
+
+	/**
+	 * Configures a warmup feature for a resource method.
+	 * @param feature The feature to configure.
+	 * @param methodName The name of the method of {@link TestResource}.
+	 * @throws NoSuchMethodException if the method does not exist.
+	 */
+	private static void configure(final SurfWarmupFeature feature, final String methodName) throws NoSuchMethodException {
+		final Method method = TestResource.class.getMethod(methodName);
+		feature.configure(new ResourceInfo() {
+			@Override
+			public Method getResourceMethod() {
+				return method;
+			}
+
+			@Override
+			public Class<?> getResourceClass() {
+				return TestResource.class;
+			}
+		}, null);
+	}
+
+	/** Tests that serialization plans are compiled for the beans reachable from the return types of SURF resource methods. */
+	@Test
+	public void testWarmUp() throws NoSuchMethodException {
+		final SurfMessageBodyWriter writer = new SurfMessageBodyWriter();
+		final InMemorySurfWriterInstrumentation instrumentation = new InMemorySurfWriterInstrumentation();
+		writer.setInstrumentation(instrumentation);
+		final SurfWarmupFeature feature = new SurfWarmupFeature(writer);
+
+		configure(feature, "getJson");
+		assertThat(feature.getWarmedUpMethodCount(), is(0));
+		assertThat(instrumentation.getStatistics().isEmpty(), is(true));
+
+		configure(feature, "getBeans"); //the element type of the list refers to another bean class
+		assertThat(feature.getWarmedUpMethodCount(), is(1));
+		assertThat(instrumentation.findStatistics(List.class).get().getWarmupCount(), is(1L));
+		assertThat(instrumentation.findStatistics(ComplexFooBarBean.class).get().getSerializationPlanCacheMissCount(), is(1L));
+		assertThat(instrumentation.findStatistics(SimpleFooBarBean.class).get().getSerializationPlanCacheMissCount(), is(1L));
+
+		configure(feature, "getBeansById"); //inherits the class media type
+		assertThat(feature.getWarmedUpMethodCount(), is(2));
+		assertThat(instrumentation.findStatistics(WideFooBarBean.class).get().getSerializationPlanCacheMissCount(), is(1L));
+		assertThat(feature.getWarmupNanos(), is(greaterThan(0L)));
+	}
+
+	/** Tests determining whether a resource method produces SURF. */
+	@Test
+	public void testProducesSurf() throws NoSuchMethodException {
+		assertThat(SurfWarmupFeature.producesSurf(TestResource.class.getMethod("getBeans"), TestResource.class), is(true));
+		assertThat(SurfWarmupFeature.producesSurf(TestResource.class.getMethod("getBeansById"), TestResource.class), is(true));
+		assertThat(SurfWarmupFeature.producesSurf(TestResource.class.getMethod("getJson"), TestResource.class), is(false));
+		assertThat(SurfWarmupFeature.producesSurf(TestResource.class.getMethod("getBeansById"), null), is(false));
+	}
+
+	/** A resource with methods producing various media types. */
+	@Produces("application/json, text/surf;formatted=true")
+	public static class TestResource {
+
+		@GET
+		@Produces("text/surf")
+		public List<ComplexFooBarBean> getBeans() {
+			return Collections.emptyList();
+		}
+
+		@GET
+		public Map<String, WideFooBarBean> getBeansById() {
+			return Collections.emptyMap();
+		}
+
+		@GET
+		@Produces("application/json")
+		public SimpleFooBarBean getJson() {
+			return new SimpleFooBarBean();
+		}
+
+	}
+
+}
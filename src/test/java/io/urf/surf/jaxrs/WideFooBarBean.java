@@ -0,0 +1,256 @@
+/*
+ * Copyright © 2017 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.urf.surf.jaxrs;
+
+import javax.annotation.*;
+
+/**
+ * A JavaBean with more properties than fit in the initial hash table of a {@link io.urf.surf.SurfObject} description.
+ * 
+ * @author Garret Wilson
+ */
+public class WideFooBarBean {
+
+	private String foo;
+
+	private String bar;
+
+	private String baz;
+
+	private String qux;
+
+	private String quux;
+
+	private String corge;
+
+	private String grault;
+
+	private String garply;
+
+	private String waldo;
+
+	private String fred;
+
+	private String plugh;
+
+	private String xyzzy;
+
+	private String thud;
+
+	private String wibble;
+
+	/** No-args constructor. */
+	public WideFooBarBean() {
+	}
+
+	/** @return The foo. */
+	public String getFoo() {
+		return foo;
+	}
+
+	/**
+	 * Sets foo.
+	 * 
+	 * @param foo The new foo.
+	 */
+	public void setFoo(@Nullable final String foo) {
+		this.foo = foo;
+	}
+
+	/** @return The bar. */
+	public String getBar() {
+		return bar;
+	}
+
+	/**
+	 * Sets bar.
+	 * 
+	 * @param bar The new bar.
+	 */
+	public void setBar(@Nullable final String bar) {
+		this.bar = bar;
+	}
+
+	/** @return The baz. */
+	public String getBaz() {
+		return baz;
+	}
+
+	/**
+	 * Sets baz.
+	 * 
+	 * @param baz The new baz.
+	 */
+	public void setBaz(@Nullable final String baz) {
+		this.baz = baz;
+	}
+
+	/** @return The qux. */
+	public String getQux() {
+		return qux;
+	}
+
+	/**
+	 * Sets qux.
+	 * 
+	 * @param qux The new qux.
+	 */
+	public void setQux(@Nullable final String qux) {
+		this.qux = qux;
+	}
+
+	/** @return The quux. */
+	public String getQuux() {
+		return quux;
+	}
+
+	/**
+	 * Sets quux.
+	 * 
+	 * @param quux The new quux.
+	 */
+	public void setQuux(@Nullable final String quux) {
+		this.quux = quux;
+	}
+
+	/** @return The corge. */
+	public String getCorge() {
+		return corge;
+	}
+
+	/**
+	 * Sets corge.
+	 * 
+	 * @param corge The new corge.
+	 */
+	public void setCorge(@Nullable final String corge) {
+		this.corge = corge;
+	}
+
+	/** @return The grault. */
+	public String getGrault() {
+		return grault;
+	}
+
+	/**
+	 * Sets grault.
+	 * 
+	 * @param grault The new grault.
+	 */
+	public void setGrault(@Nullable final String grault) {
+		this.grault = grault;
+	}
+
+	/** @return The garply. */
+	public String getGarply() {
+		return garply;
+	}
+
+	/**
+	 * Sets garply.
+	 * 
+	 * @param garply The new garply.
+	 */
+	public void setGarply(@Nullable final String garply) {
+		this.garply = garply;
+	}
+
+	/** @return The waldo. */
+	public String getWaldo() {
+		return waldo;
+	}
+
+	/**
+	 * Sets waldo.
+	 * 
+	 * @param waldo The new waldo.
+	 */
+	public void setWaldo(@Nullable final String waldo) {
+		this.waldo = waldo;
+	}
+
+	/** @return The fred. */
+	public String getFred() {
+		return fred;
+	}
+
+	/**
+	 * Sets fred.
+	 * 
+	 * @param fred The new fred.
+	 */
+	public void setFred(@Nullable final String fred) {
+		this.fred = fred;
+	}
+
+	/** @return The plugh. */
+	public String getPlugh() {
+		return plugh;
+	}
+
+	/**
+	 * Sets plugh.
+	 * 
+	 * @param plugh The new plugh.
+	 */
+	public void setPlugh(@Nullable final String plugh) {
+		this.plugh = plugh;
+	}
+
+	/** @return The xyzzy. */
+	public String getXyzzy() {
+		return xyzzy;
+	}
+
+	/**
+	 * Sets xyzzy.
+	 * 
+	 * @param xyzzy The new xyzzy.
+	 */
+	public void setXyzzy(@Nullable final String xyzzy) {
+		this.xyzzy = xyzzy;
+	}
+
+	/** @return The thud. */
+	public String getThud() {
+		return thud;
+	}
+
+	/**
+	 * Sets thud.
+	 * 
+	 * @param thud The new thud.
+	 */
+	public void setThud(@Nullable final String thud) {
+		this.thud = thud;
+	}
+
+	/** @return The wibble. */
+	public String getWibble() {
+		return wibble;
+	}
+
+	/**
+	 * Sets wibble.
+	 * 
+	 * @param wibble The new wibble.
+	 */
+	public void setWibble(@Nullable final String wibble) {
+		this.wibble = wibble;
+	}
+
+}